@@ -5,15 +5,23 @@ import com.venomgrave.hexvg.api.audit.AuditLogger;
 import com.venomgrave.hexvg.api.combat.CombatHook;
 import com.venomgrave.hexvg.api.data.PlayerDataService;
 import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardService;
 import com.venomgrave.hexvg.api.message.MessageProvider;
 import com.venomgrave.hexvg.api.player.HexPlayerManager;
 import com.venomgrave.hexvg.api.rank.RankHook;
 import com.venomgrave.hexvg.api.session.SessionService;
 import com.venomgrave.hexvg.config.CoreConfig;
 import com.venomgrave.hexvg.impl.audit.DatabaseAuditLogger;
+import com.venomgrave.hexvg.impl.command.CoreCommand;
 import com.venomgrave.hexvg.impl.data.PlayerDataServiceImpl;
+import com.venomgrave.hexvg.impl.database.BackfillMigration;
+import com.venomgrave.hexvg.impl.database.BackfillRunner;
 import com.venomgrave.hexvg.impl.database.DatabaseFactory;
 import com.venomgrave.hexvg.impl.database.MigrationRunner;
+import com.venomgrave.hexvg.impl.database.OnlineIndexBuild;
+import com.venomgrave.hexvg.impl.database.QueryPlanCheck;
+import com.venomgrave.hexvg.impl.database.UuidStorageMigration;
+import com.venomgrave.hexvg.impl.message.PermissionAudiences;
 import com.venomgrave.hexvg.impl.message.YamlMessageProvider;
 import com.venomgrave.hexvg.impl.placeholder.PapiHook;
 import com.venomgrave.hexvg.impl.player.HexPlayerManagerImpl;
@@ -22,6 +30,7 @@ import com.venomgrave.hexvg.impl.session.SessionListener;
 import com.venomgrave.hexvg.impl.session.SessionServiceImpl;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public final class HexVGCore extends JavaPlugin {
@@ -33,14 +42,19 @@ public final class HexVGCore extends JavaPlugin {
     private CoreConfig coreConfig;
 
     // ── Serwisy ───────────────────────────────────────────────────────────
-    private DatabaseService   databaseService;
-    private AuditLogger       auditLogger;
-    private MessageProvider   messageProvider;
-    private SessionService    sessionService;
-    private PlayerDataService playerDataService;
-    private HexPlayerManager  playerManager;
-    private RankHook          rankHook;
-    private CombatHook        combatHook;
+    private DatabaseService    databaseService;
+    private AuditLogger        auditLogger;
+    private MessageProvider    messageProvider;
+    private SessionService     sessionService;
+    private LeaderboardService leaderboardService;
+    private PlayerDataService  playerDataService;
+    private HexPlayerManager   playerManager;
+    private RankHook           rankHook;
+    private CombatHook         combatHook;
+    private BackfillRunner     backfillRunner;
+    private QueryPlanCheck     queryPlanCheck;
+    // Zgłoszone przez migracje przy starcie — ruszają razem z BackfillRunnerem
+    private final List<BackfillMigration> startupBackfills = new ArrayList<>();
 
     // ── API ───────────────────────────────────────────────────────────────
     private HexVGCoreAPI api;
@@ -84,7 +98,10 @@ public final class HexVGCore extends JavaPlugin {
         // ── Krok 6: API ───────────────────────────────────────────────────
         buildApi();
 
-        // ── Krok 7: Podsumowanie ──────────────────────────────────────────
+        // ── Krok 7: Komendy ───────────────────────────────────────────────
+        registerCommands();
+
+        // ── Krok 8: Podsumowanie ──────────────────────────────────────────
         long elapsed = System.currentTimeMillis() - startTime;
         printFooter(elapsed);
     }
@@ -95,17 +112,27 @@ public final class HexVGCore extends JavaPlugin {
 
         // Kolejność ważna — najpierw flush danych, potem zamknięcie DB
 
-        // 1. Flush wszystkich aktywnych sesji
+        // 1. Zatrzymaj backfille — bieżąca paczka wycofana, kursor zostaje
+        if (backfillRunner != null) {
+            backfillRunner.shutdown();
+        }
+
+        // 2. Flush wszystkich aktywnych sesji
         if (sessionService instanceof SessionServiceImpl impl) {
             impl.flushAll();
         }
 
-        // 2. Shutdown audit loggera — czeka na pending wpisy (max 5s)
+        // 3. Shutdown audit loggera — czeka na pending wpisy (max 5s)
         if (auditLogger instanceof DatabaseAuditLogger dal) {
             dal.shutdown();
         }
 
-        // 3. Zamknij pulę połączeń DB
+        // 4. Zatrzymaj cache kar (koło czasowe)
+        if (playerDataService instanceof PlayerDataServiceImpl pds) {
+            pds.shutdown();
+        }
+
+        // 5. Zamknij pulę połączeń DB
         if (databaseService != null) {
             databaseService.shutdown();
         }
@@ -175,13 +202,29 @@ public final class HexVGCore extends JavaPlugin {
      */
     private boolean runMigrations() {
         try {
-            new MigrationRunner(databaseService, getLogger(), "core")
-                    .run(List.of(
-                            "V1__core_init.sql",
-                            "V2__punishments_init.sql",
-                            "V3__sessions.sql",
-                            "V4__players.sql"
-                    ));
+            MigrationRunner migrations = new MigrationRunner(databaseService, getLogger(), "core")
+                    // hexvg_sessions bywa ogromna — na MySQL indeks powstaje w tle
+                    .onlineIndex(new OnlineIndexBuild("core", "hexvg_sessions",
+                            "idx_sessions_uuid_login", "player_uuid, login_at, logout_at",
+                            "idx_sessions_uuid"));
+            migrations.run(List.of(
+                    "V1__core_init.sql",
+                    "V2__punishments_init.sql",
+                    "V3__sessions.sql",
+                    "V4__players.sql",
+                    "V5__player_summary.sql",
+                    "V6__backfill_progress.sql",
+                    "V7__hot_query_indexes.sql",
+                    "V8__nick_nocase_index.sql"
+            ));
+
+            startupBackfills.addAll(migrations.getPendingBuilds());
+
+            // Format kolumn UUID — przed serwisami, które je wiążą.
+            // MySQL przepisuje dane w tle — backfill rusza z initServices()
+            BackfillMigration uuidBackfill = new UuidStorageMigration(databaseService, getLogger())
+                    .apply(coreConfig.isBinaryUuids(), coreConfig.isUuidSwap());
+            if (uuidBackfill != null) startupBackfills.add(uuidBackfill);
             return true;
         } catch (Exception e) {
             getLogger().severe("Błąd migracji: " + e.getMessage());
@@ -205,16 +248,32 @@ public final class HexVGCore extends JavaPlugin {
         auditLogger = new DatabaseAuditLogger(
                 databaseService,
                 getLogger(),
-                coreConfig
+                coreConfig,
+                getDataFolder()
         );
 
+        // BackfillRunner — migracje danych w tle, paczkami
+        backfillRunner = new BackfillRunner(
+                databaseService,
+                getLogger(),
+                coreConfig.getBackfillChunkMs(),
+                coreConfig.getBackfillDutyPercent()
+        );
+        startupBackfills.forEach(backfillRunner::submit);
+
         // SessionService — zarządzanie sesjami i playtime
         sessionService = new SessionServiceImpl(
                 databaseService,
                 getLogger(),
-                coreConfig
+                coreConfig,
+                backfillRunner
         );
 
+        // LeaderboardService — ranking playtime w pamięci, zasilany przez sesje
+        if (sessionService instanceof SessionServiceImpl impl) {
+            leaderboardService = impl.getLeaderboard();
+        }
+
         // PlayerDataService — profil gracza (nick, ban/mute cache)
         playerDataService = new PlayerDataServiceImpl(
                 databaseService,
@@ -231,12 +290,32 @@ public final class HexVGCore extends JavaPlugin {
         // HexPlayerManager — cache online graczy
         // Inicjalizowany po serwisach których używa
         playerManager = new HexPlayerManagerImpl(
+                databaseService,
                 sessionService,
                 playerDataService,
                 rankHook,
-                getLogger()
+                getLogger(),
+                coreConfig
         );
 
+        // Snapshoty offline zdejmowane po zapisach Core
+        if (sessionService instanceof SessionServiceImpl impl) {
+            impl.onFlushed(playerManager::invalidateSnapshot);
+        }
+        if (playerDataService instanceof PlayerDataServiceImpl pds) {
+            pds.onProfileChange(playerManager::invalidateSnapshot);
+        }
+
+        // Plany gorących zapytań — przy starcie w tle (wynik w logach),
+        // na żądanie przez /hexvg db plans
+        List<QueryPlanCheck.HotQuery> hot = new ArrayList<>();
+        if (playerDataService instanceof PlayerDataServiceImpl pds) hot.addAll(pds.hotQueries());
+        if (sessionService instanceof SessionServiceImpl impl) hot.addAll(impl.hotQueries());
+        queryPlanCheck = new QueryPlanCheck(databaseService, getLogger(), hot);
+        if (coreConfig.isQueryPlanCheck()) {
+            queryPlanCheck.runAsync();
+        }
+
         getLogger().info("[HexVG-Core] Serwisy zainicjowane.");
     }
 
@@ -247,7 +326,7 @@ public final class HexVGCore extends JavaPlugin {
     private RankHook initRankHook() {
         if (getServer().getPluginManager().getPlugin("LuckPerms") != null) {
             try {
-                RankHook hook = new LuckPermsRankHook(getLogger());
+                RankHook hook = new LuckPermsRankHook(this, getLogger());
                 getLogger().info("[HexVG-Core] LuckPerms RankHook załadowany.");
                 return hook;
             } catch (Exception e) {
@@ -272,6 +351,7 @@ public final class HexVGCore extends JavaPlugin {
         pm.registerEvents(
                 new SessionListener(
                         this,
+                        databaseService,
                         sessionService,
                         playerDataService,
                         playerManager,
@@ -280,9 +360,25 @@ public final class HexVGCore extends JavaPlugin {
                 this
         );
 
+        // LuckPermsRankHook — czyści cache weight/bypass po wyjściu gracza
+        if (rankHook instanceof LuckPermsRankHook lp) {
+            pm.registerEvents(lp, this);
+        }
+
+        // PermissionAudiences — odbiorcy sendToPermission utrzymywani przyrostowo
+        if (messageProvider instanceof YamlMessageProvider ymp) {
+            PermissionAudiences audiences = ymp.getAudiences();
+            pm.registerEvents(audiences, this);
+            // Bez zdarzeń LuckPerms zbiory by się nie aktualizowały — skan przy broadcaście
+            audiences.setTracked(rankHook instanceof LuckPermsRankHook lp
+                    && lp.subscribeRecalculate(audiences::refresh, audiences::refreshAll));
+        }
+
         // PlaceholderAPI — rejestruj jeśli dostępne
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new PapiHook(this).register();
+            PapiHook papi = new PapiHook(this);
+            papi.register();
+            pm.registerEvents(papi.getCache(), this);
             getLogger().info("[HexVG-Core] PlaceholderAPI hook zarejestrowany.");
         }
 
@@ -300,6 +396,7 @@ public final class HexVGCore extends JavaPlugin {
                 auditLogger,
                 messageProvider,
                 sessionService,
+                leaderboardService,
                 playerDataService,
                 playerManager,
                 rankHook,
@@ -311,6 +408,21 @@ public final class HexVGCore extends JavaPlugin {
         }
     }
 
+    /**
+     * Rejestruje komendy Core. Po buildApi() — BaseCommand korzysta z API.
+     */
+    private void registerCommands() {
+        var command = getCommand("hexvg");
+        if (command == null) {
+            getLogger().warning("[HexVG-Core] Brak komendy hexvg w plugin.yml!");
+            return;
+        }
+
+        CoreCommand core = new CoreCommand(this);
+        command.setExecutor(core);
+        command.setTabCompleter(core);
+    }
+
     // ══════════════════════════════════════════════════════════════════════
     // Logi startowe
     // ══════════════════════════════════════════════════════════════════════
@@ -405,6 +517,9 @@ public final class HexVGCore extends JavaPlugin {
     /** Skrót: HexVGCore.getInstance().getSessionService() */
     public SessionService getSessionService()        { return sessionService; }
 
+    /** Skrót: HexVGCore.getInstance().getLeaderboardService() */
+    public LeaderboardService getLeaderboardService() { return leaderboardService; }
+
     /** Skrót: HexVGCore.getInstance().getPlayerDataService() */
     public PlayerDataService getPlayerDataService()  { return playerDataService; }
 
@@ -417,6 +532,19 @@ public final class HexVGCore extends JavaPlugin {
     /** Skrót: HexVGCore.getInstance().getCombatHook() */
     public CombatHook getCombatHook()                { return combatHook; }
 
+    /**
+     * Kolejka migracji danych w tle — dla pluginów z dużymi tabelami.
+     *
+     * HexVGCore.getInstance().getBackfillRunner().submit(new MyBackfill());
+     */
+    public BackfillRunner getBackfillRunner()        { return backfillRunner; }
+
+    /**
+     * Sprawdzenie planów gorących zapytań — Result.ok() == false oznacza
+     * pełny skan tabeli (np. do bramki w CI).
+     */
+    public QueryPlanCheck getQueryPlanCheck()        { return queryPlanCheck; }
+
     /** Dostęp do konfiguracji Core */
     public CoreConfig getCoreConfig()                { return coreConfig; }
 
@@ -13,6 +13,7 @@ import org.bukkit.entity.Player;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Abstrakcyjna klasa bazowa dla wszystkich komend HexVG.
@@ -28,6 +29,9 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
     protected final MessageProvider  messages;
     protected final HexPlayerManager playerManager;
 
+    // Maksymalna liczba podpowiedzi tab-complete
+    protected static final int TAB_LIMIT = 50;
+
     // Opcjonalne — ustawiaj w konstruktorze podklasy
     protected String  permission   = null;
     protected boolean playerOnly   = false;
@@ -94,6 +98,14 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
         return Collections.emptyList();
     }
 
+    /**
+     * Podpowiedzi nazw online graczy po prefiksie — z indeksu w pamięci.
+     * Przykład w tabComplete(): return completePlayers(args[0]);
+     */
+    protected List<String> completePlayers(String prefix) {
+        return playerManager.completeNames(prefix, TAB_LIMIT);
+    }
+
     // ── Skróty ────────────────────────────────────────────────────────────
 
     /**
@@ -110,6 +122,21 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
         return playerManager.get(player);
     }
 
+    /**
+     * Szuka online gracza po nazwie, a jeśli nie ma — po pseudonimie.
+     * Oba wyszukiwania w pamięci, bez rozróżniania wielkości liter
+     * (pseudonimy online graczy są w cache od logowania).
+     */
+    protected Optional<HexPlayer> findPlayer(String nameOrNick) {
+        Optional<HexPlayer> byName = playerManager.findByName(nameOrNick);
+        if (byName.isPresent()) return byName;
+
+        for (HexPlayer online : playerManager.getOnlinePlayers()) {
+            if (nameOrNick.equalsIgnoreCase(online.getNick())) return Optional.of(online);
+        }
+        return Optional.empty();
+    }
+
     /**
      * Sprawdza minimalną liczbę argumentów.
      * Jeśli brakuje — wysyła INVALID_USAGE i zwraca false.
@@ -1,6 +1,11 @@
 package com.venomgrave.hexvg.api.data;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface PlayerDataService {
 
@@ -27,9 +32,22 @@ public interface PlayerDataService {
 
     /**
      * Sprawdza czy pseudonim jest zajęty przez innego gracza.
+     * Zawsze pyta główną bazę — widzi pseudonimy ustawione na innych serwerach.
      */
     boolean isNickTaken(String nick, UUID excludeUuid);
 
+    /**
+     * Właściciel pseudonimu (bez rozróżniania wielkości liter) lub null.
+     * Zapytanie do DB — nie wołaj z głównego wątku.
+     */
+    UUID findByNick(String nick);
+
+    /**
+     * Pseudonimy zaczynające się od prefiksu (alfabetycznie, najwyżej limit).
+     * Z indeksu w pamięci — do podpowiedzi, nie do sprawdzania zajętości.
+     */
+    List<String> completeNicks(String prefix, int limit);
+
     /**
      * Hash pierwszego IP gracza.
      */
@@ -51,9 +69,72 @@ public interface PlayerDataService {
      */
     int getActiveWarnCount(UUID uuid);
 
+    // ── Wiele graczy naraz — cache + jeden round-trip na paczkę IN (...) ──
+
+    /**
+     * Pseudonimy graczy. Gracze bez pseudonimu nie mają wpisu w mapie.
+     */
+    Map<UUID, String> getNicks(Collection<UUID> uuids);
+
+    /**
+     * Aktywny ban dla każdego podanego gracza.
+     */
+    Map<UUID, Boolean> isBanned(Collection<UUID> uuids);
+
+    /**
+     * Aktywny mute dla każdego podanego gracza.
+     */
+    Map<UUID, Boolean> isMuted(Collection<UUID> uuids);
+
+    /**
+     * Liczba aktywnych warnów dla każdego podanego gracza.
+     */
+    Map<UUID, Integer> getActiveWarnCount(Collection<UUID> uuids);
+
     /**
-     * Invaliduje cache bana/muta dla gracza.
-     * Wywoływane przez ServerTools po ban/unban/mute/unmute.
+     * Invaliduje cache bana/muta/warnów dla gracza — stan zostanie
+     * przeładowany z DB. Wywoływane przez ServerTools po
+     * unban/unmute/warn-clear (i wszędzie gdzie kara została zdjęta).
      */
     void invalidateCache(UUID uuid);
-}
\ No newline at end of file
+
+    /**
+     * Nałożono nową karę — aktualizuje indeks w pamięci bez zapytania do DB.
+     * Wywoływane przez ServerTools po zapisaniu kary do hexvg_punishments
+     * lub hexvg_warnings.
+     *
+     * @param type      "BAN", "MUTE" lub "WARN" (jak kolumna type)
+     * @param expiresAt null = bezterminowa
+     */
+    void applyPunishment(UUID uuid, String type, Instant expiresAt);
+
+    // ── Async — nie blokują wątku serwera ─────────────────────────────────
+    // Future kończy się na wątku puli DB; do API Bukkit wróć przez
+    // FutureUtil.sync(plugin, future).
+
+    CompletableFuture<Void> upsertProfileAsync(UUID uuid, String name, String ipHash);
+
+    CompletableFuture<String> getNickAsync(UUID uuid);
+
+    CompletableFuture<Void> setNickAsync(UUID uuid, String nick);
+
+    CompletableFuture<Void> clearNickAsync(UUID uuid);
+
+    CompletableFuture<Boolean> isNickTakenAsync(String nick, UUID excludeUuid);
+
+    CompletableFuture<String> getFirstIpHashAsync(UUID uuid);
+
+    CompletableFuture<Boolean> isBannedAsync(UUID uuid);
+
+    CompletableFuture<Boolean> isMutedAsync(UUID uuid);
+
+    CompletableFuture<Integer> getActiveWarnCountAsync(UUID uuid);
+
+    CompletableFuture<Map<UUID, String>> getNicksAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Boolean>> isBannedAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Boolean>> isMutedAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Integer>> getActiveWarnCountAsync(Collection<UUID> uuids);
+}
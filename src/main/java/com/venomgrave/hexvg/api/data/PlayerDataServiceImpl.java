@@ -4,11 +4,25 @@ import com.venomgrave.hexvg.api.data.PlayerDataService;
 import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.api.database.DatabaseType;
 import com.venomgrave.hexvg.config.CoreConfig;
+import com.venomgrave.hexvg.impl.database.QueryPlanCheck;
+import com.venomgrave.hexvg.impl.player.NameIndex;
+import com.venomgrave.hexvg.util.SqlUtil;
 
 import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public class PlayerDataServiceImpl implements PlayerDataService {
@@ -17,9 +31,96 @@ public class PlayerDataServiceImpl implements PlayerDataService {
     private final Logger          logger;
     private final CoreConfig      config;
 
-    // Cache ban/mute — klucz: uuid, wartość: true/false
-    private final Map<UUID, Boolean> banCache  = new ConcurrentHashMap<>();
-    private final Map<UUID, Boolean> muteCache = new ConcurrentHashMap<>();
+    // Wszystkie aktywne kary w pamięci — ładowane przy starcie
+    private final PunishmentIndex index      = new PunishmentIndex();
+    private final TimerWheel      indexWheel = new TimerWheel(1_000L, System.currentTimeMillis());
+
+    // Cache ban/mute — fallback gdy indeks się nie załadował
+    private final PunishmentCache punishments = new PunishmentCache();
+
+    // Wspólny zegar kół czasowych indeksu i cache
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "HexVG-Punish-Wheel");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // Aktywne kary — z hexvg_punishments i hexvg_warnings jednym zapytaniem
+    private static final String ACTIVE_PUNISHMENTS_SQL = """
+            SELECT player_uuid, type, expires_at FROM hexvg_punishments
+            WHERE type IN ('BAN', 'MUTE')
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            UNION ALL
+            SELECT player_uuid, 'WARN', expires_at FROM hexvg_warnings
+            WHERE active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            """;
+
+    private static final String PLAYER_PUNISHMENTS_SQL = """
+            SELECT player_uuid, type, expires_at FROM hexvg_punishments
+            WHERE player_uuid = ?
+              AND type IN ('BAN', 'MUTE')
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            UNION ALL
+            SELECT player_uuid, 'WARN', expires_at FROM hexvg_warnings
+            WHERE player_uuid = ?
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            """;
+
+    // Bany i mute'y jednego gracza — cache przy braku indeksu kar
+    private static final String PUNISHMENTS_SQL = """
+            SELECT type, expires_at FROM hexvg_punishments
+            WHERE player_uuid = ?
+              AND type IN ('BAN', 'MUTE')
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            """;
+
+    private static final String WARN_COUNT_SQL = """
+            SELECT COUNT(*) FROM hexvg_warnings
+            WHERE player_uuid = ?
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            """;
+
+    // Cache pseudonimów online graczy — wypełniany przy logowaniu,
+    // aktualizowany przez setNick/clearNick, czyszczony przy wyjściu.
+    // NO_NICK zamiast null (ConcurrentHashMap nie przyjmuje null).
+    // Odczyty zbiorcze — %s to lista '?' (SqlUtil.queryIn)
+    private static final String NICKS_IN_SQL =
+            "SELECT uuid, nick FROM hexvg_players WHERE uuid IN (%s) AND nick IS NOT NULL";
+
+    private static final String PUNISHMENTS_IN_SQL = """
+            SELECT player_uuid, type, expires_at FROM hexvg_punishments
+            WHERE player_uuid IN (%s)
+              AND type IN ('BAN', 'MUTE')
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            """;
+
+    private static final String WARN_COUNT_IN_SQL = """
+            SELECT player_uuid, COUNT(*) FROM hexvg_warnings
+            WHERE player_uuid IN (%s)
+              AND active = 1
+              AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+            GROUP BY player_uuid
+            """;
+
+    private static final String NO_NICK = "";
+    private final Map<UUID, String> nickCache = new ConcurrentHashMap<>();
+
+    // Wszystkie pseudonimy (także offline) — tylko do tab-complete.
+    // Ładowane przy starcie, potem setNick/clearNick i odczyty z DB.
+    // Nie widzi od razu zmian z innych serwerów, więc sprawdzenia
+    // (isNickTaken, findByNick, getNick) idą do bazy.
+    private final NameIndex nicks = new NameIndex();
+
+    // Zmiana nicku / kar gracza — HexPlayerManager zdejmuje snapshot offline
+    private volatile Consumer<UUID> profileListener = uuid -> {};
 
     public PlayerDataServiceImpl(DatabaseService db,
                                  Logger logger,
@@ -27,6 +128,13 @@ public class PlayerDataServiceImpl implements PlayerDataService {
         this.db     = db;
         this.logger = logger;
         this.config = config;
+
+        loadIndex();
+        loadNicks();
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+
+        long refresh = config.getPunishmentRefreshSeconds();
+        ticker.scheduleWithFixedDelay(this::reconcileIndex, refresh, refresh, TimeUnit.SECONDS);
     }
 
     // ── PlayerDataService ─────────────────────────────────────────────────
@@ -51,7 +159,7 @@ public class PlayerDataServiceImpl implements PlayerDataService {
 
         try (Connection conn = db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             ps.setString(2, name);
             ps.setString(3, ipHash);
             ps.executeUpdate();
@@ -62,12 +170,19 @@ public class PlayerDataServiceImpl implements PlayerDataService {
 
     @Override
     public String getNick(UUID uuid) {
+        String cached = nickCache.get(uuid);
+        if (cached != null) return cached.equals(NO_NICK) ? null : cached;
+
         String sql = "SELECT nick FROM hexvg_players WHERE uuid = ?";
-        try (Connection conn = db.getConnection();
+        try (Connection conn = db.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getString("nick");
+                if (rs.next()) {
+                    String nick = rs.getString("nick");
+                    if (nick != null) nicks.put(uuid, nick);
+                    return nick;
+                }
             }
         } catch (SQLException e) {
             logger.warning("[PlayerData] getNick error: " + e.getMessage());
@@ -91,9 +206,12 @@ public class PlayerDataServiceImpl implements PlayerDataService {
 
         try (Connection conn = db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             ps.setString(2, nick);
             ps.executeUpdate();
+            nickCache.computeIfPresent(uuid, (k, v) -> nick != null ? nick : NO_NICK);
+            nicks.put(uuid, nick);
+            profileListener.accept(uuid);
         } catch (SQLException e) {
             logger.warning("[PlayerData] setNick error: " + e.getMessage());
         }
@@ -104,8 +222,11 @@ public class PlayerDataServiceImpl implements PlayerDataService {
         String sql = "UPDATE hexvg_players SET nick = NULL WHERE uuid = ?";
         try (Connection conn = db.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             ps.executeUpdate();
+            nickCache.computeIfPresent(uuid, (k, v) -> NO_NICK);
+            nicks.remove(uuid);
+            profileListener.accept(uuid);
         } catch (SQLException e) {
             logger.warning("[PlayerData] clearNick error: " + e.getMessage());
         }
@@ -113,15 +234,13 @@ public class PlayerDataServiceImpl implements PlayerDataService {
 
     @Override
     public boolean isNickTaken(String nick, UUID excludeUuid) {
-        String sql = """
-                SELECT 1 FROM hexvg_players
-                WHERE nick = ? AND uuid != ?
-                LIMIT 1
-                """;
-        try (Connection conn = db.getConnection();
+        String sql = nickTakenSql();
+        // Sprawdzenie przed zapisem — główna baza, nie replika ani indeks
+        // w pamięci (pseudonim mógł ustawić inny serwer)
+        try (Connection conn = db.getPrimaryReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, nick);
-            ps.setString(2, excludeUuid.toString());
+            SqlUtil.setUuid(ps, 2, excludeUuid);
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
             }
@@ -131,12 +250,32 @@ public class PlayerDataServiceImpl implements PlayerDataService {
         return false;
     }
 
+    @Override
+    public UUID findByNick(String nick) {
+        String sql = findByNickSql();
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, nick);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return SqlUtil.getUuid(rs, "uuid");
+            }
+        } catch (SQLException e) {
+            logger.warning("[PlayerData] findByNick error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> completeNicks(String prefix, int limit) {
+        return nicks.complete(prefix, limit);
+    }
+
     @Override
     public String getFirstIpHash(UUID uuid) {
         String sql = "SELECT first_ip_hash FROM hexvg_players WHERE uuid = ?";
-        try (Connection conn = db.getConnection();
+        try (Connection conn = db.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getString("first_ip_hash");
             }
@@ -148,25 +287,33 @@ public class PlayerDataServiceImpl implements PlayerDataService {
 
     @Override
     public boolean isBanned(UUID uuid) {
-        return banCache.computeIfAbsent(uuid, this::fetchBanStatus);
+        long now = System.currentTimeMillis();
+        if (index.isReady()) return now < index.banUntil(uuid);
+
+        PunishmentCache.Entry e = punishments.get(uuid, now);
+        if (e == null) e = loadPunishments(uuid);
+        return e.banned(now);
     }
 
     @Override
     public boolean isMuted(UUID uuid) {
-        return muteCache.computeIfAbsent(uuid, this::fetchMuteStatus);
+        long now = System.currentTimeMillis();
+        if (index.isReady()) return now < index.muteUntil(uuid);
+
+        PunishmentCache.Entry e = punishments.get(uuid, now);
+        if (e == null) e = loadPunishments(uuid);
+        return e.muted(now);
     }
 
     @Override
     public int getActiveWarnCount(UUID uuid) {
-        String sql = """
-                SELECT COUNT(*) FROM hexvg_warnings
-                WHERE player_uuid = ?
-                  AND active = 1
-                  AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
-                """;
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        if (index.isReady()) {
+            return index.activeWarnCount(uuid, System.currentTimeMillis());
+        }
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(WARN_COUNT_SQL)) {
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getInt(1);
             }
@@ -176,57 +323,521 @@ public class PlayerDataServiceImpl implements PlayerDataService {
         return 0;
     }
 
+    // ── Wiele graczy naraz ────────────────────────────────────────────────
+
+    @Override
+    public Map<UUID, String> getNicks(Collection<UUID> uuids) {
+        Map<UUID, String> result = new HashMap<>();
+        List<UUID>        query  = new ArrayList<>();
+
+        for (UUID uuid : uuids) {
+            String cached = nickCache.get(uuid);
+            if (cached == null) {
+                query.add(uuid);
+                continue;
+            }
+            if (!cached.equals(NO_NICK)) result.put(uuid, cached);
+        }
+        if (query.isEmpty()) return result;
+
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, NICKS_IN_SQL, query,
+                    rs -> result.put(SqlUtil.getUuid(rs, 1), rs.getString(2)));
+        } catch (SQLException e) {
+            logger.warning("[PlayerData] getNicks error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Boolean> isBanned(Collection<UUID> uuids) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Boolean> result = new HashMap<>();
+
+        if (index.isReady()) {
+            for (UUID uuid : uuids) {
+                result.put(uuid, now < index.banUntil(uuid));
+            }
+            return result;
+        }
+
+        punishmentEntries(uuids, now).forEach((uuid, e) -> result.put(uuid, e.banned(now)));
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Boolean> isMuted(Collection<UUID> uuids) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Boolean> result = new HashMap<>();
+
+        if (index.isReady()) {
+            for (UUID uuid : uuids) {
+                result.put(uuid, now < index.muteUntil(uuid));
+            }
+            return result;
+        }
+
+        punishmentEntries(uuids, now).forEach((uuid, e) -> result.put(uuid, e.muted(now)));
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Integer> getActiveWarnCount(Collection<UUID> uuids) {
+        long now = System.currentTimeMillis();
+        Map<UUID, Integer> result = new HashMap<>();
+        for (UUID uuid : uuids) {
+            result.put(uuid, index.isReady() ? index.activeWarnCount(uuid, now) : 0);
+        }
+        if (index.isReady() || result.isEmpty()) return result;
+
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, WARN_COUNT_IN_SQL, result.keySet(),
+                    rs -> result.put(SqlUtil.getUuid(rs, 1), rs.getInt(2)));
+        } catch (SQLException e) {
+            logger.warning("[PlayerData] getActiveWarnCount(bulk) error: " + e.getMessage());
+        }
+        return result;
+    }
+
     @Override
     public void invalidateCache(UUID uuid) {
-        banCache.remove(uuid);
-        muteCache.remove(uuid);
+        punishments.remove(uuid);
+        profileListener.accept(uuid);
+
+        // Indeks trzyma stary stan do czasu przeładowania — lepsze niż
+        // chwilowe "brak kary" dla świeżo zbanowanego gracza
+        if (index.isReady()) {
+            async(() -> {
+                reloadIndex(uuid);
+                return null;
+            });
+        }
 
         if (config.isDebug()) {
             logger.info("[PlayerData] Invalidated cache: " + uuid);
         }
     }
 
+    // ── Logowanie / wyjście ───────────────────────────────────────────────
+
+    /**
+     * Wypełnia cache danymi pobranymi w AsyncPlayerPreLoginEvent.
+     * Wywoływane przez SessionListener — kolejne isBanned/isMuted/getNick
+     * dla tego gracza nie dotykają DB.
+     *
+     * banUntil / muteUntil — wynik toExpiry(...).
+     */
+    public void prime(UUID uuid, String nick, long banUntil, long muteUntil) {
+        nickCache.put(uuid, nick != null ? nick : NO_NICK);
+        punishments.put(uuid, banUntil, muteUntil, true);
+
+        // Prefetch czyta główną bazę — świeższy niż indeks, jeśli karę
+        // nałożył inny serwer od ostatniego odświeżenia
+        if (index.isReady()) {
+            index.setBanMute(uuid, banUntil, muteUntil);
+            for (long until : new long[] { banUntil, muteUntil }) {
+                if (until != PunishmentCache.NONE && until != PunishmentCache.PERMANENT) {
+                    indexWheel.schedule(uuid, until);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gracz wyszedł — pseudonim z cache, wpis kar przechodzi pod
+     * zasady bezczynności (usunięty po TTL jeśli nikt go nie czyta).
+     */
+    public void forget(UUID uuid) {
+        nickCache.remove(uuid);
+        punishments.unpin(uuid);
+    }
+
+    @Override
+    public void applyPunishment(UUID uuid, String type, Instant expiresAt) {
+        PunishmentIndex.Kind kind;
+        try {
+            kind = PunishmentIndex.Kind.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // KICK itp. — nie mają stanu do śledzenia
+            return;
+        }
+
+        long until = expiresAt != null ? expiresAt.toEpochMilli() : PunishmentCache.PERMANENT;
+        if (until <= System.currentTimeMillis()) return;
+
+        index.add(new PunishmentIndex.Row(uuid, kind, until));
+        if (until != PunishmentCache.PERMANENT) indexWheel.schedule(uuid, until);
+        punishments.remove(uuid);
+        profileListener.accept(uuid);
+    }
+
+    /**
+     * Wołany po zapisie nicku / kary gracza (setNick, clearNick,
+     * applyPunishment, invalidateCache) — na wątku, który zapisywał.
+     */
+    public void onProfileChange(Consumer<UUID> listener) {
+        this.profileListener = listener;
+    }
+
+    /**
+     * Zapytania kar i pseudonimów wykonywane przy każdym logowaniu / czacie / /nick
+     * oraz odczyty zbiorcze (tab, listy graczy) — do sprawdzenia planów (QueryPlanCheck).
+     */
+    public List<QueryPlanCheck.HotQuery> hotQueries() {
+        return List.of(
+                new QueryPlanCheck.HotQuery("activePunishments", ACTIVE_PUNISHMENTS_SQL),
+                new QueryPlanCheck.HotQuery("playerPunishments", PLAYER_PUNISHMENTS_SQL),
+                new QueryPlanCheck.HotQuery("loadPunishments",   PUNISHMENTS_SQL),
+                new QueryPlanCheck.HotQuery("activeWarnCount",   WARN_COUNT_SQL),
+                new QueryPlanCheck.HotQuery("isNickTaken",       nickTakenSql()),
+                new QueryPlanCheck.HotQuery("findByNick",        findByNickSql()),
+                QueryPlanCheck.bulk("nicks(bulk)",       NICKS_IN_SQL),
+                QueryPlanCheck.bulk("punishments(bulk)", PUNISHMENTS_IN_SQL),
+                QueryPlanCheck.bulk("warnCount(bulk)",   WARN_COUNT_IN_SQL)
+        );
+    }
+
+    /**
+     * Zatrzymuje koła czasowe cache kar. Wywoływane w onDisable().
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+        punishments.clear();
+    }
+
+    /**
+     * Zamienia wynik zapytania na termin kary dla cache:
+     * 0 = brak kary, Long.MAX_VALUE = bezterminowa, inaczej epoch millis.
+     */
+    public static long toExpiry(boolean permanent, Timestamp until) {
+        if (permanent) return PunishmentCache.PERMANENT;
+        return until != null ? until.getTime() : PunishmentCache.NONE;
+    }
+
+    // ── Async ─────────────────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<Void> upsertProfileAsync(UUID uuid, String name, String ipHash) {
+        return async(() -> {
+            upsertProfile(uuid, name, ipHash);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> getNickAsync(UUID uuid) {
+        return async(() -> getNick(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Void> setNickAsync(UUID uuid, String nick) {
+        return async(() -> {
+            setNick(uuid, nick);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> clearNickAsync(UUID uuid) {
+        return async(() -> {
+            clearNick(uuid);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isNickTakenAsync(String nick, UUID excludeUuid) {
+        return async(() -> isNickTaken(nick, excludeUuid));
+    }
+
+    @Override
+    public CompletableFuture<String> getFirstIpHashAsync(UUID uuid) {
+        return async(() -> getFirstIpHash(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isBannedAsync(UUID uuid) {
+        // Trafienie w indeks / cache — bez przeskoku na inny wątek
+        if (index.isReady() || punishments.get(uuid, System.currentTimeMillis()) != null) {
+            return CompletableFuture.completedFuture(isBanned(uuid));
+        }
+        return async(() -> isBanned(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isMutedAsync(UUID uuid) {
+        if (index.isReady() || punishments.get(uuid, System.currentTimeMillis()) != null) {
+            return CompletableFuture.completedFuture(isMuted(uuid));
+        }
+        return async(() -> isMuted(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getActiveWarnCountAsync(UUID uuid) {
+        if (index.isReady()) {
+            return CompletableFuture.completedFuture(getActiveWarnCount(uuid));
+        }
+        return async(() -> getActiveWarnCount(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, String>> getNicksAsync(Collection<UUID> uuids) {
+        return async(() -> getNicks(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Boolean>> isBannedAsync(Collection<UUID> uuids) {
+        if (index.isReady()) return CompletableFuture.completedFuture(isBanned(uuids));
+        return async(() -> isBanned(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Boolean>> isMutedAsync(Collection<UUID> uuids) {
+        if (index.isReady()) return CompletableFuture.completedFuture(isMuted(uuids));
+        return async(() -> isMuted(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Integer>> getActiveWarnCountAsync(Collection<UUID> uuids) {
+        if (index.isReady()) return CompletableFuture.completedFuture(getActiveWarnCount(uuids));
+        return async(() -> getActiveWarnCount(uuids));
+    }
+
     // ── Prywatne ─────────────────────────────────────────────────────────
 
-    private boolean fetchBanStatus(UUID uuid) {
-        String sql = """
-                SELECT 1 FROM hexvg_punishments
-                WHERE player_uuid = ?
-                  AND type = 'BAN'
-                  AND active = 1
-                  AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
-                LIMIT 1
-                """;
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, db.getAsyncExecutor());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Pobiera aktywne bany i mute'y gracza jednym zapytaniem
+     * i wstawia je do cache.
+     */
+    private PunishmentCache.Entry loadPunishments(UUID uuid) {
+        long banUntil  = PunishmentCache.NONE;
+        long muteUntil = PunishmentCache.NONE;
+
+        // Główna baza — wołane zaraz po zapisie kary / invalidateCache,
+        // replika może jeszcze nie mieć nowego wiersza
+        try (Connection conn = db.getPrimaryReadConnection();
+             PreparedStatement ps = conn.prepareStatement(PUNISHMENTS_SQL)) {
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+                while (rs.next()) {
+                    Timestamp ts    = rs.getTimestamp("expires_at");
+                    long      until = toExpiry(ts == null, ts);
+                    if ("BAN".equals(rs.getString("type"))) {
+                        banUntil = Math.max(banUntil, until);
+                    } else {
+                        muteUntil = Math.max(muteUntil, until);
+                    }
+                }
             }
         } catch (SQLException e) {
-            logger.warning("[PlayerData] fetchBanStatus error: " + e.getMessage());
+            logger.warning("[PlayerData] loadPunishments error: " + e.getMessage());
         }
-        return false;
+
+        // Online gracz (ma wpis w nickCache) — wpis nie wygasa za bezczynność
+        return punishments.put(uuid, banUntil, muteUntil, nickCache.containsKey(uuid));
     }
 
-    private boolean fetchMuteStatus(UUID uuid) {
-        String sql = """
-                SELECT 1 FROM hexvg_punishments
-                WHERE player_uuid = ?
-                  AND type = 'MUTE'
-                  AND active = 1
-                  AND (expires_at IS NULL OR expires_at > CURRENT_TIMESTAMP)
+    /**
+     * Wpisy cache kar dla wielu graczy — trafienia z cache, reszta
+     * jednym zapytaniem na paczkę IN (...) i wstawiona do cache.
+     */
+    private Map<UUID, PunishmentCache.Entry> punishmentEntries(Collection<UUID> uuids, long now) {
+        Map<UUID, PunishmentCache.Entry> result = new HashMap<>();
+        List<UUID>                       misses = new ArrayList<>();
+
+        for (UUID uuid : uuids) {
+            PunishmentCache.Entry e = punishments.get(uuid, now);
+            if (e != null) {
+                result.put(uuid, e);
+            } else {
+                misses.add(uuid);
+            }
+        }
+        if (misses.isEmpty()) return result;
+
+        Map<UUID, long[]> until = new HashMap<>();
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, PUNISHMENTS_IN_SQL, misses, rs -> {
+                Timestamp ts   = rs.getTimestamp("expires_at");
+                long[]    pair = until.computeIfAbsent(SqlUtil.getUuid(rs, "player_uuid"),
+                        k -> new long[] { PunishmentCache.NONE, PunishmentCache.NONE });
+                int slot = "BAN".equals(rs.getString("type")) ? 0 : 1;
+                pair[slot] = Math.max(pair[slot], toExpiry(ts == null, ts));
+            });
+        } catch (SQLException e) {
+            logger.warning("[PlayerData] punishmentEntries error: " + e.getMessage());
+        }
+
+        for (UUID uuid : misses) {
+            long[] pair = until.getOrDefault(uuid,
+                    new long[] { PunishmentCache.NONE, PunishmentCache.NONE });
+            result.put(uuid, punishments.put(uuid, pair[0], pair[1], nickCache.containsKey(uuid)));
+        }
+        return result;
+    }
+
+    // ── Indeks pseudonimów ────────────────────────────────────────────────
+
+    /**
+     * Ładuje wszystkie ustawione pseudonimy do podpowiedzi.
+     * Wywoływane przy starcie.
+     */
+    private void loadNicks() {
+        String sql = "SELECT uuid, nick FROM hexvg_players WHERE nick IS NOT NULL";
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                nicks.put(SqlUtil.getUuid(rs, 1), rs.getString(2));
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            nicks.clear();
+            logger.warning("[PlayerData] Nie udało się załadować pseudonimów: "
+                    + e.getMessage() + " — podpowiedzi tylko z bieżących zmian.");
+        }
+    }
+
+    /**
+     * Porównanie pseudonimów bez rozróżniania wielkości liter (jak w indeksie).
+     * MySQL — domyślna collation *_ci, SQLite — COLLATE NOCASE
+     * (idx_players_nick_nocase, V8).
+     */
+    private String nickCollation() {
+        return db.getType() == DatabaseType.MYSQL ? "" : " COLLATE NOCASE";
+    }
+
+    private String nickTakenSql() {
+        return """
+                SELECT 1 FROM hexvg_players
+                WHERE nick = ?%s AND uuid != ?
                 LIMIT 1
-                """;
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+                """.formatted(nickCollation());
+    }
+
+    private String findByNickSql() {
+        return "SELECT uuid FROM hexvg_players WHERE nick = ?" + nickCollation() + " LIMIT 1";
+    }
+
+    // ── Indeks kar ────────────────────────────────────────────────────────
+
+    /**
+     * Ładuje wszystkie aktywne kary do indeksu. Wywoływane przy starcie.
+     * Przy błędzie indeks zostaje niegotowy — działa PunishmentCache.
+     */
+    private void loadIndex() {
+        long start = System.currentTimeMillis();
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(ACTIVE_PUNISHMENTS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            List<PunishmentIndex.Row> rows = readRows(rs);
+            index.replaceAll(rows);
+            scheduleRows(rows);
+
+            logger.info("[PlayerData] Indeks kar: " + index.size() + " graczy, "
+                    + rows.size() + " aktywnych kar ("
+                    + (System.currentTimeMillis() - start) + "ms)");
+
+        } catch (SQLException e) {
+            logger.warning("[PlayerData] Nie udało się załadować indeksu kar: "
+                    + e.getMessage() + " — używam zapytań per gracz.");
+        }
+    }
+
+    /**
+     * Okresowo zastępuje indeks świeżym odczytem aktywnych kar — kary
+     * z innych serwerów i wpisane ręcznie w SQL. Gdy w trakcie zapytania
+     * indeks zmienił się lokalnie, wynik jest odrzucany do następnego razu.
+     */
+    private void reconcileIndex() {
+        if (!index.isReady()) return;
+
+        long version = index.version();
+        try (Connection conn = db.getPrimaryReadConnection();
+             PreparedStatement ps = conn.prepareStatement(ACTIVE_PUNISHMENTS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+
+            List<PunishmentIndex.Row> rows = readRows(rs);
+            if (index.replaceAll(rows, version)) {
+                indexWheel.clear();
+                scheduleRows(rows);
+            } else if (config.isDebug()) {
+                logger.info("[PlayerData] Indeks kar zmieniony w trakcie odświeżania — pomijam.");
+            }
+
+        } catch (SQLException | RuntimeException e) {
+            // Wyjątek zatrzymałby scheduleWithFixedDelay na zawsze
+            logger.warning("[PlayerData] Odświeżenie indeksu kar nie powiodło się: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Przeładowuje z DB kary jednego gracza (po invalidateCache).
+     */
+    private void reloadIndex(UUID uuid) {
+        // Główna baza — odczyt tuż po zapisie, replika może być opóźniona
+        try (Connection conn = db.getPrimaryReadConnection();
+             PreparedStatement ps = conn.prepareStatement(PLAYER_PUNISHMENTS_SQL)) {
+            SqlUtil.setUuid(ps, 1, uuid);
+            SqlUtil.setUuid(ps, 2, uuid);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+                List<PunishmentIndex.Row> rows = readRows(rs);
+                index.replace(uuid, rows);
+                scheduleRows(rows);
             }
         } catch (SQLException e) {
-            logger.warning("[PlayerData] fetchMuteStatus error: " + e.getMessage());
+            logger.warning("[PlayerData] reloadIndex error: " + e.getMessage());
+        }
+    }
+
+    private List<PunishmentIndex.Row> readRows(ResultSet rs) throws SQLException {
+        List<PunishmentIndex.Row> rows = new ArrayList<>();
+        while (rs.next()) {
+            UUID      uuid = SqlUtil.getUuid(rs, 1);
+            String    type = rs.getString(2);
+            Timestamp ts   = rs.getTimestamp(3);
+
+            PunishmentIndex.Kind kind = switch (type) {
+                case "BAN"  -> PunishmentIndex.Kind.BAN;
+                case "MUTE" -> PunishmentIndex.Kind.MUTE;
+                default     -> PunishmentIndex.Kind.WARN;
+            };
+            rows.add(new PunishmentIndex.Row(uuid, kind, toExpiry(ts == null, ts)));
+        }
+        return rows;
+    }
+
+    private void scheduleRows(List<PunishmentIndex.Row> rows) {
+        for (PunishmentIndex.Row row : rows) {
+            if (row.until() != PunishmentCache.PERMANENT) {
+                indexWheel.schedule(row.uuid(), row.until());
+            }
+        }
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        try {
+            punishments.tick(now);
+
+            List<UUID> expired = new ArrayList<>();
+            indexWheel.advance(now, expired);
+            for (UUID uuid : expired) {
+                index.purgeExpired(uuid, now);
+            }
+        } catch (RuntimeException e) {
+            // Wyjątek zatrzymałby scheduleAtFixedRate na zawsze
+            logger.warning("[PlayerData] Błąd koła czasowego: " + e.getMessage());
         }
-        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.venomgrave.hexvg.api.database;
+
+import java.util.List;
+
+/**
+ * Miejsce w kodzie, z którego zapytania SQL blokowały wątek serwera.
+ *
+ * @param site      pierwsza ramka spoza HexVG-Core (plugin wywołujący)
+ * @param api       ostatnia ramka HexVG-Core przed wyjściem do wywołującego
+ *                  — zwykle metoda API, która dotknęła bazy
+ * @param count     liczba zapytań / pobrań połączenia z wątku serwera
+ * @param ticks     liczba ticków, w których to miejsce blokowało
+ * @param totalMs   łączny czas blokady
+ * @param maxMs     najdłuższe pojedyncze zapytanie
+ * @param perTickMs średnia blokada na tick, w którym wystąpiło
+ * @param sample    stos z pierwszego wystąpienia (bez ramek JDBC / proxy)
+ */
+public record BlockingCallSite(
+        String       site,
+        String       api,
+        long         count,
+        long         ticks,
+        double       totalMs,
+        double       maxMs,
+        double       perTickMs,
+        List<String> sample
+) {}
@@ -2,15 +2,108 @@ package com.venomgrave.hexvg.api.database;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public interface DatabaseService {
 
     /**
-     * Zwraca połączenie z puli (MySQL) lub singleton (SQLite).
+     * Zwraca połączenie z puli (MySQL) lub połączenie zapisujące (SQLite).
      * ZAWSZE używaj try-with-resources!
      */
     Connection getConnection() throws SQLException;
 
+    /**
+     * Zwraca połączenie przeznaczone wyłącznie do odczytu.
+     * SQLite: osobna pula WAL — odczyty nie czekają na zapisy.
+     * MySQL: pula replik (database.mysql.replicas), jeśli skonfigurowane
+     * i zdrowe — dane mogą być opóźnione o lag replikacji. Odczyt, który
+     * musi zobaczyć własny świeży zapis, rób przez getPrimaryReadConnection().
+     * Domyślnie to samo co getConnection().
+     * ZAWSZE używaj try-with-resources!
+     */
+    default Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Odczyt, który musi zobaczyć świeży zapis (read-after-write).
+     * MySQL: główna pula, nie replika. SQLite: pula czytelników WAL —
+     * widzi każdy zatwierdzony zapis i nie czeka na blokadę zapisu.
+     * ZAWSZE używaj try-with-resources!
+     */
+    default Connection getPrimaryReadConnection() throws SQLException {
+        return getType() == DatabaseType.SQLITE ? getReadConnection() : getConnection();
+    }
+
+    /**
+     * Ograniczona pula wątków dla zapytań asynchronicznych.
+     * Możesz jej użyć do własnych zadań DB — nie uruchamiaj tu niczego
+     * co dotyka API Bukkit.
+     */
+    Executor getAsyncExecutor();
+
+    /**
+     * Asynchroniczny odczyt na połączeniu z getReadConnection().
+     * Future kończy się wyjątkiem jeśli zapytanie rzuci SQLException.
+     *
+     * Wynik wraca na wątku puli — do API Bukkit przejdź przez
+     * FutureUtil.sync(plugin, future).
+     */
+    default <T> CompletableFuture<T> query(SqlFunction<T> work) {
+        return supply(work, true);
+    }
+
+    /**
+     * Asynchroniczny zapis na połączeniu z getConnection().
+     */
+    default CompletableFuture<Void> execute(SqlConsumer work) {
+        return supply(conn -> {
+            work.accept(conn);
+            return null;
+        }, false);
+    }
+
+    private <T> CompletableFuture<T> supply(SqlFunction<T> work, boolean readOnly) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try (Connection conn = readOnly ? getReadConnection() : getConnection()) {
+                    return work.apply(conn);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, getAsyncExecutor());
+        } catch (RuntimeException e) {
+            // Kolejka pełna / executor zamknięty
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Metryki zapytań (database.metrics.enabled), posortowane malejąco
+     * po łącznym czasie. Pusta lista gdy metryki są wyłączone.
+     */
+    default List<QueryStats> getQueryStats() {
+        return List.of();
+    }
+
+    /**
+     * Zeruje metryki zapytań i raport watchdoga — np. przed pomiarem
+     * po zmianie indeksów.
+     */
+    default void resetQueryStats() {
+    }
+
+    /**
+     * Zapytania wykonane z wątku serwera, zgrupowane po miejscu wywołania
+     * (database.metrics.main-thread-watchdog). Null gdy watchdog wyłączony.
+     */
+    default MainThreadBlocking getMainThreadBlocking() {
+        return null;
+    }
+
     /**
      * Zamyka pulę / połączenie. Wywoływane w onDisable().
      */
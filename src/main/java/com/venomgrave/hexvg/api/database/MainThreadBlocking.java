@@ -0,0 +1,24 @@
+package com.venomgrave.hexvg.api.database;
+
+import java.util.List;
+
+/**
+ * Raport watchdoga wątku serwera (database.metrics.main-thread-watchdog).
+ *
+ * @param stalledTicks ticki, w których choć jedno zapytanie szło z wątku serwera
+ * @param totalMs      łączny czas blokady wątku serwera przez SQL
+ * @param worstTickMs  najdłuższa blokada w jednym ticku
+ * @param sites        miejsca wywołań, malejąco po łącznym czasie
+ */
+public record MainThreadBlocking(
+        long                   stalledTicks,
+        double                 totalMs,
+        double                 worstTickMs,
+        List<BlockingCallSite> sites
+) {
+
+    /** Średnia blokada na tick, w którym wystąpiła. */
+    public double perStalledTickMs() {
+        return stalledTicks == 0 ? 0.0 : totalMs / stalledTicks;
+    }
+}
@@ -0,0 +1,29 @@
+package com.venomgrave.hexvg.api.database;
+
+/**
+ * Migawka metryk jednego zapytania (od startu lub ostatniego resetu).
+ *
+ * @param tag     krótka nazwa: treść komentarza blokowego z początku SQL
+ *                albo "CZASOWNIK tabela #hash" (np. "SELECT hexvg_players #3fa2")
+ * @param sql     znormalizowany SQL — tylko znaki zapytania, bez wartości
+ * @param count   liczba wykonań
+ * @param errors  wykonania zakończone SQLException
+ * @param totalMs łączny czas
+ * @param meanMs  średni czas
+ * @param p50Ms   mediana
+ * @param p95Ms   95. percentyl
+ * @param p99Ms   99. percentyl
+ * @param maxMs   najdłuższe wykonanie
+ */
+public record QueryStats(
+        String tag,
+        String sql,
+        long   count,
+        long   errors,
+        double totalMs,
+        double meanMs,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        double maxMs
+) {}
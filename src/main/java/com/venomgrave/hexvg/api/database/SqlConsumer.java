@@ -0,0 +1,14 @@
+package com.venomgrave.hexvg.api.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Praca na połączeniu bez wyniku (INSERT / UPDATE / DELETE).
+ * Używane przez DatabaseService.execute(...).
+ */
+@FunctionalInterface
+public interface SqlConsumer {
+
+    void accept(Connection conn) throws SQLException;
+}
@@ -0,0 +1,14 @@
+package com.venomgrave.hexvg.api.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Praca na połączeniu zwracająca wynik.
+ * Używane przez DatabaseService.query(...).
+ */
+@FunctionalInterface
+public interface SqlFunction<T> {
+
+    T apply(Connection conn) throws SQLException;
+}
@@ -0,0 +1,18 @@
+package com.venomgrave.hexvg.api.leaderboard;
+
+import java.util.UUID;
+
+/**
+ * Pozycja w rankingu czasu gry.
+ *
+ * @param rank    miejsce (od 1)
+ * @param uuid    gracz
+ * @param name    ostatnia znana nazwa (może być null dla starych wpisów)
+ * @param seconds łączny czas gry z bieżącą sesją
+ */
+public record LeaderboardEntry(
+        int    rank,
+        UUID   uuid,
+        String name,
+        long   seconds
+) {}
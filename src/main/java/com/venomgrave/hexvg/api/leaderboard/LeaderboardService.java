@@ -0,0 +1,45 @@
+package com.venomgrave.hexvg.api.leaderboard;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranking łącznego czasu gry.
+ *
+ * Indeks w pamięci — zapytania nie dotykają bazy i można je wywoływać
+ * z main thread. Gracze online są przeliczani co kilka sekund,
+ * więc ich pozycja uwzględnia bieżącą sesję.
+ */
+public interface LeaderboardService {
+
+    /**
+     * Zwraca n pierwszych miejsc (mniej jeśli ranking jest krótszy).
+     */
+    List<LeaderboardEntry> top(int n);
+
+    /**
+     * Zwraca stronę rankingu — strony numerowane od 1.
+     */
+    List<LeaderboardEntry> page(int page, int pageSize);
+
+    /**
+     * Zwraca pozycję na danym miejscu (od 1) lub null jeśli poza rankingiem.
+     */
+    LeaderboardEntry at(int rank);
+
+    /**
+     * Zwraca miejsce gracza (od 1) lub 0 jeśli gracza nie ma w rankingu.
+     */
+    int rankOf(UUID uuid);
+
+    /**
+     * Liczba graczy w rankingu.
+     */
+    int size();
+
+    /**
+     * Czy indeks został już załadowany z bazy.
+     * Do tego czasu ranking zawiera tylko graczy z bieżącego uruchomienia.
+     */
+    boolean isReady();
+}
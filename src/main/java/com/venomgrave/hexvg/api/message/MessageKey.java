@@ -20,6 +20,28 @@ public enum MessageKey {
     DB_CONNECTION_FAILED            ("database.connection-failed"),
     DB_RECONNECTING                 ("database.reconnecting"),
     DB_RECONNECT_FAILED             ("database.reconnect-failed"),
+    DB_STATS_HEADER                 ("database.stats-header"),
+    DB_STATS_ENTRY                  ("database.stats-entry"),
+    DB_STATS_EMPTY                  ("database.stats-empty"),
+    DB_STATS_RESET                  ("database.stats-reset"),
+    DB_BLOCKING_HEADER              ("database.blocking-header"),
+    DB_BLOCKING_ENTRY               ("database.blocking-entry"),
+    DB_BLOCKING_EMPTY               ("database.blocking-empty"),
+    DB_BLOCKING_DISABLED            ("database.blocking-disabled"),
+    DB_PLANS_OK                     ("database.plans-ok"),
+    DB_PLANS_HEADER                 ("database.plans-header"),
+    DB_PLANS_ENTRY                  ("database.plans-entry"),
+    DB_PLANS_FAILED                 ("database.plans-failed"),
+    DB_PLANS_DISABLED               ("database.plans-disabled"),
+
+    // ── Stats ─────────────────────────────────────────────────────────────
+    STATS_AUDIT                     ("stats.audit"),
+    STATS_AUDIT_DISABLED            ("stats.audit-disabled"),
+    STATS_BROADCAST_HEADER          ("stats.broadcast-header"),
+    STATS_BROADCAST_ENTRY           ("stats.broadcast-entry"),
+    STATS_BROADCAST_DISABLED        ("stats.broadcast-disabled"),
+    STATS_RANK_CACHE                ("stats.rank-cache"),
+    STATS_RANK_CACHE_DISABLED       ("stats.rank-cache-disabled"),
 
     // ── Session ───────────────────────────────────────────────────────────
     SESSION_FIRST_JOIN              ("session.first-join"),
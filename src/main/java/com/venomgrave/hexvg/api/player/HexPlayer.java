@@ -8,6 +8,7 @@ import org.bukkit.entity.Player;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Centralny obiekt gracza w ekosystemie HexVG.
@@ -29,27 +30,68 @@ public class HexPlayer {
     private final PlayerDataService  dataService;
     private final RankHook           rankHook;
 
-    // Cache danych które nie zmieniają się w trakcie sesji
-    private final Instant firstJoin;
-    private final int     loginCount;
+    // Cache danych które nie zmieniają się w trakcie sesji.
+    // Bez prefetchu wczytywane leniwie — przy pierwszym odczycie.
+    private volatile Instant firstJoin;
+    private volatile int     loginCount = -1;   // -1 = jeszcze nie wczytano
 
-    // Dane które mogą się zmieniać — odczytywane na żywo
-    // (nick, ban status, playtime)
+    // Obraz profilu (jedno zapytanie) — wczytywany przy pierwszym getterze
+    // który go potrzebuje; null = brak źródła, gettery pytają serwisy
+    private final Supplier<PlayerSnapshot> snapshots;
+    private volatile PlayerSnapshot        snapshot;
 
+    // Dane które mogą się zmieniać u gracza online — odczytywane na żywo
+    // (nick, ban status, playtime); offline — ze snapshotu
+
+    /**
+     * Wariant bez snapshotu — firstJoin i loginCount pobierane leniwie
+     * z SessionService, pozostałe dane na żywo z serwisów.
+     */
     public HexPlayer(UUID uuid,
                      String name,
                      SessionService sessionService,
                      PlayerDataService dataService,
                      RankHook rankHook) {
+        this(uuid, name, sessionService, dataService, rankHook, (Supplier<PlayerSnapshot>) null);
+    }
+
+    /**
+     * Wariant ze snapshotem — konstrukcja nie wykonuje zapytań, pierwszy
+     * getter ładuje cały profil jednym zapytaniem (np. z cache LRU).
+     */
+    public HexPlayer(UUID uuid,
+                     String name,
+                     SessionService sessionService,
+                     PlayerDataService dataService,
+                     RankHook rankHook,
+                     Supplier<PlayerSnapshot> snapshots) {
         this.uuid           = uuid;
         this.name           = name;
         this.sessionService = sessionService;
         this.dataService    = dataService;
         this.rankHook       = rankHook;
+        this.snapshots      = snapshots;
+    }
 
-        // Cache przy tworzeniu obiektu
-        this.firstJoin  = sessionService.getFirstJoin(uuid);
-        this.loginCount = sessionService.getLoginCount(uuid);
+    /**
+     * Wariant bez zapytań — firstJoin i loginCount podane z zewnątrz
+     * (np. pobrane w AsyncPlayerPreLoginEvent).
+     */
+    public HexPlayer(UUID uuid,
+                     String name,
+                     SessionService sessionService,
+                     PlayerDataService dataService,
+                     RankHook rankHook,
+                     Instant firstJoin,
+                     int loginCount) {
+        this.uuid           = uuid;
+        this.name           = name;
+        this.sessionService = sessionService;
+        this.dataService    = dataService;
+        this.rankHook       = rankHook;
+        this.snapshots      = null;
+        this.firstJoin      = firstJoin;
+        this.loginCount     = loginCount;
     }
 
     // ── Identyfikacja ─────────────────────────────────────────────────────
@@ -80,27 +122,31 @@ public class HexPlayer {
      * Uwzględnia bieżącą sesję jeśli gracz jest online.
      */
     public long getPlaytimeSeconds() {
-        return sessionService.getPlaytimeSeconds(uuid);
+        PlayerSnapshot s = offlineSnapshot();
+        return s != null ? s.playtimeSeconds() : sessionService.getPlaytimeSeconds(uuid);
     }
 
     /**
      * Czas ostatniego logowania.
      */
     public Instant getLastSeen() {
-        return sessionService.getLastSeen(uuid);
+        PlayerSnapshot s = offlineSnapshot();
+        return s != null ? s.lastSeen() : sessionService.getLastSeen(uuid);
     }
 
     /**
-     * Czas pierwszego dołączenia (cache — nie odpytuje DB).
+     * Czas pierwszego dołączenia (cache — DB najwyżej raz na obiekt).
      */
     public Instant getFirstJoin() {
+        loadJoinStats();
         return firstJoin;
     }
 
     /**
-     * Liczba logowań (cache — nie odpytuje DB).
+     * Liczba logowań (cache — DB najwyżej raz na obiekt).
      */
     public int getLoginCount() {
+        loadJoinStats();
         return loginCount;
     }
 
@@ -108,7 +154,7 @@ public class HexPlayer {
      * Sprawdza czy gracz kiedykolwiek był na serwerze.
      */
     public boolean hasPlayed() {
-        return loginCount > 0;
+        return getLoginCount() > 0;
     }
 
     // ── Profil ────────────────────────────────────────────────────────────
@@ -117,14 +163,24 @@ public class HexPlayer {
      * Aktualny pseudonim (lub null jeśli brak).
      */
     public String getNick() {
-        return dataService.getNick(uuid);
+        PlayerSnapshot s = offlineSnapshot();
+        return s != null ? s.nick() : dataService.getNick(uuid);
     }
 
     /**
      * Hash pierwszego IP gracza.
      */
     public String getFirstIpHash() {
-        return dataService.getFirstIpHash(uuid);
+        PlayerSnapshot s = snapshot();
+        return s != null ? s.firstIpHash() : dataService.getFirstIpHash(uuid);
+    }
+
+    /**
+     * Obraz profilu z jednego zapytania — stan z chwili pierwszego
+     * odczytu. Null jeśli obiekt utworzono bez źródła snapshotu.
+     */
+    public PlayerSnapshot getSnapshot() {
+        return snapshot();
     }
 
     /**
@@ -177,6 +233,35 @@ public class HexPlayer {
 
     // ── Pomocnicze ────────────────────────────────────────────────────────
 
+    private PlayerSnapshot snapshot() {
+        if (snapshots == null) return null;
+        PlayerSnapshot s = snapshot;
+        if (s == null) {
+            s = snapshots.get();
+            snapshot = s;
+        }
+        return s;
+    }
+
+    // Offline — dane zmienne ze snapshotu; online — na żywo (z pamięci serwisów)
+    private PlayerSnapshot offlineSnapshot() {
+        return snapshots != null && !isOnline() ? snapshot() : null;
+    }
+
+    private void loadJoinStats() {
+        if (loginCount >= 0) return;
+
+        PlayerSnapshot s = snapshot();
+        // Kolejność: najpierw firstJoin, loginCount publikuje oba
+        if (s != null) {
+            firstJoin  = s.firstJoin();
+            loginCount = s.loginCount();
+        } else {
+            firstJoin  = sessionService.getFirstJoin(uuid);
+            loginCount = sessionService.getLoginCount(uuid);
+        }
+    }
+
     @Override
     public String toString() {
         return "HexPlayer{uuid=" + uuid + ", name='" + name + "'}";
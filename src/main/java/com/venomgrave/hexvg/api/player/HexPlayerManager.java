@@ -2,9 +2,12 @@ package com.venomgrave.hexvg.api.player;
 
 import org.bukkit.entity.Player;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface HexPlayerManager {
 
@@ -20,16 +23,49 @@ public interface HexPlayerManager {
     HexPlayer get(Player player);
 
     /**
-     * Szuka gracza po nazwie (online).
+     * Szuka gracza po nazwie (online), bez rozróżniania wielkości liter.
+     * Odczyt z indeksu w pamięci — O(1).
      */
     Optional<HexPlayer> findByName(String name);
 
+    /**
+     * Nazwy online graczy zaczynające się od prefiksu (alfabetycznie,
+     * najwyżej limit). Do tab-complete — bez skanowania listy graczy.
+     */
+    List<String> completeNames(String prefix, int limit);
+
     /**
      * Tworzy tymczasowy HexPlayer dla offline gracza.
-     * Używaj tylko gdy konieczne — odpytuje DB.
+     * Konstrukcja nie odpytuje DB — pierwszy getter ładuje PlayerSnapshot
+     * jednym zapytaniem (albo bierze go z cache LRU).
      */
     HexPlayer getOffline(UUID uuid, String name);
 
+    /**
+     * Profil gracza jednym zapytaniem. Dla graczy offline z cache LRU
+     * (cache.snapshot-size) — kolejne wywołania nie dotykają DB aż do
+     * refreshSnapshot / invalidateSnapshot albo wypadnięcia z LRU.
+     * Null jeśli zapytanie się nie powiodło.
+     */
+    PlayerSnapshot getSnapshot(UUID uuid);
+
+    /**
+     * Odrzuca zapamiętany snapshot i ładuje świeży z DB.
+     */
+    PlayerSnapshot refreshSnapshot(UUID uuid);
+
+    /**
+     * Odrzuca zapamiętany snapshot — np. po zmianie danych gracza
+     * offline przez inny plugin.
+     */
+    void invalidateSnapshot(UUID uuid);
+
+    /**
+     * Jak getSnapshot(), ale poza wątkiem serwera. Trafienie w cache
+     * kończy future od razu.
+     */
+    CompletableFuture<PlayerSnapshot> getSnapshotAsync(UUID uuid);
+
     /**
      * Zwraca wszystkich online graczy jako HexPlayer.
      */
@@ -41,6 +77,12 @@ public interface HexPlayerManager {
      */
     void load(UUID uuid, String name);
 
+    /**
+     * Ładuje gracza do cache z gotowymi danymi — bez zapytań do DB.
+     * Wywoływane wyłącznie przez SessionListener.
+     */
+    void load(UUID uuid, String name, Instant firstJoin, int loginCount);
+
     /**
      * Usuwa gracza z cache przy QuitEvent.
      * Wywoływane wyłącznie przez SessionListener.
@@ -0,0 +1,38 @@
+package com.venomgrave.hexvg.api.player;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Niemutowalny obraz profilu gracza z chwili loadedAt.
+ *
+ * Ładowany jednym zapytaniem (profil, sesje, playtime, kary) —
+ * komenda /profil to jeden round-trip zamiast kilku. Dla graczy offline
+ * trzymany w ograniczonym cache LRU; świeży stan przez
+ * HexPlayerManager.refreshSnapshot(uuid).
+ *
+ * @param name            ostatnia znana nazwa (null jeśli brak profilu)
+ * @param nick            pseudonim lub null
+ * @param firstJoin       null jeśli gracz nigdy nie był online
+ * @param lastSeen        null jeśli gracz nigdy nie był online
+ * @param playtimeSeconds łączny czas gry bez bieżącej sesji
+ */
+public record PlayerSnapshot(
+        UUID    uuid,
+        String  name,
+        String  nick,
+        String  firstIpHash,
+        Instant firstJoin,
+        Instant lastSeen,
+        int     loginCount,
+        long    playtimeSeconds,
+        boolean banned,
+        boolean muted,
+        int     activeWarnCount,
+        Instant loadedAt
+) {
+    /** Czy gracz kiedykolwiek był na serwerze. */
+    public boolean hasPlayed() {
+        return loginCount > 0;
+    }
+}
@@ -1,18 +1,21 @@
 package com.venomgrave.hexvg.api.session;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface SessionService {
 
     /**
      * Rejestruje dołączenie gracza.
-     * Wywoływane w PlayerJoinEvent.
+     * Wywoływane w PlayerJoinEvent. Zapis do DB idzie w tle.
      */
     void handleJoin(UUID uuid, String playerName, String ipHash);
 
     /**
-     * Rejestruje wyjście gracza — zapisuje czas sesji do DB.
+     * Rejestruje wyjście gracza — zapisuje czas sesji do DB (w tle).
      * Wywoływane w PlayerQuitEvent.
      */
     void handleQuit(UUID uuid);
@@ -45,9 +48,57 @@ public interface SessionService {
      */
     boolean hasPlayed(UUID uuid);
 
+    // ── Wiele graczy naraz — jeden round-trip na paczkę IN (...) ─────────
+    // Dla list w GUI, raportów multikont itp. zamiast pętli po UUID.
+
+    /**
+     * Łączny czas gry w sekundach dla każdego podanego gracza
+     * (0 jeśli brak danych).
+     */
+    Map<UUID, Long> getPlaytimeSeconds(Collection<UUID> uuids);
+
+    /**
+     * Czas ostatniego logowania (jak getLastSeen). Gracze, którzy nigdy
+     * nie byli online, nie mają wpisu w mapie.
+     */
+    Map<UUID, Instant> getLastSeen(Collection<UUID> uuids);
+
+    /**
+     * Liczba logowań dla każdego podanego gracza (0 jeśli brak).
+     */
+    Map<UUID, Integer> getLoginCount(Collection<UUID> uuids);
+
+    /**
+     * Czas pierwszego dołączenia. Gracze, którzy nigdy nie byli online,
+     * nie mają wpisu w mapie.
+     */
+    Map<UUID, Instant> getFirstJoin(Collection<UUID> uuids);
+
     /**
      * Zapisuje wszystkie aktywne sesje do DB.
      * Wywoływane w onDisable() przed zamknięciem połączenia.
      */
     void flushAll();
-}
\ No newline at end of file
+
+    // ── Async — nie blokują wątku serwera ─────────────────────────────────
+    // Future kończy się na wątku puli DB; do API Bukkit wróć przez
+    // FutureUtil.sync(plugin, future).
+
+    CompletableFuture<Instant> getLastSeenAsync(UUID uuid);
+
+    CompletableFuture<Long> getPlaytimeSecondsAsync(UUID uuid);
+
+    CompletableFuture<Integer> getLoginCountAsync(UUID uuid);
+
+    CompletableFuture<Instant> getFirstJoinAsync(UUID uuid);
+
+    CompletableFuture<Boolean> hasPlayedAsync(UUID uuid);
+
+    CompletableFuture<Map<UUID, Long>> getPlaytimeSecondsAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Instant>> getLastSeenAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Integer>> getLoginCountAsync(Collection<UUID> uuids);
+
+    CompletableFuture<Map<UUID, Instant>> getFirstJoinAsync(Collection<UUID> uuids);
+}
@@ -4,6 +4,8 @@ import com.venomgrave.hexvg.api.database.DatabaseType;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 public class CoreConfig {
@@ -19,6 +21,31 @@ public class CoreConfig {
     private String  mysqlPassword;
     private boolean mysqlSsl;
     private int     mysqlPoolSize;
+    private List<String> mysqlReplicas = List.of();
+    private int     mysqlReplicaPoolSize;
+    private int     sqliteReadPoolSize;
+    private long    writeBehindFlushMs;
+    private int     writeBehindBatchSize;
+    private int     writeBehindMaxPending;
+    private boolean queryMetrics;
+    private long    slowQueryMs;
+    private boolean mainThreadWatchdog;
+    private boolean queryPlanCheck;
+    private long    backfillChunkMs;
+    private String  uuidFormat;
+    private boolean uuidSwap;
+    private int     backfillDutyPercent;
+
+    // Audit
+    private int     auditQueueCapacity;
+    private int     auditBatchSize;
+    private String  auditOverflowPolicy;
+    private int     auditJournalSegmentMb;
+    private int     auditJournalMaxSegments;
+
+    // Cache
+    private int     snapshotCacheSize;
+    private int     punishmentRefreshSeconds;
 
     // General
     private String  defaultLanguage;
@@ -45,6 +72,14 @@ public class CoreConfig {
             valid = false;
         }
 
+        uuidFormat = cfg.getString("database.uuid-format", "TEXT").toUpperCase();
+        if (!uuidFormat.equals("TEXT") && !uuidFormat.equals("BINARY")) {
+            logger.warning("[CoreConfig] Nieznany database.uuid-format: '"
+                    + uuidFormat + "'. Ustawiam TEXT.");
+            uuidFormat = "TEXT";
+        }
+        uuidSwap = cfg.getBoolean("database.uuid-swap", false);
+
         if (databaseType == DatabaseType.MYSQL) {
             mysqlHost = cfg.getString("database.mysql.host", "");
             if (mysqlHost.isBlank()) {
@@ -73,6 +108,132 @@ public class CoreConfig {
                 logger.warning("[CoreConfig] pool-size poza zakresem (1-50). Ustawiam 10.");
                 mysqlPoolSize = 10;
             }
+
+            mysqlReplicas = new ArrayList<>();
+            for (String raw : cfg.getStringList("database.mysql.replicas")) {
+                String replica = raw.trim();
+                int    colon   = replica.lastIndexOf(':');
+                String host    = colon < 0 ? replica : replica.substring(0, colon);
+                int    port    = 3306;
+                if (colon >= 0) {
+                    try {
+                        port = Integer.parseInt(replica.substring(colon + 1));
+                    } catch (NumberFormatException e) {
+                        port = -1;
+                    }
+                }
+                if (host.isBlank() || port < 1 || port > 65535) {
+                    logger.warning("[CoreConfig] Pomijam niepoprawną replikę: '" + raw + "'.");
+                    continue;
+                }
+                mysqlReplicas.add(host + ":" + port);
+            }
+
+            mysqlReplicaPoolSize = cfg.getInt("database.mysql.replica-pool-size", 10);
+            if (mysqlReplicaPoolSize < 1 || mysqlReplicaPoolSize > 50) {
+                logger.warning("[CoreConfig] replica-pool-size poza zakresem (1-50). Ustawiam 10.");
+                mysqlReplicaPoolSize = 10;
+            }
+        }
+
+        if (databaseType == DatabaseType.SQLITE) {
+            sqliteReadPoolSize = cfg.getInt("database.sqlite.read-pool-size", 4);
+            if (sqliteReadPoolSize < 1 || sqliteReadPoolSize > 16) {
+                logger.warning("[CoreConfig] sqlite.read-pool-size poza zakresem (1-16). Ustawiam 4.");
+                sqliteReadPoolSize = 4;
+            }
+        }
+
+        writeBehindFlushMs = cfg.getLong("database.write-behind.flush-interval-ms", 2000L);
+        if (writeBehindFlushMs < 100 || writeBehindFlushMs > 60_000) {
+            logger.warning("[CoreConfig] write-behind.flush-interval-ms poza zakresem (100-60000). Ustawiam 2000.");
+            writeBehindFlushMs = 2000L;
+        }
+
+        writeBehindBatchSize = cfg.getInt("database.write-behind.batch-size", 500);
+        if (writeBehindBatchSize < 10 || writeBehindBatchSize > 10_000) {
+            logger.warning("[CoreConfig] write-behind.batch-size poza zakresem (10-10000). Ustawiam 500.");
+            writeBehindBatchSize = 500;
+        }
+
+        writeBehindMaxPending = cfg.getInt("database.write-behind.max-pending", 50_000);
+        if (writeBehindMaxPending < 1_000 || writeBehindMaxPending > 1_000_000) {
+            logger.warning("[CoreConfig] write-behind.max-pending poza zakresem (1000-1000000). Ustawiam 50000.");
+            writeBehindMaxPending = 50_000;
+        }
+
+        queryMetrics = cfg.getBoolean("database.metrics.enabled", true);
+
+        slowQueryMs = cfg.getLong("database.metrics.slow-query-ms", 250L);
+        if (slowQueryMs < 1 || slowQueryMs > 60_000) {
+            logger.warning("[CoreConfig] metrics.slow-query-ms poza zakresem (1-60000). Ustawiam 250.");
+            slowQueryMs = 250L;
+        }
+
+        mainThreadWatchdog = cfg.getBoolean("database.metrics.main-thread-watchdog", false);
+        if (mainThreadWatchdog) logger.info("[CoreConfig] Watchdog zapytań na wątku serwera włączony.");
+
+        queryPlanCheck = cfg.getBoolean("database.metrics.query-plan-check", true);
+
+        backfillChunkMs = cfg.getLong("database.backfill.chunk-target-ms", 200L);
+        if (backfillChunkMs < 10 || backfillChunkMs > 10_000) {
+            logger.warning("[CoreConfig] backfill.chunk-target-ms poza zakresem (10-10000). Ustawiam 200.");
+            backfillChunkMs = 200L;
+        }
+
+        backfillDutyPercent = cfg.getInt("database.backfill.duty-percent", 25);
+        if (backfillDutyPercent < 1 || backfillDutyPercent > 100) {
+            logger.warning("[CoreConfig] backfill.duty-percent poza zakresem (1-100). Ustawiam 25.");
+            backfillDutyPercent = 25;
+        }
+
+        // ── Audit ─────────────────────────────────────────────────────────
+        auditQueueCapacity = cfg.getInt("audit.queue-capacity", 10_000);
+        if (auditQueueCapacity < 100 || auditQueueCapacity > 1_000_000) {
+            logger.warning("[CoreConfig] audit.queue-capacity poza zakresem (100-1000000). Ustawiam 10000.");
+            auditQueueCapacity = 10_000;
+        }
+
+        auditBatchSize = cfg.getInt("audit.batch-size", 200);
+        if (auditBatchSize < 1 || auditBatchSize > 5_000) {
+            logger.warning("[CoreConfig] audit.batch-size poza zakresem (1-5000). Ustawiam 200.");
+            auditBatchSize = 200;
+        }
+
+        auditOverflowPolicy = cfg.getString("audit.overflow-policy", "JOURNAL").toUpperCase();
+        // SPILL — stara nazwa trybu dziennika
+        if (auditOverflowPolicy.equals("SPILL")) auditOverflowPolicy = "JOURNAL";
+        if (!auditOverflowPolicy.equals("BLOCK")
+                && !auditOverflowPolicy.equals("DROP_OLDEST")
+                && !auditOverflowPolicy.equals("JOURNAL")) {
+            logger.warning("[CoreConfig] Nieznana audit.overflow-policy: '"
+                    + auditOverflowPolicy + "'. Ustawiam JOURNAL.");
+            auditOverflowPolicy = "JOURNAL";
+        }
+
+        auditJournalSegmentMb = cfg.getInt("audit.journal.segment-size-mb", 4);
+        if (auditJournalSegmentMb < 1 || auditJournalSegmentMb > 64) {
+            logger.warning("[CoreConfig] audit.journal.segment-size-mb poza zakresem (1-64). Ustawiam 4.");
+            auditJournalSegmentMb = 4;
+        }
+
+        auditJournalMaxSegments = cfg.getInt("audit.journal.max-segments", 16);
+        if (auditJournalMaxSegments < 2 || auditJournalMaxSegments > 1024) {
+            logger.warning("[CoreConfig] audit.journal.max-segments poza zakresem (2-1024). Ustawiam 16.");
+            auditJournalMaxSegments = 16;
+        }
+
+        // ── Cache ─────────────────────────────────────────────────────────
+        snapshotCacheSize = cfg.getInt("cache.snapshot-size", 1000);
+        if (snapshotCacheSize < 10 || snapshotCacheSize > 100_000) {
+            logger.warning("[CoreConfig] cache.snapshot-size poza zakresem (10-100000). Ustawiam 1000.");
+            snapshotCacheSize = 1000;
+        }
+
+        punishmentRefreshSeconds = cfg.getInt("cache.punishment-refresh-seconds", 60);
+        if (punishmentRefreshSeconds < 5 || punishmentRefreshSeconds > 3600) {
+            logger.warning("[CoreConfig] cache.punishment-refresh-seconds poza zakresem (5-3600). Ustawiam 60.");
+            punishmentRefreshSeconds = 60;
         }
 
         // ── General ───────────────────────────────────────────────────────
@@ -98,6 +259,27 @@ public class CoreConfig {
     public String  getMysqlPassword()      { return mysqlPassword; }
     public boolean isMysqlSsl()            { return mysqlSsl; }
     public int     getMysqlPoolSize()      { return mysqlPoolSize; }
+    public List<String> getMysqlReplicas() { return mysqlReplicas; }
+    public int     getMysqlReplicaPoolSize() { return mysqlReplicaPoolSize; }
+    public int     getSqliteReadPoolSize() { return sqliteReadPoolSize; }
+    public long    getWriteBehindFlushMs() { return writeBehindFlushMs; }
+    public int     getWriteBehindBatchSize() { return writeBehindBatchSize; }
+    public int     getWriteBehindMaxPending() { return writeBehindMaxPending; }
+    public boolean isQueryMetrics()        { return queryMetrics; }
+    public long    getSlowQueryMs()        { return slowQueryMs; }
+    public boolean isMainThreadWatchdog()  { return mainThreadWatchdog; }
+    public boolean isQueryPlanCheck()      { return queryPlanCheck; }
+    public long    getBackfillChunkMs()    { return backfillChunkMs; }
+    public boolean isBinaryUuids()         { return uuidFormat.equals("BINARY"); }
+    public boolean isUuidSwap()            { return uuidSwap; }
+    public int     getBackfillDutyPercent() { return backfillDutyPercent; }
+    public int     getAuditQueueCapacity() { return auditQueueCapacity; }
+    public int     getAuditBatchSize()     { return auditBatchSize; }
+    public String  getAuditOverflowPolicy() { return auditOverflowPolicy; }
+    public int     getAuditJournalSegmentMb() { return auditJournalSegmentMb; }
+    public int     getAuditJournalMaxSegments() { return auditJournalMaxSegments; }
+    public int     getSnapshotCacheSize()  { return snapshotCacheSize; }
+    public int     getPunishmentRefreshSeconds() { return punishmentRefreshSeconds; }
     public String  getDefaultLanguage()    { return defaultLanguage; }
     public boolean isDebug()               { return debug; }
 }
\ No newline at end of file
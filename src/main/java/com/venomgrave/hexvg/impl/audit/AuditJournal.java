@@ -0,0 +1,382 @@
+package com.venomgrave.hexvg.impl.audit;
+
+import com.venomgrave.hexvg.api.audit.AuditAction;
+import com.venomgrave.hexvg.api.audit.AuditEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Dziennik audytu na dysku — segmenty mapowane w pamięci (mmap).
+ *
+ * Każdy wpis trafia najpierw tutaj (append = kopiowanie do pamięci
+ * strony, bez syscalli), writer dosyła go do hexvg_audit paczkami
+ * i przesuwa checkpoint. Crash procesu nie gubi wpisów — strony
+ * zmapowanego pliku zostają w cache systemu i trafiają na dysk.
+ * Gwarancja: at-least-once (po crashu między zapisem paczki do DB
+ * a checkpointem paczka zostanie wysłana ponownie).
+ *
+ * Segment: plik o stałym rozmiarze, wypełniony zerami. Rekord:
+ * [int długość][int crc32][dane]. Długość zapisywana na końcu —
+ * długość 0 oznacza koniec danych (także urwany zapis przy crashu).
+ *
+ * Przejście do nowego segmentu nie robi I/O na wątku wołającym append:
+ * writer z wyprzedzeniem mapuje następny segment (prepareNext) i robi
+ * force() zamkniętych, więc w append zostaje podmiana wskaźnika. Pusty
+ * zapasowy plik na dysku jest bezpieczny — przy odtwarzaniu to po prostu
+ * ostatni, pusty segment.
+ */
+final class AuditJournal {
+
+    private static final String SEGMENT_PREFIX   = "seg-";
+    private static final String SEGMENT_SUFFIX   = ".log";
+    private static final int    HEADER           = 8;
+    private static final long   CHECKPOINT_MAGIC = 0x4845_5856_4741_5544L;
+
+    /** Paczka odczytana z dziennika — commit() przesuwa checkpoint za nią. */
+    record Batch(List<AuditEntry> entries, long endSegment, int endPosition) {
+        boolean isEmpty() { return entries.isEmpty(); }
+    }
+
+    private final File dir;
+    private final int  segmentSize;
+    private final int  maxSegments;
+
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    // Następny segment zmapowany przez writer (id = writeSegment + 1) albo null
+    private MappedByteBuffer spare;
+
+    // Zamknięte segmenty czekające na force() w writerze
+    private final List<MappedByteBuffer> sealed = new ArrayList<>();
+
+    // Pozycja zapisu — zawsze w ostatnim segmencie
+    private long writeSegment;
+    private int  writePosition;
+
+    // Checkpoint — pierwszy wpis niezapisany jeszcze do DB
+    private long readSegment;
+    private int  readPosition;
+
+    private long pending;
+
+    private final RandomAccessFile checkpoint;
+
+    AuditJournal(File dataFolder, int segmentSize, int maxSegments) throws IOException {
+        this.dir         = new File(dataFolder, "audit-journal");
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Nie można utworzyć " + dir);
+        }
+        this.checkpoint = new RandomAccessFile(new File(dir, "checkpoint"), "rw");
+        recover();
+    }
+
+    // ── Zapis ─────────────────────────────────────────────────────────────
+
+    /**
+     * Dopisuje wpis. Zwraca false gdy dziennik jest pełny
+     * (maxSegments segmentów czeka na zapis do DB).
+     */
+    boolean append(AuditEntry entry) throws IOException {
+        // Kodowanie i CRC poza lockiem
+        byte[] data = encode(entry);
+        int    need = HEADER + data.length;
+        if (need > segmentSize) {
+            throw new IOException("Wpis większy niż segment (" + need + " B)");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        synchronized (this) {
+            if (writePosition + need > segmentSize) {
+                if (segments.size() >= maxSegments) return false;
+                roll();
+            }
+
+            MappedByteBuffer buf = segments.get(writeSegment);
+            buf.put(writePosition + HEADER, data);
+            buf.putInt(writePosition + 4, (int) crc.getValue());
+            // Długość na końcu — dopiero teraz rekord jest widoczny dla odczytu
+            buf.putInt(writePosition, data.length);
+
+            writePosition += need;
+            pending++;
+            return true;
+        }
+    }
+
+    /**
+     * Woła writer przed każdą paczką: force() segmentów zamkniętych od
+     * ostatniego razu i mapowanie zapasowego segmentu — poza lockiem,
+     * append w tym czasie nie czeka.
+     */
+    void prepareNext() throws IOException {
+        List<MappedByteBuffer> toForce;
+        long next;
+        synchronized (this) {
+            toForce = new ArrayList<>(sealed);
+            sealed.clear();
+            next = spare == null ? writeSegment + 1 : -1;
+        }
+
+        for (MappedByteBuffer buf : toForce) {
+            buf.force();
+        }
+
+        if (next < 0) return;
+        MappedByteBuffer buf = map(next);
+        synchronized (this) {
+            // append mógł w międzyczasie sam zmapować ten segment
+            if (spare == null && writeSegment + 1 == next) spare = buf;
+        }
+    }
+
+    // Wołane pod lockiem
+    private void roll() throws IOException {
+        sealed.add(segments.get(writeSegment));
+        writeSegment++;
+        writePosition = 0;
+        // Writer nie zdążył (seria wpisów) — mapowanie tutaj, jak dawniej
+        segments.put(writeSegment, spare != null ? spare : map(writeSegment));
+        spare = null;
+    }
+
+    // ── Odczyt / checkpoint ───────────────────────────────────────────────
+
+    /**
+     * Do max wpisów od checkpointu. Nie przesuwa checkpointu.
+     */
+    synchronized Batch read(int max) {
+        List<AuditEntry> entries = new ArrayList<>(Math.min(max, 256));
+        long seg = readSegment;
+        int  pos = readPosition;
+
+        while (entries.size() < max) {
+            MappedByteBuffer buf = segments.get(seg);
+            int len = recordLength(buf, pos);
+            if (len <= 0) {
+                // Koniec segmentu — przejdź do następnego jeśli istnieje
+                Long next = segments.higherKey(seg);
+                if (next == null || seg == writeSegment) break;
+                seg = next;
+                pos = 0;
+                continue;
+            }
+
+            byte[] data = new byte[len];
+            buf.get(pos + HEADER, data);
+            pos += HEADER + len;
+            try {
+                entries.add(decode(data));
+            } catch (IOException | IllegalArgumentException e) {
+                // Nieczytelny wpis (np. akcja z nowszej wersji) — pomijamy
+            }
+        }
+        return new Batch(entries, seg, pos);
+    }
+
+    /**
+     * Paczka zapisana do DB — przesuwa checkpoint i usuwa zużyte segmenty.
+     */
+    synchronized void commit(Batch batch) throws IOException {
+        if (batch.endSegment() == readSegment && batch.endPosition() == readPosition) return;
+
+        readSegment  = batch.endSegment();
+        readPosition = batch.endPosition();
+        pending      = Math.max(0, pending - batch.entries().size());
+
+        writeCheckpoint();
+
+        while (segments.firstKey() < readSegment) {
+            long id = segments.pollFirstEntry().getKey();
+            File f  = segmentFile(id);
+            if (!f.delete()) f.deleteOnExit();
+        }
+    }
+
+    /** Wpisy czekające na zapis do DB. */
+    synchronized long pending() {
+        return pending;
+    }
+
+    /** Bajty na dysku zajęte przez czekające wpisy (w przybliżeniu). */
+    synchronized long pendingBytes() {
+        return (writeSegment - readSegment) * (long) segmentSize + writePosition - readPosition;
+    }
+
+    synchronized void close() {
+        for (MappedByteBuffer buf : segments.values()) {
+            buf.force();
+        }
+        for (MappedByteBuffer buf : sealed) {
+            buf.force();
+        }
+        sealed.clear();
+        try {
+            checkpoint.close();
+        } catch (IOException ignored) {
+            // checkpoint zapisany przy ostatnim commit()
+        }
+    }
+
+    // ── Odtwarzanie ───────────────────────────────────────────────────────
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles((d, name) ->
+                name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+
+        TreeMap<Long, File> found = new TreeMap<>();
+        if (files != null) {
+            for (File f : files) {
+                String id = f.getName().substring(SEGMENT_PREFIX.length(),
+                        f.getName().length() - SEGMENT_SUFFIX.length());
+                try {
+                    found.put(Long.parseLong(id), f);
+                } catch (NumberFormatException ignored) {
+                    // obcy plik
+                }
+            }
+        }
+
+        readCheckpoint(found.isEmpty() ? 1L : found.firstKey());
+
+        for (Map.Entry<Long, File> e : found.entrySet()) {
+            if (e.getKey() < readSegment) {
+                if (!e.getValue().delete()) e.getValue().deleteOnExit();
+            } else {
+                segments.put(e.getKey(), map(e.getKey()));
+            }
+        }
+
+        if (!segments.isEmpty() && readSegment < segments.firstKey()) {
+            // Segment z checkpointu zniknął (usunięty ręcznie)
+            readSegment  = segments.firstKey();
+            readPosition = 0;
+        }
+        if (segments.isEmpty()) {
+            readSegment  = Math.max(readSegment, 1L);
+            readPosition = 0;
+            segments.put(readSegment, map(readSegment));
+        }
+
+        // Policz czekające wpisy i znajdź koniec danych
+        writeSegment  = segments.lastKey();
+        writePosition = 0;
+        pending       = 0;
+        for (Map.Entry<Long, MappedByteBuffer> e : segments.entrySet()) {
+            int pos = e.getKey() == readSegment ? readPosition : 0;
+            int len;
+            while ((len = recordLength(e.getValue(), pos)) > 0) {
+                pos += HEADER + len;
+                pending++;
+            }
+            if (e.getKey() == writeSegment) writePosition = pos;
+        }
+    }
+
+    /**
+     * Długość rekordu na pozycji lub 0 gdy koniec danych.
+     * Rekord z błędną sumą kontrolną (urwany zapis) też kończy dane.
+     */
+    private int recordLength(MappedByteBuffer buf, int pos) {
+        if (pos + HEADER > segmentSize) return 0;
+        int len = buf.getInt(pos);
+        if (len <= 0 || pos + HEADER + len > segmentSize) return 0;
+
+        byte[] data = new byte[len];
+        buf.get(pos + HEADER, data);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue() == buf.getInt(pos + 4) ? len : 0;
+    }
+
+    private MappedByteBuffer map(long id) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFile(id), "rw")) {
+            if (raf.length() != segmentSize) raf.setLength(segmentSize);
+            // Mapowanie pozostaje ważne po zamknięciu kanału
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private File segmentFile(long id) {
+        return new File(dir, SEGMENT_PREFIX + String.format("%012d", id) + SEGMENT_SUFFIX);
+    }
+
+    private void readCheckpoint(long fallbackSegment) throws IOException {
+        readSegment  = fallbackSegment;
+        readPosition = 0;
+        if (checkpoint.length() < 20) return;
+
+        checkpoint.seek(0);
+        long seg = checkpoint.readLong();
+        int  pos = checkpoint.readInt();
+        long sum = checkpoint.readLong();
+        if ((seg ^ pos ^ CHECKPOINT_MAGIC) == sum && pos >= 0 && pos <= segmentSize) {
+            readSegment  = seg;
+            readPosition = pos;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(20);
+        buf.putLong(readSegment);
+        buf.putInt(readPosition);
+        buf.putLong(readSegment ^ readPosition ^ CHECKPOINT_MAGIC);
+        checkpoint.seek(0);
+        checkpoint.write(buf.array());
+    }
+
+    // ── Kodowanie ─────────────────────────────────────────────────────────
+
+    // uuid msb/lsb, actor, action, target?, data?, timestamp millis
+    static byte[] encode(AuditEntry e) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream      out   = new DataOutputStream(bytes);
+        out.writeLong(e.actorUuid().getMostSignificantBits());
+        out.writeLong(e.actorUuid().getLeastSignificantBits());
+        out.writeUTF(e.actorName());
+        out.writeUTF(e.action().name());
+        writeNullable(out, e.target());
+        writeNullable(out, e.data());
+        out.writeLong(e.timestamp().toEpochMilli());
+        return bytes.toByteArray();
+    }
+
+    static AuditEntry decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        UUID        actor  = new UUID(in.readLong(), in.readLong());
+        String      name   = in.readUTF();
+        AuditAction action = AuditAction.valueOf(in.readUTF());
+        String      target = readNullable(in);
+        String      text   = readNullable(in);
+        Instant     at     = Instant.ofEpochMilli(in.readLong());
+        return new AuditEntry(actor, name, action, target, text, at);
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.venomgrave.hexvg.impl.audit;
+
+/**
+ * Migawka metryk writera audytu.
+ *
+ * @param queueDepth     wpisy czekające na zapis (kolejka lub dziennik)
+ * @param queueCapacity  pojemność kolejki w pamięci (0 = tryb dziennika)
+ * @param written        wpisy zapisane do DB od startu
+ * @param dropped        wpisy odrzucone (pełna kolejka / błąd zapisu)
+ * @param journalBytes   bajty dziennika czekające na zapis do DB
+ * @param lastBatchSize  rozmiar ostatniej paczki
+ * @param avgBatchSize   średni rozmiar paczki
+ * @param lastWriteMs    czas zapisu ostatniej paczki
+ * @param maxWriteMs     najdłuższy zapis paczki od startu
+ */
+public record AuditStats(
+        int    queueDepth,
+        int    queueCapacity,
+        long   written,
+        long   dropped,
+        long   journalBytes,
+        int    lastBatchSize,
+        double avgBatchSize,
+        double lastWriteMs,
+        double maxWriteMs
+) {}
@@ -4,14 +4,20 @@ import com.venomgrave.hexvg.api.audit.AuditEntry;
 import com.venomgrave.hexvg.api.audit.AuditLogger;
 import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.config.CoreConfig;
+import com.venomgrave.hexvg.util.SqlUtil;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
 public class DatabaseAuditLogger implements AuditLogger {
@@ -22,71 +28,284 @@ public class DatabaseAuditLogger implements AuditLogger {
             VALUES (?, ?, ?, ?, ?, ?)
             """;
 
+    // BLOCK — tyle maksymalnie czeka wywołujący wątek na miejsce w kolejce
+    private static final long BLOCK_TIMEOUT_MS = 1_000L;
+
+    // JOURNAL — odstęp między próbami gdy DB nie odpowiada
+    private static final long RETRY_MIN_MS = 1_000L;
+    private static final long RETRY_MAX_MS = 30_000L;
+
+    /** Sposób buforowania wpisów — audit.overflow-policy. */
+    public enum OverflowPolicy { BLOCK, DROP_OLDEST, JOURNAL }
+
     private final DatabaseService db;
     private final Logger          logger;
     private final CoreConfig      config;
 
-    // Dedykowany jednowątkowy executor — audit nie blokuje main thread
-    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "HexVG-Audit-Thread");
-        t.setDaemon(true);
-        return t;
-    });
+    // Ograniczona kolejka w pamięci — wielu producentów, jeden konsument
+    private final ArrayBlockingQueue<AuditEntry> queue;
+    private final int                            batchSize;
+    private final OverflowPolicy                 policy;
+    // null gdy tryb kolejki w pamięci
+    private final AuditJournal                   journal;
+
+    // Dedykowany wątek — audit nie blokuje main thread
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // ── Metryki ───────────────────────────────────────────────────────────
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int     lastBatchSize;
+    private volatile long    lastWriteNanos;
+    private volatile long    maxWriteNanos;
 
     public DatabaseAuditLogger(DatabaseService db,
                                Logger logger,
-                               CoreConfig config) {
-        this.db     = db;
-        this.logger = logger;
-        this.config = config;
+                               CoreConfig config,
+                               File dataFolder) {
+        this.db        = db;
+        this.logger    = logger;
+        this.config    = config;
+        this.queue     = new ArrayBlockingQueue<>(config.getAuditQueueCapacity());
+        this.batchSize = config.getAuditBatchSize();
+
+        OverflowPolicy wanted = OverflowPolicy.valueOf(config.getAuditOverflowPolicy());
+        AuditJournal   opened = null;
+        if (wanted == OverflowPolicy.JOURNAL) {
+            try {
+                opened = new AuditJournal(dataFolder,
+                        config.getAuditJournalSegmentMb() * 1024 * 1024,
+                        config.getAuditJournalMaxSegments());
+                if (opened.pending() > 0) {
+                    logger.info("[Audit] Dziennik: " + opened.pending()
+                            + " wpisów do dosłania z poprzedniego uruchomienia.");
+                }
+            } catch (IOException e) {
+                logger.warning("[Audit] Nie można otworzyć dziennika: " + e.getMessage()
+                        + " — używam kolejki w pamięci (DROP_OLDEST).");
+                wanted = OverflowPolicy.DROP_OLDEST;
+            }
+        }
+        this.policy  = wanted;
+        this.journal = opened;
+
+        this.writer = new Thread(journal != null ? this::runJournal : this::runQueue,
+                "HexVG-Audit-Thread");
+        this.writer.setDaemon(true);
+        this.writer.start();
     }
 
     // ── AuditLogger ───────────────────────────────────────────────────────
 
     @Override
     public void log(AuditEntry entry) {
-        executor.submit(() -> persist(entry));
+        if (journal != null) {
+            appendJournal(entry);
+            return;
+        }
+
+        if (queue.offer(entry)) return;
+
+        // Kolejka pełna — DB nie nadąża
+        switch (policy) {
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(entry, BLOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        dropped.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    dropped.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case DROP_OLDEST, JOURNAL -> {
+                while (!queue.offer(entry)) {
+                    if (queue.poll() != null) dropped.incrementAndGet();
+                }
+            }
+        }
     }
 
     @Override
     public void shutdown() {
-        executor.shutdown();
+        // Bez interrupt() — przerwałby zapis paczki w trakcie JDBC;
+        // writer zauważy flagę najpóźniej po sekundzie oczekiwania
+        running = false;
+        LockSupport.unpark(writer);
         try {
             // Daj 5 sekund na dokończenie oczekujących logów
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                logger.warning("[Audit] Timeout przy zamykaniu — część logów mogła zaginąć.");
-                executor.shutdownNow();
-            }
+            writer.join(5_000L);
         } catch (InterruptedException e) {
-            executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+
+        if (journal != null) {
+            long left = journal.pending();
+            journal.close();
+            if (left > 0) {
+                logger.warning("[Audit] " + left
+                        + " wpisów zostaje w dzienniku — zostaną dosłane przy starcie.");
+            }
+            return;
+        }
+
+        List<AuditEntry> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            dropped.addAndGet(left.size());
+            logger.warning("[Audit] Timeout przy zamykaniu — "
+                    + left.size() + " wpisów zaginęło.");
+        }
+    }
+
+    /** Metryki writera — głębokość kolejki, paczki, czas zapisu. */
+    public AuditStats stats() {
+        long n = batches.get();
+        return new AuditStats(
+                journal != null ? (int) Math.min(journal.pending(), Integer.MAX_VALUE) : queue.size(),
+                journal != null ? 0 : queue.size() + queue.remainingCapacity(),
+                written.get(),
+                dropped.get(),
+                journal != null ? journal.pendingBytes() : 0L,
+                lastBatchSize,
+                n == 0 ? 0.0 : (double) written.get() / n,
+                lastWriteNanos / 1_000_000.0,
+                maxWriteNanos  / 1_000_000.0
+        );
+    }
+
+    // ── Writer: dziennik ──────────────────────────────────────────────────
+
+    private void appendJournal(AuditEntry entry) {
+        try {
+            if (journal.append(entry)) {
+                LockSupport.unpark(writer);
+                return;
+            }
+            // Dziennik pełny — DB od dawna niedostępna
+            if (dropped.getAndIncrement() % 1_000 == 0) {
+                logger.warning("[Audit] Dziennik pełny — odrzucam wpisy (odrzucono: "
+                        + dropped.get() + ").");
+            }
+        } catch (IOException e) {
+            dropped.incrementAndGet();
+            logger.warning("[Audit] Błąd zapisu do dziennika: " + e.getMessage());
+        }
+    }
+
+    private void runJournal() {
+        long retryMs = RETRY_MIN_MS;
+
+        // Po shutdown() dosyłamy dalej, aż dziennik się opróżni albo DB odmówi
+        while (true) {
+            try {
+                // Następny segment gotowy zanim append będzie go potrzebował
+                journal.prepareNext();
+
+                AuditJournal.Batch batch = journal.read(batchSize);
+                if (batch.isEmpty()) {
+                    // Mogły być same nieczytelne wpisy — przesuń checkpoint
+                    journal.commit(batch);
+                    if (!running) return;
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                    continue;
+                }
+
+                persist(batch.entries());
+                journal.commit(batch);
+                retryMs = RETRY_MIN_MS;
+            } catch (SQLException e) {
+                // Wpisy zostają w dzienniku — ponowimy później
+                if (!running) return;
+                logger.warning("[Audit] Błąd zapisu (" + e.getMessage()
+                        + ") — ponowię za " + retryMs / 1000 + "s.");
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMs));
+                retryMs = Math.min(retryMs * 2, RETRY_MAX_MS);
+            } catch (IOException | RuntimeException e) {
+                logger.warning("[Audit] Błąd writera: " + e.getMessage());
+                if (!running) return;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_MIN_MS));
+            }
+        }
+    }
+
+    // ── Writer: kolejka w pamięci ─────────────────────────────────────────
+
+    private void runQueue() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEntry first = running
+                        ? queue.poll(1, TimeUnit.SECONDS)
+                        : queue.poll();
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (SQLException e) {
+                dropped.addAndGet(batch.size());
+                logger.warning("[Audit] Błąd zapisu: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warning("[Audit] Błąd writera: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
     }
 
     // ── Prywatne ─────────────────────────────────────────────────────────
 
-    private void persist(AuditEntry entry) {
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+    /**
+     * Zapisuje paczkę jednym batchem w jednej transakcji.
+     */
+    private void persist(List<AuditEntry> batch) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection conn = db.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                for (AuditEntry entry : batch) {
+                    SqlUtil.setUuid(ps, 1, entry.actorUuid());
+                    ps.setString(   2, entry.actorName());
+                    ps.setString(   3, entry.action().name());
+                    ps.setString(   4, entry.target());
+                    ps.setString(   5, entry.data());
+                    ps.setTimestamp(6, Timestamp.from(entry.timestamp()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
 
-            ps.setString(   1, entry.actorUuid().toString());
-            ps.setString(   2, entry.actorName());
-            ps.setString(   3, entry.action().name());
-            ps.setString(   4, entry.target());
-            ps.setString(   5, entry.data());
-            ps.setTimestamp(6, Timestamp.from(entry.timestamp()));
-            ps.executeUpdate();
+        long elapsed = System.nanoTime() - start;
+        lastBatchSize  = batch.size();
+        lastWriteNanos = elapsed;
+        if (elapsed > maxWriteNanos) maxWriteNanos = elapsed;
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
 
-            if (config.isDebug()) {
+        if (config.isDebug()) {
+            for (AuditEntry entry : batch) {
                 logger.info("[Audit] "
                         + entry.actorName()
                         + " → " + entry.action().name()
                         + " | target: " + entry.target()
                         + (entry.data() != null ? " | " + entry.data() : ""));
             }
-
-        } catch (SQLException e) {
-            logger.warning("[Audit] Błąd zapisu: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
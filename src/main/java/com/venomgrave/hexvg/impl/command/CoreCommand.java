@@ -0,0 +1,251 @@
+package com.venomgrave.hexvg.impl.command;
+
+import com.venomgrave.hexvg.HexVGCore;
+import com.venomgrave.hexvg.api.command.BaseCommand;
+import com.venomgrave.hexvg.api.database.BlockingCallSite;
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.MainThreadBlocking;
+import com.venomgrave.hexvg.api.database.QueryStats;
+import com.venomgrave.hexvg.api.message.MessageKey;
+import com.venomgrave.hexvg.impl.audit.AuditStats;
+import com.venomgrave.hexvg.impl.audit.DatabaseAuditLogger;
+import com.venomgrave.hexvg.impl.database.QueryPlanCheck;
+import com.venomgrave.hexvg.impl.message.PermissionAudiences.BroadcastStats;
+import com.venomgrave.hexvg.impl.message.YamlMessageProvider;
+import com.venomgrave.hexvg.impl.rank.LuckPermsRankHook;
+import com.venomgrave.hexvg.impl.rank.LuckPermsRankHook.CacheStats;
+import com.venomgrave.hexvg.util.FutureUtil;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * /hexvg — komendy administracyjne Core.
+ *
+ * /hexvg db stats [limit]    — najdroższe zapytania SQL (łączny czas)
+ * /hexvg db blocking [limit] — zapytania z wątku serwera wg miejsca wywołania
+ * /hexvg db reset            — zeruje metryki i raport watchdoga
+ * /hexvg db plans            — sprawdza plany gorących zapytań (EXPLAIN)
+ * /hexvg audit               — kolejka i zapis audytu
+ * /hexvg broadcast           — odbiorcy i czasy sendToPermission
+ * /hexvg cache               — cache weight/bypass z LuckPerms
+ */
+public class CoreCommand extends BaseCommand {
+
+    private static final String USAGE         = "/hexvg <db|audit|broadcast|cache>";
+    private static final String DB_USAGE      = "/hexvg db <stats [limit]|blocking [limit]|reset|plans>";
+    private static final int    DEFAULT_LIMIT = 10;
+
+    private final DatabaseService db;
+
+    public CoreCommand(HexVGCore core) {
+        super(core);
+        this.db         = core.getAPI().getDatabaseService();
+        this.permission = "hexvg.admin";
+    }
+
+    @Override
+    protected void execute(CommandSender sender,
+                           Command command,
+                           String label,
+                           String[] args) {
+        if (!requireArgs(sender, args, 1, USAGE)) return;
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "db"        -> executeDb(sender, args);
+            case "audit"     -> sendAudit(sender);
+            case "broadcast" -> sendBroadcast(sender);
+            case "cache"     -> sendRankCache(sender);
+            default          -> messages.send(sender, MessageKey.INVALID_USAGE, "usage", USAGE);
+        }
+    }
+
+    private void executeDb(CommandSender sender, String[] args) {
+        if (!requireArgs(sender, args, 2, DB_USAGE)) return;
+
+        switch (args[1].toLowerCase(Locale.ROOT)) {
+            case "stats"    -> sendStats(sender, args);
+            case "blocking" -> sendBlocking(sender, args);
+            case "reset" -> {
+                db.resetQueryStats();
+                messages.send(sender, MessageKey.DB_STATS_RESET);
+            }
+            case "plans"    -> sendPlans(sender);
+            default -> messages.send(sender, MessageKey.INVALID_USAGE, "usage", DB_USAGE);
+        }
+    }
+
+    private void sendStats(CommandSender sender, String[] args) {
+        int limit = parseLimit(sender, args);
+        if (limit < 0) return;
+
+        List<QueryStats> stats = db.getQueryStats();
+        if (stats.isEmpty()) {
+            messages.send(sender, MessageKey.DB_STATS_EMPTY);
+            return;
+        }
+
+        int shown = Math.min(limit, stats.size());
+        messages.send(sender, MessageKey.DB_STATS_HEADER,
+                "shown", shown,
+                "total", stats.size());
+        for (QueryStats q : stats.subList(0, shown)) {
+            messages.send(sender, MessageKey.DB_STATS_ENTRY,
+                    "tag",    q.tag(),
+                    "count",  q.count(),
+                    "mean",   ms(q.meanMs()),
+                    "p50",    ms(q.p50Ms()),
+                    "p95",    ms(q.p95Ms()),
+                    "p99",    ms(q.p99Ms()),
+                    "max",    ms(q.maxMs()),
+                    "errors", q.errors());
+        }
+    }
+
+    private void sendBlocking(CommandSender sender, String[] args) {
+        int limit = parseLimit(sender, args);
+        if (limit < 0) return;
+
+        MainThreadBlocking report = db.getMainThreadBlocking();
+        if (report == null) {
+            messages.send(sender, MessageKey.DB_BLOCKING_DISABLED);
+            return;
+        }
+        if (report.sites().isEmpty()) {
+            messages.send(sender, MessageKey.DB_BLOCKING_EMPTY);
+            return;
+        }
+
+        messages.send(sender, MessageKey.DB_BLOCKING_HEADER,
+                "ticks", report.stalledTicks(),
+                "total", ms(report.totalMs()),
+                "avg",   ms(report.perStalledTickMs()),
+                "worst", ms(report.worstTickMs()));
+        List<BlockingCallSite> sites = report.sites();
+        for (BlockingCallSite site : sites.subList(0, Math.min(limit, sites.size()))) {
+            messages.send(sender, MessageKey.DB_BLOCKING_ENTRY,
+                    "site",     site.site(),
+                    "api",      site.api(),
+                    "count",    site.count(),
+                    "ticks",    site.ticks(),
+                    "total",    ms(site.totalMs()),
+                    "per_tick", ms(site.perTickMs()),
+                    "max",      ms(site.maxMs()));
+        }
+    }
+
+    private void sendPlans(CommandSender sender) {
+        QueryPlanCheck check = core.getQueryPlanCheck();
+        if (check == null) {
+            messages.send(sender, MessageKey.DB_PLANS_DISABLED);
+            return;
+        }
+
+        // EXPLAIN w tle — odpowiedź wraca na wątek serwera
+        FutureUtil.sync(core, check.runAsync()).thenAccept(result -> {
+            if (result.error() != null) {
+                messages.send(sender, MessageKey.DB_PLANS_FAILED, "error", result.error());
+            } else if (result.ok()) {
+                messages.send(sender, MessageKey.DB_PLANS_OK, "count", result.checked());
+            } else {
+                messages.send(sender, MessageKey.DB_PLANS_HEADER,
+                        "regressed", result.regressions().size(),
+                        "count",     result.checked());
+                for (QueryPlanCheck.Regression r : result.regressions()) {
+                    messages.send(sender, MessageKey.DB_PLANS_ENTRY,
+                            "query", r.query(),
+                            "scans", r.scans());
+                }
+            }
+        });
+    }
+
+    private void sendAudit(CommandSender sender) {
+        if (!(core.getAuditLogger() instanceof DatabaseAuditLogger dal)) {
+            messages.send(sender, MessageKey.STATS_AUDIT_DISABLED);
+            return;
+        }
+
+        AuditStats s = dal.stats();
+        messages.send(sender, MessageKey.STATS_AUDIT,
+                "queue",      s.queueDepth(),
+                "capacity",   s.queueCapacity() > 0 ? String.valueOf(s.queueCapacity()) : "-",
+                "journal_kb", s.journalBytes() / 1024,
+                "written",    s.written(),
+                "dropped",    s.dropped(),
+                "batch",      s.lastBatchSize(),
+                "avg_batch",  ms(s.avgBatchSize()),
+                "last",       ms(s.lastWriteMs()),
+                "max",        ms(s.maxWriteMs()));
+    }
+
+    private void sendBroadcast(CommandSender sender) {
+        if (!(core.getMessageProvider() instanceof YamlMessageProvider ymp)) {
+            messages.send(sender, MessageKey.STATS_BROADCAST_DISABLED);
+            return;
+        }
+
+        BroadcastStats s = ymp.getAudiences().stats();
+        messages.send(sender, MessageKey.STATS_BROADCAST_HEADER,
+                "count", s.broadcasts(),
+                "last",  ms(s.lastMs()),
+                "avg",   ms(s.avgMs()),
+                "max",   ms(s.maxMs()));
+        s.audienceSizes().forEach((permission, size) ->
+                messages.send(sender, MessageKey.STATS_BROADCAST_ENTRY,
+                        "permission", permission,
+                        "players",    size));
+    }
+
+    private void sendRankCache(CommandSender sender) {
+        if (!(core.getRankHook() instanceof LuckPermsRankHook lp)) {
+            messages.send(sender, MessageKey.STATS_RANK_CACHE_DISABLED);
+            return;
+        }
+
+        CacheStats s = lp.stats();
+        long lookups = s.hits() + s.misses();
+        messages.send(sender, MessageKey.STATS_RANK_CACHE,
+                "hits",    s.hits(),
+                "misses",  s.misses(),
+                "ratio",   lookups == 0 ? "-" : String.format(Locale.ROOT, "%.1f", 100.0 * s.hits() / lookups),
+                "players", s.players());
+    }
+
+    @Override
+    protected List<String> tabComplete(CommandSender sender,
+                                       Command command,
+                                       String label,
+                                       String[] args) {
+        if (args.length == 1) return filter(List.of("db", "audit", "broadcast", "cache"), args[0]);
+        if (args.length == 2 && args[0].equalsIgnoreCase("db")) {
+            return filter(List.of("stats", "blocking", "reset", "plans"), args[1]);
+        }
+        return Collections.emptyList();
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    // Limit z args[2] lub domyślny; -1 = błędna liczba (komunikat wysłany)
+    private int parseLimit(CommandSender sender, String[] args) {
+        if (args.length < 3) return DEFAULT_LIMIT;
+        try {
+            return Math.max(1, Integer.parseInt(args[2]));
+        } catch (NumberFormatException e) {
+            messages.send(sender, MessageKey.INVALID_NUMBER);
+            return -1;
+        }
+    }
+
+    private static String ms(double value) {
+        return String.format(Locale.ROOT, value < 10 ? "%.2f" : "%.0f", value);
+    }
+
+    private static List<String> filter(List<String> options, String prefix) {
+        String p = prefix.toLowerCase(Locale.ROOT);
+        return options.stream().filter(o -> o.startsWith(p)).toList();
+    }
+}
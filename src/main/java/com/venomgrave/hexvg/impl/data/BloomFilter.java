@@ -0,0 +1,56 @@
+package com.venomgrave.hexvg.impl.data;
+
+/**
+ * Filtr Blooma dla UUID (para long msb/lsb).
+ *
+ * mightContain() == false → na pewno brak w zbiorze. Bity są tylko
+ * ustawiane, nigdy czyszczone — usunięcia z indeksu zostawiają
+ * fałszywe trafienia do najbliższej przebudowy (to tylko koszt
+ * dodatkowego sprawdzenia tabeli, nie błąd).
+ */
+final class BloomFilter {
+
+    private static final int HASHES = 3;
+
+    private final long[] bits;
+    private final int    mask;
+
+    /**
+     * @param expected spodziewana liczba elementów (~16 bitów na element
+     *                 → ok. 0.5% fałszywych trafień przy 3 funkcjach)
+     */
+    BloomFilter(int expected) {
+        int wanted = Math.max(Math.min(expected, 1 << 26) * 16, 1 << 16);
+        int size   = Integer.highestOneBit(wanted - 1) << 1;
+        this.bits = new long[size >>> 6];
+        this.mask = size - 1;
+    }
+
+    void add(long msb, long lsb) {
+        long h1 = mix(msb ^ lsb);
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long msb, long lsb) {
+        long h1 = mix(msb ^ lsb);
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    // Finalizer z SplitMix64 — dobre rozproszenie bitów
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
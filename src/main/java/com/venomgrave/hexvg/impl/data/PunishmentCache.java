@@ -0,0 +1,196 @@
+package com.venomgrave.hexvg.impl.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache banów i mute'ów świadomy czasu wygaśnięcia.
+ *
+ * Zamiast Boolean trzymamy expires_at (epoch millis) — trafienie to
+ * jedno porównanie z zegarem, bez alokacji, i temp-ban "gaśnie" dokładnie
+ * w momencie wygaśnięcia. Koło czasowe sprząta wygasłe kary oraz usuwa
+ * nieużywane wpisy graczy offline; rozmiar wpisów offline jest ograniczony.
+ *
+ * Używany gdy PunishmentIndex nie jest gotowy (np. błąd ładowania przy starcie).
+ */
+final class PunishmentCache {
+
+    /** Brak aktywnej kary. */
+    static final long NONE      = 0L;
+    /** Kara bez terminu wygaśnięcia. */
+    static final long PERMANENT = Long.MAX_VALUE;
+
+    // Wpis gracza offline bez odczytu przez ten czas → usuwany
+    private static final long IDLE_TTL_MS         = 10 * 60_000L;
+    // Twardy limit wpisów graczy offline
+    private static final int  MAX_OFFLINE_ENTRIES = 5_000;
+
+    /**
+     * Stan kar jednego gracza. Pola volatile — odczyt z wątku czatu,
+     * zapis z wątku koła / DB.
+     */
+    static final class Entry {
+        volatile long    banUntil;
+        volatile long    muteUntil;
+        volatile long    lastAccess;
+        // true = gracz online — nie usuwamy za bezczynność. Zmieniane
+        // tylko pod blokadą wpisu w mapie (compute), razem z licznikiem offline
+        volatile boolean pinned;
+
+        Entry(long banUntil, long muteUntil, long now, boolean pinned) {
+            this.banUntil   = banUntil;
+            this.muteUntil  = muteUntil;
+            this.lastAccess = now;
+            this.pinned     = pinned;
+        }
+
+        boolean banned(long now) { return now < banUntil; }
+        boolean muted(long now)  { return now < muteUntil; }
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final TimerWheel       wheel   = new TimerWheel(1_000L, System.currentTimeMillis());
+
+    // Liczba wpisów z pinned == false — limit sprawdzany bez skanu mapy
+    private final AtomicInteger offline = new AtomicInteger();
+
+    // ── Odczyt ────────────────────────────────────────────────────────────
+
+    /**
+     * Wpis gracza lub null (miss). Odświeża czas ostatniego dostępu.
+     */
+    Entry get(UUID uuid, long now) {
+        Entry e = entries.get(uuid);
+        if (e != null) e.lastAccess = now;
+        return e;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // ── Zapis ─────────────────────────────────────────────────────────────
+
+    /**
+     * Wstawia / nadpisuje stan gracza i planuje jego wygaśnięcia.
+     * Zwraca wpis, który faktycznie jest w cache.
+     */
+    Entry put(UUID uuid, long banUntil, long muteUntil, boolean pinned) {
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.compute(uuid, (k, prev) -> {
+            if (prev != null && !prev.pinned) offline.decrementAndGet();
+            boolean pin = pinned || (prev != null && prev.pinned);
+            if (!pin) offline.incrementAndGet();
+            return new Entry(banUntil, muteUntil, now, pin);
+        });
+
+        scheduleExpiry(uuid, entry, now);
+        if (offline.get() > MAX_OFFLINE_ENTRIES) enforceLimit();
+        return entry;
+    }
+
+    /** Gracz wyszedł — wpis wraca pod zasady bezczynności. */
+    void unpin(UUID uuid) {
+        long now = System.currentTimeMillis();
+        Entry e = entries.computeIfPresent(uuid, (k, cur) -> {
+            if (cur.pinned) {
+                cur.pinned = false;
+                offline.incrementAndGet();
+            }
+            cur.lastAccess = now;
+            return cur;
+        });
+        if (e == null) return;
+
+        wheel.schedule(uuid, now + IDLE_TTL_MS);
+        if (offline.get() > MAX_OFFLINE_ENTRIES) enforceLimit();
+    }
+
+    void remove(UUID uuid) {
+        Entry e = entries.get(uuid);
+        if (e != null) evict(uuid, e);
+    }
+
+    void clear() {
+        entries.forEach(this::evict);
+    }
+
+    // ── Koło czasowe ──────────────────────────────────────────────────────
+
+    private void scheduleExpiry(UUID uuid, Entry e, long now) {
+        if (e.banUntil  != NONE && e.banUntil  != PERMANENT) wheel.schedule(uuid, e.banUntil);
+        if (e.muteUntil != NONE && e.muteUntil != PERMANENT) wheel.schedule(uuid, e.muteUntil);
+        if (!e.pinned) wheel.schedule(uuid, now + IDLE_TTL_MS);
+    }
+
+    /**
+     * Przesuwa koło czasowe — wywoływane co sekundę przez właściciela.
+     */
+    void tick(long now) {
+        List<UUID> expired = new ArrayList<>();
+        wheel.advance(now, expired);
+
+        for (UUID uuid : expired) {
+            Entry e = entries.get(uuid);
+            if (e == null) continue;
+
+            // Wygasłe kary → NONE (odczyt i tak już zwraca false,
+            // tu tylko porządkujemy stan)
+            if (e.banUntil  != NONE && e.banUntil  <= now) e.banUntil  = NONE;
+            if (e.muteUntil != NONE && e.muteUntil <= now) e.muteUntil = NONE;
+
+            if (e.pinned) continue;
+
+            long idleDeadline = e.lastAccess + IDLE_TTL_MS;
+            if (idleDeadline <= now) {
+                evict(uuid, e);
+            } else {
+                // Był odczyt w międzyczasie — sprawdź ponownie później
+                wheel.schedule(uuid, idleDeadline);
+            }
+        }
+    }
+
+    /**
+     * Usuwa najdawniej używane wpisy offline powyżej limitu.
+     * Wywoływane tylko gdy licznik offline przekroczył limit.
+     */
+    private void enforceLimit() {
+        int excess = offline.get() - MAX_OFFLINE_ENTRIES;
+        if (excess <= 0) return;
+
+        // Najpierw wpisy nieużywane od połowy TTL — przybliżenie LRU
+        // wystarczające dla cache, bez sortowania całej mapy
+        long cutoff = System.currentTimeMillis() - IDLE_TTL_MS / 2;
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && excess > 0) {
+            Map.Entry<UUID, Entry> me = it.next();
+            Entry e = me.getValue();
+            if (!e.pinned && e.lastAccess < cutoff && evict(me.getKey(), e)) {
+                excess--;
+            }
+        }
+        // Wszystkie świeże — usuń dowolne offline
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && excess > 0) {
+            Map.Entry<UUID, Entry> me = it.next();
+            if (!me.getValue().pinned && evict(me.getKey(), me.getValue())) {
+                excess--;
+            }
+        }
+    }
+
+    // Usuwa wpis, jeśli nadal jest w mapie, i aktualizuje licznik offline.
+    // Po remove flaga pinned już się nie zmieni (unpin idzie przez compute)
+    private boolean evict(UUID uuid, Entry e) {
+        if (!entries.remove(uuid, e)) return false;
+        if (!e.pinned) offline.decrementAndGet();
+        return true;
+    }
+}
@@ -0,0 +1,424 @@
+package com.venomgrave.hexvg.impl.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Indeks wszystkich aktywnych kar w pamięci.
+ *
+ * Ładowany w całości przy starcie, potem utrzymywany przyrostowo
+ * i okresowo zastępowany świeżym odczytem z DB (kary nałożone na innych
+ * serwerach albo bezpośrednio w SQL).
+ * Gracze bez kar w ogóle nie są w indeksie — filtr Blooma odpowiada
+ * "na pewno nie" bez dotykania tabeli (najczęstszy przypadek).
+ *
+ * Tabela z adresowaniem otwartym (linear probing) na tablicach prymitywów:
+ * klucz = UUID jako dwa long, wartości = terminy ban/mute (epoch millis,
+ * jak w PunishmentCache) + terminy aktywnych warnów.
+ *
+ * Odczyt: optymistyczny StampedLock — bez blokowania i bez alokacji.
+ * Zapis: rzadki (start, nałożenie / zdjęcie kary), pod write lockiem.
+ */
+final class PunishmentIndex {
+
+    private static final int    MIN_CAPACITY = 1024;
+    private static final long[] NO_WARNS     = new long[0];
+
+    private final StampedLock lock = new StampedLock();
+
+    // ── Tabela ────────────────────────────────────────────────────────────
+    private long[]   keyMsb;
+    private long[]   keyLsb;
+    private boolean[] used;
+    private long[]   banUntil;
+    private long[]   muteUntil;
+    // Terminy aktywnych warnów (PunishmentCache.PERMANENT = bezterminowy)
+    private long[][] warns;
+    private int      size;
+    // Zmiany przyrostowe — reconcile nie nadpisze zmian nowszych niż jego odczyt
+    private long     version;
+
+    private BloomFilter bloom;
+
+    private volatile boolean ready;
+
+    PunishmentIndex() {
+        allocate(MIN_CAPACITY);
+        bloom = new BloomFilter(MIN_CAPACITY);
+    }
+
+    /**
+     * Indeks załadowany — odpowiedzi są autorytatywne
+     * (brak wpisu = brak kary, bez pytania DB).
+     */
+    boolean isReady() {
+        return ready;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Numer ostatniej zmiany przyrostowej (add / replace / setBanMute) —
+     * odczytaj przed zapytaniem, przekaż do replaceAll(rows, version).
+     */
+    long version() {
+        long stamp = lock.readLock();
+        try {
+            return version;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ── Odczyt ────────────────────────────────────────────────────────────
+
+    long banUntil(UUID uuid) {
+        return read(uuid, 0);
+    }
+
+    long muteUntil(UUID uuid) {
+        return read(uuid, 1);
+    }
+
+    /**
+     * Liczba warnów, które jeszcze nie wygasły.
+     */
+    int activeWarnCount(UUID uuid, long now) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        long stamp = lock.tryOptimisticRead();
+        int  count = countWarns(msb, lsb, now);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = countWarns(msb, lsb, now);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    private long read(UUID uuid, int field) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        long stamp = lock.tryOptimisticRead();
+        long value = readField(msb, lsb, field);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = readField(msb, lsb, field);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    // Musi przetrwać niespójny stan przy odczycie optymistycznym —
+    // tablice czytamy do zmiennych lokalnych, pętla ograniczona długością
+    private long readField(long msb, long lsb, int field) {
+        // Najczęstszy przypadek — gracz bez kar
+        if (!bloom.mightContain(msb, lsb)) return PunishmentCache.NONE;
+
+        long[]    kM = keyMsb, kL = keyLsb;
+        boolean[] u  = used;
+        long[]    v  = field == 0 ? banUntil : muteUntil;
+        int       n  = Math.min(Math.min(kM.length, kL.length), Math.min(u.length, v.length));
+
+        int i = slot(msb, lsb, n - 1);
+        for (int probes = 0; probes < n && u[i]; probes++) {
+            if (kM[i] == msb && kL[i] == lsb) return v[i];
+            i = (i + 1) & (n - 1);
+        }
+        return PunishmentCache.NONE;
+    }
+
+    private int countWarns(long msb, long lsb, long now) {
+        if (!bloom.mightContain(msb, lsb)) return 0;
+
+        long[]    kM = keyMsb, kL = keyLsb;
+        boolean[] u  = used;
+        long[][]  w  = warns;
+        int       n  = Math.min(Math.min(kM.length, kL.length), Math.min(u.length, w.length));
+
+        int i = slot(msb, lsb, n - 1);
+        for (int probes = 0; probes < n && u[i]; probes++) {
+            if (kM[i] == msb && kL[i] == lsb) {
+                long[] list = w[i];
+                if (list == null) return 0;
+                int count = 0;
+                for (long until : list) {
+                    if (now < until) count++;
+                }
+                return count;
+            }
+            i = (i + 1) & (n - 1);
+        }
+        return 0;
+    }
+
+    // ── Zapis ─────────────────────────────────────────────────────────────
+
+    /**
+     * Zastępuje całą zawartość indeksu. Wywoływane przy starcie.
+     */
+    void replaceAll(List<Row> rows) {
+        long stamp = lock.writeLock();
+        try {
+            allocate(tableSizeFor(rows.size()));
+            bloom = new BloomFilter(rows.size());
+            size  = 0;
+            for (Row row : rows) {
+                applyLocked(row);
+            }
+            ready = true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Zastępuje całą zawartość indeksu, jeśli od odczytu {@code expectedVersion}
+     * nie było zmian przyrostowych. Wywoływane przy okresowym odświeżaniu —
+     * kara nałożona w trakcie zapytania nie zostanie cofnięta.
+     *
+     * @return false gdy indeks zmienił się w międzyczasie (nic nie zastąpiono)
+     */
+    boolean replaceAll(List<Row> rows, long expectedVersion) {
+        long stamp = lock.writeLock();
+        try {
+            if (version != expectedVersion) return false;
+            allocate(tableSizeFor(rows.size()));
+            bloom = new BloomFilter(rows.size());
+            size  = 0;
+            for (Row row : rows) {
+                applyLocked(row);
+            }
+            ready = true;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Zastępuje stan jednego gracza (po przeładowaniu jego kar z DB).
+     * Pusta lista = gracz nie ma już żadnych kar.
+     */
+    void replace(UUID uuid, List<Row> rows) {
+        long stamp = lock.writeLock();
+        try {
+            removeLocked(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            for (Row row : rows) {
+                applyLocked(row);
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Dodaje pojedynczą karę (nałożoną właśnie przez moduł moderacji).
+     */
+    void add(Row row) {
+        long stamp = lock.writeLock();
+        try {
+            applyLocked(row);
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Ustawia terminy ban / mute gracza (dane z logowania), warny bez zmian.
+     * NONE w obu polach i brak warnów = gracz znika z indeksu.
+     */
+    void setBanMute(UUID uuid, long ban, long mute) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        long stamp = lock.writeLock();
+        try {
+            int i = find(msb, lsb);
+            if (i < 0) {
+                if (ban == PunishmentCache.NONE && mute == PunishmentCache.NONE) return;
+                if (ban  != PunishmentCache.NONE) applyLocked(new Row(uuid, Kind.BAN,  ban));
+                if (mute != PunishmentCache.NONE) applyLocked(new Row(uuid, Kind.MUTE, mute));
+            } else if (ban == PunishmentCache.NONE
+                    && mute == PunishmentCache.NONE
+                    && warns[i] == null) {
+                removeLocked(msb, lsb);
+            } else {
+                banUntil[i]  = ban;
+                muteUntil[i] = mute;
+            }
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Czyści wygasłe terminy gracza; usuwa wpis jeśli nic nie zostało.
+     * Wywoływane z koła czasowego.
+     */
+    void purgeExpired(UUID uuid, long now) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        long stamp = lock.writeLock();
+        try {
+            int i = find(msb, lsb);
+            if (i < 0) return;
+
+            if (banUntil[i]  <= now) banUntil[i]  = PunishmentCache.NONE;
+            if (muteUntil[i] <= now) muteUntil[i] = PunishmentCache.NONE;
+
+            long[] list = warns[i];
+            if (list != null) {
+                long[] alive = Arrays.stream(list).filter(t -> now < t).toArray();
+                warns[i] = alive.length == 0 ? null : alive;
+            }
+
+            if (banUntil[i] == PunishmentCache.NONE
+                    && muteUntil[i] == PunishmentCache.NONE
+                    && warns[i] == null) {
+                removeLocked(msb, lsb);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // ── Tabela — tylko pod write lockiem ──────────────────────────────────
+
+    private void applyLocked(Row row) {
+        long msb = row.uuid().getMostSignificantBits();
+        long lsb = row.uuid().getLeastSignificantBits();
+
+        if ((size + 1) * 2 > keyMsb.length) {
+            resizeLocked(keyMsb.length * 2);
+        }
+
+        int i = find(msb, lsb);
+        if (i < 0) {
+            i = slot(msb, lsb, keyMsb.length - 1);
+            while (used[i]) i = (i + 1) & (keyMsb.length - 1);
+            keyMsb[i]    = msb;
+            keyLsb[i]    = lsb;
+            banUntil[i]  = PunishmentCache.NONE;
+            muteUntil[i] = PunishmentCache.NONE;
+            warns[i]     = null;
+            used[i]      = true;
+            size++;
+            bloom.add(msb, lsb);
+        }
+
+        switch (row.kind()) {
+            case BAN  -> banUntil[i]  = Math.max(banUntil[i],  row.until());
+            case MUTE -> muteUntil[i] = Math.max(muteUntil[i], row.until());
+            case WARN -> {
+                long[] list = warns[i] != null ? warns[i] : NO_WARNS;
+                long[] grown = Arrays.copyOf(list, list.length + 1);
+                grown[list.length] = row.until();
+                warns[i] = grown;
+            }
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        int m = keyMsb.length - 1;
+        int i = slot(msb, lsb, m);
+        while (used[i]) {
+            if (keyMsb[i] == msb && keyLsb[i] == lsb) return i;
+            i = (i + 1) & m;
+        }
+        return -1;
+    }
+
+    // Usuwanie z przesunięciem wstecz — bez "nagrobków"
+    private void removeLocked(long msb, long lsb) {
+        int i = find(msb, lsb);
+        if (i < 0) return;
+
+        int m = keyMsb.length - 1;
+        used[i]  = false;
+        warns[i] = null;
+        size--;
+
+        int j = (i + 1) & m;
+        while (used[j]) {
+            int home = slot(keyMsb[j], keyLsb[j], m);
+            // Czy element z j może przejść na wolne i (i leży na jego ścieżce)?
+            if (((j - home) & m) >= ((j - i) & m)) {
+                keyMsb[i]    = keyMsb[j];
+                keyLsb[i]    = keyLsb[j];
+                banUntil[i]  = banUntil[j];
+                muteUntil[i] = muteUntil[j];
+                warns[i]     = warns[j];
+                used[i]      = true;
+                used[j]      = false;
+                warns[j]     = null;
+                i = j;
+            }
+            j = (j + 1) & m;
+        }
+    }
+
+    private void resizeLocked(int capacity) {
+        long[]    oM = keyMsb, oL = keyLsb, oB = banUntil, oMu = muteUntil;
+        long[][]  oW = warns;
+        boolean[] oU = used;
+
+        allocate(capacity);
+        int m = capacity - 1;
+        for (int k = 0; k < oU.length; k++) {
+            if (!oU[k]) continue;
+            int i = slot(oM[k], oL[k], m);
+            while (used[i]) i = (i + 1) & m;
+            keyMsb[i]    = oM[k];
+            keyLsb[i]    = oL[k];
+            banUntil[i]  = oB[k];
+            muteUntil[i] = oMu[k];
+            warns[i]     = oW[k];
+            used[i]      = true;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keyMsb    = new long[capacity];
+        keyLsb    = new long[capacity];
+        used      = new boolean[capacity];
+        banUntil  = new long[capacity];
+        muteUntil = new long[capacity];
+        warns     = new long[capacity][];
+    }
+
+    private static int tableSizeFor(int entries) {
+        int wanted = Math.max(entries * 2, MIN_CAPACITY);
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        return (int) BloomFilter.mix(msb * 31 + lsb) & mask;
+    }
+
+    // ── Wiersz ────────────────────────────────────────────────────────────
+
+    enum Kind { BAN, MUTE, WARN }
+
+    /**
+     * Pojedyncza aktywna kara: until = epoch millis
+     * lub PunishmentCache.PERMANENT.
+     */
+    record Row(UUID uuid, Kind kind, long until) {}
+}
@@ -0,0 +1,81 @@
+package com.venomgrave.hexvg.impl.data;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Haszowane koło czasowe (hashed timer wheel).
+ *
+ * Każdy termin trafia do slotu (deadline / tickMs) mod SLOTS — schedule()
+ * to O(1). advance() odwiedza tylko sloty, których tick minął. Terminy
+ * dalsze niż jeden obrót koła zostają w slocie do kolejnego obrotu.
+ *
+ * Koło przechowuje tylko klucze (UUID) — co zrobić po terminie
+ * decyduje właściciel (PunishmentCache).
+ */
+final class TimerWheel {
+
+    private static final int SLOTS = 512; // potęga 2 — maska zamiast modulo
+    private static final int MASK  = SLOTS - 1;
+
+    private record Timeout(UUID key, long deadline) {}
+
+    private final long                tickMs;
+    private final ArrayDeque<Timeout>[] slots;
+    private       long                lastTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMs, long nowMs) {
+        this.tickMs   = tickMs;
+        this.slots    = new ArrayDeque[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.lastTick = nowMs / tickMs;
+    }
+
+    /**
+     * Planuje termin dla klucza. Ten sam klucz może mieć kilka terminów.
+     */
+    synchronized void schedule(UUID key, long deadlineMs) {
+        // Termin już minął — obsłuż przy najbliższym ticku
+        long tick = Math.max(deadlineMs / tickMs, lastTick + 1);
+        slots[(int) (tick & MASK)].addLast(new Timeout(key, deadlineMs));
+    }
+
+    /**
+     * Przesuwa koło do nowMs, dopisując do out klucze z minionymi terminami.
+     */
+    synchronized void advance(long nowMs, List<UUID> out) {
+        long nowTick = nowMs / tickMs;
+        // Po długiej przerwie (lag, uśpienie) wystarczy jeden pełny obrót
+        long from = Math.max(lastTick + 1, nowTick - MASK);
+
+        for (long tick = from; tick <= nowTick; tick++) {
+            ArrayDeque<Timeout> slot = slots[(int) (tick & MASK)];
+            for (int i = slot.size(); i > 0; i--) {
+                Timeout t = slot.pollFirst();
+                if (t.deadline() <= nowMs) {
+                    out.add(t.key());
+                } else {
+                    slot.addLast(t); // kolejny obrót
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+
+    /**
+     * Usuwa wszystkie terminy (przed ponownym zaplanowaniem całego indeksu).
+     */
+    synchronized void clear() {
+        for (ArrayDeque<Timeout> slot : slots) slot.clear();
+    }
+
+    synchronized int size() {
+        int n = 0;
+        for (ArrayDeque<Timeout> slot : slots) n += slot.size();
+        return n;
+    }
+}
@@ -0,0 +1,82 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Migracja danych wykonywana w tle, paczkami, po starcie serwera.
+ *
+ * Dla zmian, których nie da się zrobić jednym UPDATE w MigrationRunner
+ * bez blokowania onEnable — przepisanie kolumny w tabeli z milionami
+ * wierszy, wypełnienie nowej tabeli z historii itp. Schemat (nowa
+ * kolumna, tabela) zakłada zwykła migracja SQL, a BackfillMigration
+ * przenosi dane.
+ *
+ * Paginacja po kluczu (keyset): każda paczka dostaje ostatni przetworzony
+ * klucz i bierze następne {@code limit} wierszy po nim — WHERE key > ?
+ * ORDER BY key LIMIT ?, bez OFFSET. Kursor jest tekstem; dla kluczy
+ * liczbowych podklasa sama go parsuje (initialCursor() = "0").
+ *
+ * Paczka i zapis kursora idą w jednej transakcji, więc po restarcie
+ * backfill rusza od ostatniej zatwierdzonej paczki. Paczka powtórzona
+ * po awarii nie może niczego zepsuć — zapisy muszą być idempotentne
+ * (UPSERT, UPDATE ... WHERE nowa_kolumna IS NULL).
+ *
+ * Przykład:
+ * <pre>
+ * backfills.submit(new BackfillMigration("playertools", "V3__homes_world_id") {
+ *     protected Chunk chunk(Connection conn, String after, int limit) throws SQLException {
+ *         ...
+ *     }
+ * });
+ * </pre>
+ */
+public abstract class BackfillMigration {
+
+    /**
+     * Wynik jednej paczki.
+     *
+     * @param cursor ostatni przetworzony klucz (null = brak wierszy)
+     * @param rows   liczba przetworzonych kluczy; mniej niż limit = koniec
+     */
+    public record Chunk(String cursor, int rows) {}
+
+    private final String module;
+    private final String name;
+
+    /**
+     * @param module moduł jak w MigrationRunner, np. "core"
+     * @param name   nazwa zapisywana w hexvg_schema_version po zakończeniu
+     */
+    protected BackfillMigration(String module, String name) {
+        this.module = module;
+        this.name   = name;
+    }
+
+    public String getModule() { return module; }
+    public String getName()   { return name; }
+
+    /**
+     * Przetwarza następne maksymalnie {@code limit} kluczy po {@code after}.
+     * Połączenie ma wyłączony autocommit — commit robi BackfillRunner
+     * razem z zapisem kursora.
+     */
+    protected abstract Chunk chunk(Connection conn, String after, int limit) throws SQLException;
+
+    /** Kursor przed pierwszą paczką. */
+    protected String initialCursor() {
+        return "";
+    }
+
+    /** Rozmiar pierwszej paczki — dalej runner dopasowuje go do czasu zapytań. */
+    protected int initialChunkSize() {
+        return 500;
+    }
+
+    /**
+     * Wołane z wątku backfillu po zakończeniu — także przy starcie,
+     * jeśli backfill był zakończony wcześniej.
+     */
+    protected void onComplete() {
+    }
+}
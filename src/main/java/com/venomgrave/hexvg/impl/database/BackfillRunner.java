@@ -0,0 +1,289 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.DatabaseType;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Wykonuje BackfillMigration w tle — po kolei, na jednym wątku.
+ *
+ * Każda paczka to osobna krótka transakcja (dane + kursor
+ * w hexvg_backfill_progress), więc zapisy graczy nie czekają na całość,
+ * a restart serwera wznawia od ostatniej zatwierdzonej paczki.
+ * Po zakończeniu nazwa migracji trafia do hexvg_schema_version.
+ *
+ * Dławienie po zmierzonym czasie paczki:
+ * - paczka dłuższa niż chunkTargetMs — rozmiar o połowę mniejszy,
+ *   krótsza niż połowa celu — rozmiar rośnie o 25%
+ * - po każdej paczce przerwa, tak by backfill zajmował bazę najwyżej
+ *   dutyPercent czasu (25% = przerwa 3× dłuższa niż paczka)
+ * Gdy baza zwalnia pod ruchem z serwera, paczki same się zmniejszają,
+ * a przerwy wydłużają.
+ */
+public class BackfillRunner {
+
+    private static final int  MIN_CHUNK       = 10;
+    private static final int  MAX_CHUNK       = 10_000;
+    private static final long PROGRESS_LOG_MS = 30_000L;
+
+    private static final String DONE_SQL =
+            "SELECT 1 FROM hexvg_schema_version WHERE module = ? AND version = ?";
+
+    private static final String MARK_SQL_MYSQL =
+            "INSERT IGNORE INTO hexvg_schema_version (module, version) VALUES (?, ?)";
+
+    private static final String MARK_SQL_SQLITE =
+            "INSERT OR IGNORE INTO hexvg_schema_version (module, version) VALUES (?, ?)";
+
+    private static final String LOAD_SQL =
+            "SELECT cursor_key, rows_done FROM hexvg_backfill_progress WHERE module = ? AND name = ?";
+
+    private static final String SAVE_SQL_MYSQL = """
+            INSERT INTO hexvg_backfill_progress (module, name, cursor_key, rows_done)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                cursor_key = VALUES(cursor_key),
+                rows_done  = VALUES(rows_done),
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String SAVE_SQL_SQLITE = """
+            INSERT INTO hexvg_backfill_progress (module, name, cursor_key, rows_done)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT(module, name) DO UPDATE SET
+                cursor_key = excluded.cursor_key,
+                rows_done  = excluded.rows_done,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String CLEAR_SQL =
+            "DELETE FROM hexvg_backfill_progress WHERE module = ? AND name = ?";
+
+    private record Progress(String cursor, long rows) {}
+
+    private final DatabaseService db;
+    private final Logger          logger;
+    private final long            chunkTargetMs;
+    private final int             dutyPercent;
+
+    private final ExecutorService worker =
+            Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "HexVG-Backfill");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private volatile boolean stopping;
+
+    public BackfillRunner(DatabaseService db,
+                          Logger logger,
+                          long chunkTargetMs,
+                          int dutyPercent) {
+        this.db            = db;
+        this.logger        = logger;
+        this.chunkTargetMs = chunkTargetMs;
+        this.dutyPercent   = dutyPercent;
+    }
+
+    // ── Publiczne API ─────────────────────────────────────────────────────
+
+    /**
+     * Dodaje backfill do kolejki. Zakończone wcześniej tylko wołają
+     * onComplete(); przerwane wznawiają od zapisanego kursora.
+     */
+    public void submit(BackfillMigration migration) {
+        try {
+            worker.execute(() -> runSafely(migration));
+        } catch (RejectedExecutionException e) {
+            logger.warning(label(migration) + "Nie można uruchomić "
+                    + migration.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Zatrzymuje wątek backfillu. Bieżąca paczka jest wycofywana,
+     * zatwierdzone zostają — przy następnym starcie backfill rusza dalej.
+     */
+    public void shutdown() {
+        stopping = true;
+        worker.shutdownNow();
+        try {
+            if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("[Backfill] Wątek nie zakończył się w 5s.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── Wykonanie ─────────────────────────────────────────────────────────
+
+    private void runSafely(BackfillMigration migration) {
+        if (stopping) return;
+        try {
+            if (isDone(migration)) {
+                migration.onComplete();
+                return;
+            }
+            run(migration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info(label(migration) + migration.getName()
+                    + " wstrzymany — wznowi się po restarcie.");
+        } catch (SQLException | RuntimeException e) {
+            logger.warning(label(migration) + migration.getName() + " przerwany: "
+                    + e.getMessage() + " — wznowi się po restarcie.");
+        }
+    }
+
+    private void run(BackfillMigration migration) throws SQLException, InterruptedException {
+        Progress saved  = loadProgress(migration);
+        String   cursor = saved != null ? saved.cursor() : migration.initialCursor();
+        long     rows   = saved != null ? saved.rows() : 0;
+
+        logger.info(label(migration) + (saved != null
+                ? "Wznawiam " + migration.getName() + " od " + cursor + " (" + rows + " wierszy)."
+                : "Start " + migration.getName() + "."));
+
+        int  size    = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, migration.initialChunkSize()));
+        long start   = System.currentTimeMillis();
+        long lastLog = start;
+
+        while (true) {
+            if (stopping || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+
+            long chunkStart = System.nanoTime();
+            BackfillMigration.Chunk chunk = runChunk(migration, cursor, size, rows);
+            long tookMs = (System.nanoTime() - chunkStart) / 1_000_000L;
+
+            rows += chunk.rows();
+            if (chunk.cursor() == null || chunk.rows() < size) break;
+            cursor = chunk.cursor();
+
+            if (tookMs > chunkTargetMs) {
+                size = Math.max(MIN_CHUNK, size / 2);
+            } else if (tookMs < chunkTargetMs / 2) {
+                size = Math.min(MAX_CHUNK, size + size / 4 + 1);
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastLog >= PROGRESS_LOG_MS) {
+                lastLog = now;
+                logger.info(label(migration) + migration.getName() + ": " + rows
+                        + " wierszy, paczka " + size + " (" + tookMs + " ms).");
+            }
+
+            long pause = tookMs * (100 - dutyPercent) / dutyPercent;
+            if (pause > 0) Thread.sleep(pause);
+        }
+
+        migration.onComplete();
+        logger.info(label(migration) + migration.getName() + " zakończony: " + rows
+                + " wierszy w " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Jedna paczka w jednej transakcji: dane, kursor, a na końcu znacznik
+     * w hexvg_schema_version.
+     */
+    private BackfillMigration.Chunk runChunk(BackfillMigration migration,
+                                             String after,
+                                             int size,
+                                             long rowsBefore) throws SQLException {
+        try (Connection conn = db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BackfillMigration.Chunk chunk = migration.chunk(conn, after, size);
+                boolean last = chunk.cursor() == null || chunk.rows() < size;
+
+                if (last) {
+                    markDone(conn, migration);
+                    clearProgress(conn, migration);
+                } else {
+                    saveProgress(conn, migration, chunk.cursor(), rowsBefore + chunk.rows());
+                }
+                conn.commit();
+                return chunk;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.warning("[Backfill] Rollback failed: " + ex.getMessage());
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // ── Stan w bazie ──────────────────────────────────────────────────────
+
+    private boolean isDone(BackfillMigration migration) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(DONE_SQL)) {
+            ps.setString(1, migration.getModule());
+            ps.setString(2, migration.getName());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private Progress loadProgress(BackfillMigration migration) throws SQLException {
+        try (Connection conn = db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(LOAD_SQL)) {
+            ps.setString(1, migration.getModule());
+            ps.setString(2, migration.getName());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new Progress(rs.getString(1), rs.getLong(2)) : null;
+            }
+        }
+    }
+
+    private void saveProgress(Connection conn,
+                              BackfillMigration migration,
+                              String cursor,
+                              long rows) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                db.getType() == DatabaseType.MYSQL ? SAVE_SQL_MYSQL : SAVE_SQL_SQLITE)) {
+            ps.setString(1, migration.getModule());
+            ps.setString(2, migration.getName());
+            ps.setString(3, cursor);
+            ps.setLong(  4, rows);
+            ps.executeUpdate();
+        }
+    }
+
+    private void clearProgress(Connection conn, BackfillMigration migration) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(CLEAR_SQL)) {
+            ps.setString(1, migration.getModule());
+            ps.setString(2, migration.getName());
+            ps.executeUpdate();
+        }
+    }
+
+    private void markDone(Connection conn, BackfillMigration migration) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                db.getType() == DatabaseType.MYSQL ? MARK_SQL_MYSQL : MARK_SQL_SQLITE)) {
+            ps.setString(1, migration.getModule());
+            ps.setString(2, migration.getName());
+            ps.executeUpdate();
+        }
+    }
+
+    private static String label(BackfillMigration migration) {
+        return "[Backfill:" + migration.getModule() + "] ";
+    }
+}
@@ -0,0 +1,71 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Ograniczona pula wątków dla asynchronicznych zapytań DB.
+ *
+ * Liczba wątków = liczba połączeń w puli — więcej wątków i tak
+ * czekałoby na połączenie. Kolejka jest ograniczona; po jej zapełnieniu
+ * zadanie jest odrzucane (future kończy się RejectedExecutionException)
+ * zamiast bez końca rosnąć na heapie.
+ */
+final class DatabaseExecutor implements Executor {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final ThreadPoolExecutor pool;
+    private final String             name;
+    private final Logger             logger;
+
+    DatabaseExecutor(String name, int threads, Logger logger) {
+        this.name   = name;
+        this.logger = logger;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("[" + name + "] Executor zamknięty.");
+        }
+        pool.execute(task);
+    }
+
+    /**
+     * Zatrzymuje przyjmowanie zadań i czeka na dokończenie oczekujących.
+     * Wywoływane przed zamknięciem puli połączeń.
+     */
+    void shutdown(long timeoutMs) {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warning("[" + name + "] Timeout przy zamykaniu — porzucam "
+                        + pool.getQueue().size() + " zadań.");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,16 +17,26 @@ public final class DatabaseFactory {
      * @param config     wczytana konfiguracja Core
      * @param dataFolder folder pluginu (dla SQLite)
      * @param logger     logger pluginu
-     * @return gotowy serwis bazy danych
+     * @return gotowy serwis bazy danych (z metrykami / watchdogiem, jeśli włączone)
      * @throws IllegalArgumentException jeśli typ jest nieznany
      * @throws RuntimeException         jeśli połączenie się nie udało
      */
     public static DatabaseService create(CoreConfig config,
                                          File dataFolder,
                                          Logger logger) {
-        return switch (config.getDatabaseType()) {
+        DatabaseService service = switch (config.getDatabaseType()) {
             case MYSQL  -> new MySQLDatabaseService(config, logger);
-            case SQLITE -> new SQLiteDatabaseService(dataFolder, logger);
+            case SQLITE -> new SQLiteDatabaseService(config, dataFolder, logger);
         };
+
+        if (config.isQueryMetrics() || config.isMainThreadWatchdog()) {
+            service = new InstrumentedDatabaseService(
+                    service,
+                    logger,
+                    config.isQueryMetrics(),
+                    config.getSlowQueryMs(),
+                    config.isMainThreadWatchdog());
+        }
+        return service;
     }
 }
\ No newline at end of file
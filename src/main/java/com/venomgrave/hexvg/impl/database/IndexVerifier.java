@@ -0,0 +1,214 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sprawdza, czy indeksy zadeklarowane w migracjach naprawdę istnieją.
+ *
+ * Deklaracje czytane są z poleceń migracji (CREATE INDEX, ALTER TABLE
+ * ... ADD INDEX, INDEX / KEY wewnątrz CREATE TABLE), a stan bazy
+ * z DatabaseMetaData.getIndexInfo() — działa tak samo na MySQL i SQLite.
+ * Brakujący indeks z samodzielnego CREATE INDEX jest tworzony ponownie;
+ * brak indeksu zdefiniowanego w CREATE TABLE jest tylko zgłaszany.
+ * Indeks usunięty w późniejszej migracji (DROP INDEX) nie jest oczekiwany.
+ *
+ * MySQL nie ma CREATE INDEX IF NOT EXISTS / DROP INDEX IF EXISTS, a DDL
+ * zatwierdza się od razu — alreadyApplied() pozwala MigrationRunnerowi
+ * pominąć polecenie, którego efekt już jest w bazie (powtórka pliku po
+ * częściowym błędzie).
+ */
+final class IndexVerifier {
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?[`\"]?(\\w+)[`\"]?"
+                    + "\\s+ON\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ALTER_ADD = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+[`\"]?(\\w+)[`\"]?\\s+ADD\\s+(?:UNIQUE\\s+)?(?:INDEX|KEY)\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "^CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX = Pattern.compile(
+            "^(?:DROP\\s+INDEX\\s+(?:IF\\s+EXISTS\\s+)?"
+                    + "|ALTER\\s+TABLE\\s+[`\"]?\\w+[`\"]?\\s+DROP\\s+(?:INDEX|KEY)\\s+)[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX_ON = Pattern.compile(
+            "^DROP\\s+INDEX\\s+[`\"]?(\\w+)[`\"]?\\s+ON\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ALTER_DROP = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+[`\"]?(\\w+)[`\"]?\\s+DROP\\s+(?:INDEX|KEY)\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INLINE_INDEX = Pattern.compile(
+            "^\\s*(?:UNIQUE\\s+)?(?:INDEX|KEY)\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    private static final String INDEX_EXISTS_SQL = """
+            SELECT 1 FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?
+            LIMIT 1
+            """;
+
+    /**
+     * Indeks oczekiwany po migracjach.
+     *
+     * @param repairSql polecenie, które go tworzy (null = część CREATE TABLE)
+     */
+    record Expected(String table, String index, String repairSql) {}
+
+    private final Logger logger;
+    private final String label;
+
+    IndexVerifier(Logger logger, String label) {
+        this.logger = logger;
+        this.label  = label;
+    }
+
+    /**
+     * Wyciąga deklaracje indeksów z poleceń jednej migracji.
+     */
+    static List<Expected> parse(List<String> statements) {
+        List<Expected> out = new ArrayList<>();
+        for (String sql : statements) {
+            Matcher m = CREATE_INDEX.matcher(sql);
+            if (m.find()) {
+                out.add(new Expected(m.group(2), m.group(1), sql));
+                continue;
+            }
+            m = ALTER_ADD.matcher(sql);
+            if (m.find()) {
+                out.add(new Expected(m.group(1), m.group(2), sql));
+                continue;
+            }
+            m = CREATE_TABLE.matcher(sql);
+            if (m.find()) {
+                String table = m.group(1);
+                Matcher inline = INLINE_INDEX.matcher(sql);
+                while (inline.find()) {
+                    out.add(new Expected(table, inline.group(1), null));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Nazwa indeksu usuwanego poleceniem (DROP INDEX, ALTER TABLE ... DROP
+     * INDEX) albo null.
+     */
+    static String dropped(String sql) {
+        Matcher m = DROP_INDEX.matcher(sql);
+        return m.find() ? m.group(1) : null;
+    }
+
+    /**
+     * Czy samodzielne CREATE INDEX / ALTER TABLE ... ADD INDEX / DROP INDEX
+     * nie ma już nic do zrobienia (indeks istnieje / nie istnieje).
+     * Tylko MySQL — czyta information_schema.statistics bieżącej bazy.
+     * Inne polecenia zawsze zwracają false.
+     */
+    static boolean alreadyApplied(Connection conn, String sql) throws SQLException {
+        Matcher m = CREATE_INDEX.matcher(sql);
+        if (m.find()) return existsMysql(conn, m.group(2), m.group(1));
+        m = ALTER_ADD.matcher(sql);
+        if (m.find()) return existsMysql(conn, m.group(1), m.group(2));
+        m = DROP_INDEX_ON.matcher(sql);
+        if (m.find()) return !existsMysql(conn, m.group(2), m.group(1));
+        m = ALTER_DROP.matcher(sql);
+        if (m.find()) return !existsMysql(conn, m.group(1), m.group(2));
+        return false;
+    }
+
+    static boolean existsMysql(Connection conn, String table, String index) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INDEX_EXISTS_SQL)) {
+            ps.setString(1, table);
+            ps.setString(2, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Sprawdza indeksy, odtwarza brakujące gdzie się da.
+     *
+     * @return liczba indeksów, których nadal brakuje
+     */
+    int verify(Connection conn, List<Expected> expected) throws SQLException {
+        if (expected.isEmpty()) return 0;
+
+        Map<String, Set<String>> existing = new HashMap<>();
+        int missing  = 0;
+        int repaired = 0;
+
+        for (Expected e : expected) {
+            if (indexesOf(conn, e.table(), existing).contains(key(e.index()))) continue;
+
+            if (e.repairSql() != null) {
+                logger.warning("[Migration:" + label + "] Brak indeksu " + e.index()
+                        + " na " + e.table() + " — tworzę ponownie.");
+                try (Statement st = conn.createStatement()) {
+                    st.execute(e.repairSql());
+                } catch (SQLException ex) {
+                    logger.severe("[Migration:" + label + "] Nie można utworzyć "
+                            + e.index() + ": " + ex.getMessage());
+                }
+                existing.remove(key(e.table()));
+                if (indexesOf(conn, e.table(), existing).contains(key(e.index()))) {
+                    repaired++;
+                    continue;
+                }
+            }
+
+            missing++;
+            logger.severe("[Migration:" + label + "] Indeks " + e.index() + " na "
+                    + e.table() + " nie istnieje — zapytania po tej kolumnie"
+                    + " skanują całą tabelę.");
+        }
+
+        if (missing == 0) {
+            logger.info("[Migration:" + label + "] Indeksy OK (" + expected.size()
+                    + (repaired > 0 ? ", odtworzono " + repaired : "") + ").");
+        }
+        return missing;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private static Set<String> indexesOf(Connection conn,
+                                         String table,
+                                         Map<String, Set<String>> cache) throws SQLException {
+        Set<String> cached = cache.get(key(table));
+        if (cached != null) return cached;
+
+        Set<String> names = new HashSet<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null) names.add(key(name));
+            }
+        }
+        cache.put(key(table), names);
+        return names;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,146 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Opakowanie połączenia mierzące czas zapytań.
+ *
+ * prepareStatement / createStatement zwracają proxy, którego metody
+ * execute* są mierzone i zapisywane do QueryMetrics pod tekstem SQL,
+ * a gdy idą z wątku serwera — także do MainThreadWatchdog.
+ * Wszystko inne trafia bez zmian do prawdziwego połączenia.
+ */
+final class InstrumentedConnection implements InvocationHandler {
+
+    private final Connection         raw;
+    private final QueryMetrics       metrics;    // null = metryki wyłączone
+    private final MainThreadWatchdog watchdog;   // null = watchdog wyłączony
+
+    private InstrumentedConnection(Connection raw,
+                                   QueryMetrics metrics,
+                                   MainThreadWatchdog watchdog) {
+        this.raw      = raw;
+        this.metrics  = metrics;
+        this.watchdog = watchdog;
+    }
+
+    static Connection wrap(Connection raw, QueryMetrics metrics, MainThreadWatchdog watchdog) {
+        return (Connection) Proxy.newProxyInstance(
+                InstrumentedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new InstrumentedConnection(raw, metrics, watchdog)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "toString" -> {
+                return "InstrumentedConnection[" + raw + "]";
+            }
+            default -> { }
+        }
+
+        Object result = call(raw, method, args);
+
+        if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+            return wrapStatement(proxy, ps, PreparedStatement.class, (String) args[0]);
+        }
+        if (result instanceof Statement st && method.getName().equals("createStatement")) {
+            return wrapStatement(proxy, st, Statement.class, null);
+        }
+        return result;
+    }
+
+    private Object wrapStatement(Object connection, Statement raw, Class<?> type, String sql) {
+        return Proxy.newProxyInstance(
+                InstrumentedConnection.class.getClassLoader(),
+                new Class<?>[]{type},
+                new TimedStatement(raw, connection, sql)
+        );
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ── Statement ─────────────────────────────────────────────────────────
+
+    private final class TimedStatement implements InvocationHandler {
+
+        private final Statement raw;
+        private final Object    connection;
+        private final String    preparedSql;
+        private       String    batchSql;     // Statement.addBatch(sql)
+
+        TimedStatement(Statement raw, Object connection, String preparedSql) {
+            this.raw         = raw;
+            this.connection  = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1 && args[0] instanceof String s) {
+                        batchSql = s;
+                    }
+                    return call(raw, method, args);
+                }
+                default -> { }
+            }
+            if (!name.startsWith("execute")) {
+                return call(raw, method, args);
+            }
+
+            boolean onServer = watchdog != null && watchdog.isServerThread();
+            if (metrics == null && !onServer) {
+                return call(raw, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s
+                    ? s
+                    : (preparedSql != null ? preparedSql : batchSql);
+            QueryMetrics.Entry entry = metrics != null ? metrics.entry(sql) : null;
+
+            long    start  = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = call(raw, method, args);
+                failed = false;
+                return result;
+            } finally {
+                long took = System.nanoTime() - start;
+                if (entry != null) metrics.record(entry, took, failed);
+                if (onServer) watchdog.record(took);
+            }
+        }
+    }
+}
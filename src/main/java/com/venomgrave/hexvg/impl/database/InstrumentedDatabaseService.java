@@ -0,0 +1,108 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.api.database.MainThreadBlocking;
+import com.venomgrave.hexvg.api.database.QueryStats;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * Dekorator DatabaseService z metrykami zapytań i watchdogiem wątku
+ * serwera (database.metrics).
+ *
+ * Każde połączenie z getConnection() / getReadConnection() jest
+ * opakowane w InstrumentedConnection — serwisy nie wiedzą o pomiarze,
+ * a wyniki są dostępne przez getQueryStats() / getMainThreadBlocking()
+ * i /hexvg db stats / blocking.
+ */
+final class InstrumentedDatabaseService implements DatabaseService {
+
+    private final DatabaseService    delegate;
+    private final QueryMetrics       metrics;    // null = metryki wyłączone
+    private final MainThreadWatchdog watchdog;   // null = watchdog wyłączony
+
+    InstrumentedDatabaseService(DatabaseService delegate,
+                                Logger logger,
+                                boolean queryMetrics,
+                                long slowQueryMs,
+                                boolean mainThreadWatchdog) {
+        this.delegate = delegate;
+        this.metrics  = queryMetrics ? new QueryMetrics(logger, slowQueryMs) : null;
+        this.watchdog = mainThreadWatchdog ? new MainThreadWatchdog(logger) : null;
+    }
+
+    /** Opakowany serwis — np. do sprawdzenia stanu replik MySQL. */
+    DatabaseService getDelegate() {
+        return delegate;
+    }
+
+    // ── DatabaseService ───────────────────────────────────────────────────
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(false);
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        return wrap(true);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return delegate.getAsyncExecutor();
+    }
+
+    @Override
+    public List<QueryStats> getQueryStats() {
+        return metrics != null ? metrics.stats() : List.of();
+    }
+
+    @Override
+    public void resetQueryStats() {
+        if (metrics  != null) metrics.reset();
+        if (watchdog != null) watchdog.reset();
+    }
+
+    @Override
+    public MainThreadBlocking getMainThreadBlocking() {
+        return watchdog != null ? watchdog.report() : null;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public DatabaseType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    /**
+     * Pobranie połączenia z wątku serwera też blokuje tick (czekanie na
+     * pulę / pisarza SQLite) — liczone przez watchdog jak zapytanie.
+     */
+    private Connection wrap(boolean read) throws SQLException {
+        boolean onServer = watchdog != null && watchdog.isServerThread();
+        long    start    = onServer ? System.nanoTime() : 0L;
+        try {
+            Connection raw = read ? delegate.getReadConnection() : delegate.getConnection();
+            return InstrumentedConnection.wrap(raw, metrics, watchdog);
+        } finally {
+            if (onServer) watchdog.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram czasów w stylu HDR: kubełki log-liniowe w mikrosekundach.
+ *
+ * Każda potęga dwójki dzielona jest na SUB_BUCKETS równych kubełków,
+ * więc błąd percentyla to najwyżej ~3% wartości — niezależnie od tego,
+ * czy zapytanie trwa 40 µs czy 4 s. Zapis: jedno przesunięcie bitowe
+ * i jeden incrementAndGet, bez blokad i bez alokacji.
+ */
+final class LatencyHistogram {
+
+    // 32 kubełki na potęgę dwójki → precyzja ~3%
+    private static final int SUB_BITS    = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // Najwyższa śledzona potęga: 2^40 µs (~12 dni) — dłuższe idą do ostatniego
+    private static final int MAX_EXP     = 40;
+    private static final int BUCKETS     = (MAX_EXP - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder       total  = new LongAdder();
+    private final LongAdder       sumUs  = new LongAdder();
+    private final AtomicLong      maxUs  = new AtomicLong();
+
+    void record(long nanos) {
+        long us = Math.max(nanos / 1_000L, 0L);
+        counts.incrementAndGet(index(us));
+        total.increment();
+        sumUs.add(us);
+        if (us > maxUs.get()) maxUs.accumulateAndGet(us, Math::max);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    double totalMs() {
+        return sumUs.sum() / 1_000.0;
+    }
+
+    double meanMs() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : sumUs.sum() / 1_000.0 / n;
+    }
+
+    double maxMs() {
+        return maxUs.get() / 1_000.0;
+    }
+
+    /**
+     * Wartość percentyla (0-100) w ms — środek kubełka, w którym wypada.
+     */
+    double percentileMs(double percentile) {
+        long n = total.sum();
+        if (n == 0) return 0.0;
+
+        long target = Math.max(1L, (long) Math.ceil(n * percentile / 100.0));
+        long seen   = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                long low  = lowerBound(i);
+                long high = lowerBound(i + 1);
+                // Nie więcej niż faktyczne maksimum
+                return Math.min((low + high) / 2.0, maxUs.get()) / 1_000.0;
+            }
+        }
+        return maxMs();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0L);
+        total.reset();
+        sumUs.reset();
+        maxUs.set(0L);
+    }
+
+    // ── Kubełki ───────────────────────────────────────────────────────────
+
+    // 0..31 liniowo, potem (wykładnik, 5 najstarszych bitów mantysy)
+    private static int index(long us) {
+        if (us < SUB_BUCKETS) return (int) us;
+        int exp = 63 - Long.numberOfLeadingZeros(us);
+        if (exp > MAX_EXP) return BUCKETS - 1;
+        int sub = (int) (us >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int index) {
+        int block = index / SUB_BUCKETS;
+        int sub   = index % SUB_BUCKETS;
+        if (block == 0) return sub;
+        return (long) (SUB_BUCKETS + sub) << (block - 1);
+    }
+}
@@ -0,0 +1,189 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.BlockingCallSite;
+import com.venomgrave.hexvg.api.database.MainThreadBlocking;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Wykrywa zapytania SQL wykonywane z wątku serwera.
+ *
+ * Każde takie zapytanie (i każde pobranie połączenia) jest przypisywane
+ * do miejsca wywołania: pierwszej ramki spoza HexVG-Core oraz metody
+ * Core, przez którą weszło do bazy. Czas sumowany jest per tick
+ * (Bukkit.getCurrentTick()), więc raport pokazuje ile ms z ticka zabrał
+ * dany plugin.
+ *
+ * Stos zbierany tylko dla zapytań z wątku serwera — zapytania async
+ * kosztują jedno sprawdzenie isPrimaryThread().
+ */
+final class MainThreadWatchdog {
+
+    // Ramki zwracane w próbce stosu
+    private static final int SAMPLE_FRAMES = 16;
+
+    // Pakiety HexVG-Core — reszta com.venomgrave.hexvg to pluginy zależne
+    private static final String[] CORE = {
+            "com.venomgrave.hexvg.api.",
+            "com.venomgrave.hexvg.impl.",
+            "com.venomgrave.hexvg.util.",
+            "com.venomgrave.hexvg.config.",
+            "com.venomgrave.hexvg.HexVGCore"
+    };
+
+    // Ramki pomijane: JDK, proxy, sterowniki, pula i sam pomiar
+    private static final String[] INFRA = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.",
+            "com.zaxxer.", "com.mysql.", "org.sqlite.", "org.mariadb.",
+            "com.venomgrave.hexvg.impl.database."
+    };
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final class Site {
+        final String       site;
+        final String       api;
+        final List<String> sample;
+        long count;
+        long ticks;
+        long totalNanos;
+        long maxNanos;
+        int  lastTick = Integer.MIN_VALUE;
+
+        Site(String site, String api, List<String> sample) {
+            this.site   = site;
+            this.api    = api;
+            this.sample = sample;
+        }
+    }
+
+    private final Logger            logger;
+    private final Map<String, Site> sites = new HashMap<>();
+
+    // Bieżący tick i podsumowanie ticków
+    private int  currentTick = Integer.MIN_VALUE;
+    private long tickNanos;
+    private long stalledTicks;
+    private long totalNanos;
+    private long worstTickNanos;
+
+    MainThreadWatchdog(Logger logger) {
+        this.logger = logger;
+    }
+
+    boolean isServerThread() {
+        return Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Zapisuje blokadę wątku serwera. Wywoływane tylko z wątku serwera.
+     */
+    synchronized void record(long nanos) {
+        int tick = Bukkit.getCurrentTick();
+        if (tick != currentTick) {
+            closeTick();
+            currentTick = tick;
+            stalledTicks++;
+        }
+        tickNanos  += nanos;
+        totalNanos += nanos;
+
+        List<StackWalker.StackFrame> frames = WALKER.walk(s -> s
+                .filter(f -> !startsWithAny(f.getClassName(), INFRA)
+                        && !f.getClassName().contains("$Proxy"))
+                .limit(SAMPLE_FRAMES)
+                .toList());
+
+        String api  = "?";
+        String site = "?";
+        for (StackWalker.StackFrame f : frames) {
+            if (startsWithAny(f.getClassName(), CORE)) {
+                api = shortName(f);
+            } else {
+                site = describe(f);
+                break;
+            }
+        }
+
+        String key = site + "|" + api;
+        Site s = sites.get(key);
+        if (s == null) {
+            s = new Site(site, api, frames.stream().map(MainThreadWatchdog::describe).toList());
+            sites.put(key, s);
+            logger.warning("[DB] Zapytanie SQL na wątku serwera ("
+                    + String.format("%.1f", nanos / 1_000_000.0) + " ms): "
+                    + site + " → " + api + ". Szczegóły: /hexvg db blocking");
+        }
+        s.count++;
+        s.totalNanos += nanos;
+        if (nanos > s.maxNanos) s.maxNanos = nanos;
+        if (s.lastTick != tick) {
+            s.lastTick = tick;
+            s.ticks++;
+        }
+    }
+
+    synchronized MainThreadBlocking report() {
+        long worst = Math.max(worstTickNanos, tickNanos);
+
+        List<BlockingCallSite> out = new ArrayList<>(sites.size());
+        for (Site s : sites.values()) {
+            out.add(new BlockingCallSite(
+                    s.site,
+                    s.api,
+                    s.count,
+                    s.ticks,
+                    s.totalNanos / 1_000_000.0,
+                    s.maxNanos / 1_000_000.0,
+                    s.ticks == 0 ? 0.0 : s.totalNanos / 1_000_000.0 / s.ticks,
+                    s.sample
+            ));
+        }
+        out.sort(Comparator.comparingDouble(BlockingCallSite::totalMs).reversed());
+
+        return new MainThreadBlocking(
+                stalledTicks,
+                totalNanos / 1_000_000.0,
+                worst / 1_000_000.0,
+                out
+        );
+    }
+
+    synchronized void reset() {
+        sites.clear();
+        currentTick    = Integer.MIN_VALUE;
+        tickNanos      = 0;
+        stalledTicks   = 0;
+        totalNanos     = 0;
+        worstTickNanos = 0;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private void closeTick() {
+        if (tickNanos > worstTickNanos) worstTickNanos = tickNanos;
+        tickNanos = 0;
+    }
+
+    private static boolean startsWithAny(String className, String[] prefixes) {
+        for (String p : prefixes) {
+            if (className.startsWith(p)) return true;
+        }
+        return false;
+    }
+
+    private static String describe(StackWalker.StackFrame f) {
+        return f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber();
+    }
+
+    private static String shortName(StackWalker.StackFrame f) {
+        String cls = f.getClassName();
+        return cls.substring(cls.lastIndexOf('.') + 1) + "." + f.getMethodName();
+    }
+}
@@ -16,20 +16,47 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+/**
+ * Migracje SQL z resources/migrations/{subFolder}/.
+ *
+ * Dialekty: obok V1__init.sql może leżeć V1__init.sqlite.sql
+ * (lub .mysql.sql) — dla pasującej bazy wykonywany jest wariant,
+ * dla pozostałych plik bazowy. Wersja w hexvg_schema_version to zawsze
+ * nazwa pliku bazowego, więc dodanie wariantu nie uruchamia migracji
+ * ponownie. Po migracjach IndexVerifier sprawdza, czy zadeklarowane
+ * indeksy istnieją.
+ *
+ * Pliki czytane są strumieniowo przez SqlScriptReader — średniki
+ * w literałach, komentarze, DELIMITER i bloki BEGIN ... END
+ * (triggery, procedury) nie rozbijają poleceń.
+ *
+ * MySQL: DDL zatwierdza się od razu, więc plik przerwany w połowie
+ * zostaje częściowo wykonany. CREATE INDEX / DROP INDEX, których efekt
+ * już jest w bazie, są przy powtórce pomijane. Indeksy dużych tabel
+ * można zamiast tego budować w tle — onlineIndex(...).
+ */
 public class MigrationRunner {
 
     private static final String SCHEMA_TABLE    = "hexvg_schema_version";
     private static final String MIGRATIONS_ROOT = "/migrations/";
 
+    // Ile kolejnych INSERT-ów wysyłać jedną partią
+    private static final int INSERT_BATCH = 500;
+
     private final DatabaseService db;
     private final Logger          logger;
 
     // Subfolder wewnątrz /migrations/ — np. "core", "playertools"
     private final String subFolder;
 
+    // Indeksy budowane w tle (tylko MySQL) i te, które jeszcze nie powstały
+    private final List<OnlineIndexBuild>  online  = new ArrayList<>();
+    private final List<BackfillMigration> pending = new ArrayList<>();
+
     public MigrationRunner(DatabaseService db, Logger logger, String subFolder) {
         this.db        = db;
         this.logger    = logger;
@@ -38,6 +65,25 @@ public class MigrationRunner {
 
     // ── Publiczne API ─────────────────────────────────────────────────────
 
+    /**
+     * Rejestruje indeks budowany w tle zamiast w pliku migracji.
+     * Tylko MySQL — w SQLite budowa indeksu i tak blokuje zapisy, więc
+     * zostaje w wariancie .sqlite.sql (tam wywołanie jest ignorowane).
+     * Niezbudowane indeksy zwraca getPendingBuilds() po run().
+     */
+    public MigrationRunner onlineIndex(OnlineIndexBuild build) {
+        if (db.getType() == DatabaseType.MYSQL) online.add(build);
+        return this;
+    }
+
+    /**
+     * Budowy z onlineIndex(...), które trzeba jeszcze wykonać —
+     * do przekazania BackfillRunnerowi.
+     */
+    public List<BackfillMigration> getPendingBuilds() {
+        return List.copyOf(pending);
+    }
+
     /**
      * Uruchamia migracje z podanej listy plików.
      * Pliki muszą znajdować się w resources/migrations/{subFolder}/
@@ -56,18 +102,19 @@ public class MigrationRunner {
             if (pending.isEmpty()) {
                 logger.info("[Migration:" + subFolder.strip() + "] "
                         + "Brak nowych migracji.");
-                return;
-            }
+            } else {
+                logger.info("[Migration:" + subFolder.strip() + "] "
+                        + "Znaleziono " + pending.size() + " nowych migracji.");
 
-            logger.info("[Migration:" + subFolder.strip() + "] "
-                    + "Znaleziono " + pending.size() + " nowych migracji.");
+                for (String file : pending) {
+                    executeMigration(conn, file);
+                }
 
-            for (String file : pending) {
-                executeMigration(conn, file);
+                logger.info("[Migration:" + subFolder.strip() + "] "
+                        + "Wszystkie migracje zakończone.");
             }
 
-            logger.info("[Migration:" + subFolder.strip() + "] "
-                    + "Wszystkie migracje zakończone.");
+            verifyIndexes(conn, files);
 
         } catch (SQLException e) {
             logger.severe("[Migration] Błąd połączenia: " + e.getMessage());
@@ -140,47 +187,72 @@ public class MigrationRunner {
 
     /**
      * Wykonuje pojedynczy plik SQL i zapisuje go jako zastosowany.
+     *
+     * Polecenia są wykonywane w trakcie czytania pliku. Kolejne INSERT-y
+     * idą partiami (addBatch), więc migracje z danymi nie robią
+     * osobnego round-tripu na każdy wiersz.
      */
     private void executeMigration(Connection conn, String fileName) throws SQLException {
-        String resourcePath = MIGRATIONS_ROOT + subFolder + fileName;
-        String content      = readResource(resourcePath);
+        String resourcePath = resolveResource(fileName);
+        SqlScriptReader script = openScript(resourcePath);
 
-        if (content == null) {
-            logger.severe("[Migration] Nie można odczytać: " + resourcePath);
+        if (script == null) {
             throw new RuntimeException("Missing migration file: " + resourcePath);
         }
 
-        if (content.isBlank()) {
-            logger.warning("[Migration] Pusty plik: " + fileName + " — pomijam.");
-            markApplied(conn, fileName);
-            return;
-        }
-
-        logger.info("[Migration] Wykonuję: " + fileName);
+        int errorLine = 0;
+        try (script) {
+            String stmt = script.next();
+            if (stmt == null) {
+                logger.warning("[Migration] Pusty plik: " + fileName + " — pomijam.");
+                markApplied(conn, fileName);
+                return;
+            }
 
-        // Splitujemy po średniku — każde polecenie osobno
-        String[] statements = content.split(";");
+            logger.info("[Migration] Wykonuję: " + resourcePath.substring(resourcePath.lastIndexOf('/') + 1));
 
-        try {
             // Wyłącz autocommit — cały plik jako jedna transakcja
             conn.setAutoCommit(false);
 
+            boolean mysql    = db.getType() == DatabaseType.MYSQL;
+            int     executed = 0;
             try (Statement st = conn.createStatement()) {
-                for (String stmt : statements) {
-                    String trimmed = stmt.strip();
-                    // Pomijamy komentarze i puste linie
-                    if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
-                    st.execute(trimmed);
+                int batched = 0;
+                for (; stmt != null; stmt = script.next()) {
+                    if (isInsert(stmt)) {
+                        if (batched == 0) errorLine = script.line();
+                        st.addBatch(stmt);
+                        if (++batched >= INSERT_BATCH) {
+                            st.executeBatch();
+                            batched = 0;
+                        }
+                    } else {
+                        if (batched > 0) {
+                            st.executeBatch();
+                            batched = 0;
+                        }
+                        errorLine = script.line();
+                        if (mysql && IndexVerifier.alreadyApplied(conn, stmt)) {
+                            logger.info("[Migration] Linia " + errorLine
+                                    + " już wykonana — pomijam.");
+                            continue;
+                        }
+                        st.execute(stmt);
+                    }
+                    executed++;
                 }
+                if (batched > 0) st.executeBatch();
             }
 
             markApplied(conn, fileName);
             conn.commit();
 
-            logger.info("[Migration] Zakończono: " + fileName);
+            logger.info("[Migration] Zakończono: " + fileName + " (" + executed + " poleceń)");
 
-        } catch (SQLException e) {
-            logger.severe("[Migration] Błąd w " + fileName + ": " + e.getMessage());
+        } catch (SQLException | IOException e) {
+            logger.severe("[Migration] Błąd w " + fileName
+                    + (errorLine > 0 ? " (linia " + errorLine + ")" : "")
+                    + ": " + e.getMessage());
             try {
                 conn.rollback();
             } catch (SQLException ex) {
@@ -196,6 +268,63 @@ public class MigrationRunner {
         }
     }
 
+    /**
+     * Sprawdza indeksy z wszystkich migracji modułu (także wcześniej
+     * zastosowanych) — wykrywa bazy, w których CREATE INDEX kiedyś
+     * się nie wykonał. Brak indeksu nie blokuje startu, jest logowany.
+     */
+    private void verifyIndexes(Connection conn, List<String> files) throws SQLException {
+        List<IndexVerifier.Expected> expected = new ArrayList<>();
+        for (String file : files) {
+            String path = resolveResource(file);
+            try (SqlScriptReader script = openScript(path)) {
+                if (script == null) continue;
+                String stmt;
+                while ((stmt = script.next()) != null) {
+                    String dropped = IndexVerifier.dropped(stmt);
+                    if (dropped != null) {
+                        expected.removeIf(e -> e.index().equalsIgnoreCase(dropped));
+                    } else {
+                        expected.addAll(IndexVerifier.parse(List.of(stmt)));
+                    }
+                }
+            } catch (IOException e) {
+                logger.warning("[Migration] Błąd odczytu " + path + ": " + e.getMessage());
+            }
+        }
+
+        // Do czasu zbudowania nowego indeksu obowiązuje ten, który zastępuje
+        pending.clear();
+        for (OnlineIndexBuild build : online) {
+            boolean built    = IndexVerifier.existsMysql(conn, build.getTable(), build.getIndex());
+            boolean replaced = build.getReplaces() == null
+                    || !IndexVerifier.existsMysql(conn, build.getTable(), build.getReplaces());
+            if (built && build.getReplaces() != null) {
+                expected.removeIf(e -> e.index().equalsIgnoreCase(build.getReplaces()));
+            }
+            if (!built || !replaced) pending.add(build);
+        }
+
+        new IndexVerifier(logger, subFolder.replace("/", "")).verify(conn, expected);
+    }
+
+    /**
+     * Ścieżka wariantu dla aktywnej bazy (V1__x.sqlite.sql), jeśli istnieje,
+     * w przeciwnym razie pliku bazowego.
+     */
+    private String resolveResource(String fileName) {
+        String base    = MIGRATIONS_ROOT + subFolder + fileName;
+        String dialect = db.getType().name().toLowerCase(Locale.ROOT);
+        String variant = base.endsWith(".sql")
+                ? base.substring(0, base.length() - 4) + "." + dialect + ".sql"
+                : base + "." + dialect;
+        return getClass().getResource(variant) != null ? variant : base;
+    }
+
+    private static boolean isInsert(String sql) {
+        return sql.regionMatches(true, 0, "INSERT", 0, 6);
+    }
+
     /**
      * Zapisuje wykonaną migrację do hexvg_schema_version.
      */
@@ -219,23 +348,17 @@ public class MigrationRunner {
     }
 
     /**
-     * Odczytuje plik z resources JAR.
+     * Otwiera plik z resources JAR do strumieniowego czytania poleceń.
      * Zwraca null jeśli plik nie istnieje.
      */
-    private String readResource(String path) {
-        try (InputStream is = getClass().getResourceAsStream(path)) {
-            if (is == null) {
-                logger.severe("[Migration] Brak pliku w JAR: " + path);
-                return null;
-            }
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                return reader.lines()
-                        .collect(Collectors.joining("\n"));
-            }
-        } catch (IOException e) {
-            logger.severe("[Migration] Błąd odczytu " + path + ": " + e.getMessage());
+    private SqlScriptReader openScript(String path) {
+        InputStream is = getClass().getResourceAsStream(path);
+        if (is == null) {
+            logger.severe("[Migration] Brak pliku w JAR: " + path);
             return null;
         }
+        return new SqlScriptReader(
+                new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8)),
+                db.getType() == DatabaseType.MYSQL);
     }
-}
\ No newline at end of file
+}
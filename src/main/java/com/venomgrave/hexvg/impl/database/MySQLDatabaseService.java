@@ -8,13 +8,36 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
+/**
+ * MySQL / MariaDB przez HikariCP.
+ *
+ * Opcjonalnie druga pula do replik (database.mysql.replicas) — obsługuje
+ * getReadConnection(). Replika, która nie wydała połączenia, jest
+ * wyłączana na REPLICA_RETRY_MS; w tym czasie odczyty idą na główną pulę,
+ * a powrót sprawdza próba w tle — żaden odczyt nie czeka na martwą replikę
+ * dłużej niż jeden timeout połączenia.
+ */
 public class MySQLDatabaseService implements DatabaseService {
 
+    // Po awarii repliki — tyle czekamy przed kolejną próbą
+    private static final long REPLICA_RETRY_MS = 30_000L;
+
     private final Logger          logger;
     private final CoreConfig      config;
     private       HikariDataSource dataSource;
+    private       HikariDataSource replicaSource;
+    private       DatabaseExecutor executor;
+
+    // ── Stan repliki ──────────────────────────────────────────────────────
+    private volatile boolean     replicaUp = true;
+    private volatile long        nextProbeAt;
+    private final AtomicBoolean  replicaProbing = new AtomicBoolean();
 
     public MySQLDatabaseService(CoreConfig config, Logger logger) {
         this.config = config;
@@ -25,22 +48,77 @@ public class MySQLDatabaseService implements DatabaseService {
     // ── Inicjalizacja ─────────────────────────────────────────────────────
 
     private void init() {
+        HikariConfig hikari = poolConfig(
+                buildJdbcUrl(config.getMysqlHost() + ":" + config.getMysqlPort()),
+                config.getMysqlPoolSize(),
+                "HexVG-MySQL");
+
+        // Test połączenia przy starcie
+        hikari.setInitializationFailTimeout(5_000);
+
+        try {
+            this.dataSource = new HikariDataSource(hikari);
+            logger.info("[MySQL] Połączono z: "
+                    + config.getMysqlHost() + ":" + config.getMysqlPort()
+                    + "/" + config.getMysqlDatabase()
+                    + " (pool: " + config.getMysqlPoolSize() + ")");
+        } catch (Exception e) {
+            logger.severe("[MySQL] Błąd połączenia: " + e.getMessage());
+            throw new RuntimeException("MySQL init failed", e);
+        }
+
+        initReplicas();
+
+        // Tyle wątków ile połączeń — nadmiarowe i tak czekałyby na pulę
+        int threads = config.getMysqlPoolSize()
+                + (replicaSource != null ? config.getMysqlReplicaPoolSize() : 0);
+        this.executor = new DatabaseExecutor("HexVG-MySQL-Async", threads, logger);
+    }
+
+    /**
+     * Pula replik. Niedostępna replika przy starcie nie blokuje pluginu —
+     * odczyty idą wtedy na serwer główny do czasu udanej próby.
+     */
+    private void initReplicas() {
+        List<String> replicas = config.getMysqlReplicas();
+        if (replicas.isEmpty()) return;
+
+        HikariConfig hikari = poolConfig(
+                buildJdbcUrl(String.join(",", replicas)),
+                config.getMysqlReplicaPoolSize(),
+                "HexVG-MySQL-Replica");
+        hikari.setReadOnly(true);
+        // Szybki fallback zamiast 10s czekania na martwą replikę
+        hikari.setConnectionTimeout(2_000);
+        hikari.setInitializationFailTimeout(-1);
+
+        try {
+            this.replicaSource = new HikariDataSource(hikari);
+            logger.info("[MySQL] Repliki do odczytu: " + String.join(", ", replicas)
+                    + " (pool: " + config.getMysqlReplicaPoolSize() + ")");
+        } catch (Exception e) {
+            logger.warning("[MySQL] Nie można utworzyć puli replik — odczyty"
+                    + " idą na serwer główny: " + e.getMessage());
+        }
+    }
+
+    private HikariConfig poolConfig(String jdbcUrl, int poolSize, String poolName) {
         HikariConfig hikari = new HikariConfig();
 
         // JDBC URL
-        hikari.setJdbcUrl(buildJdbcUrl());
+        hikari.setJdbcUrl(jdbcUrl);
         hikari.setUsername(config.getMysqlUser());
         hikari.setPassword(config.getMysqlPassword());
         hikari.setDriverClassName("com.mysql.cj.jdbc.Driver");
 
         // Pula połączeń
-        hikari.setMaximumPoolSize(config.getMysqlPoolSize());
-        hikari.setMinimumIdle(2);
+        hikari.setMaximumPoolSize(poolSize);
+        hikari.setMinimumIdle(Math.min(2, poolSize));
         hikari.setConnectionTimeout(10_000);   // 10s na uzyskanie połączenia
         hikari.setIdleTimeout(600_000);        // 10min bezczynności
         hikari.setMaxLifetime(1_800_000);      // 30min max życie połączenia
         hikari.setKeepaliveTime(60_000);       // ping co 60s
-        hikari.setPoolName("HexVG-MySQL");
+        hikari.setPoolName(poolName);
 
         // Właściwości sterownika MySQL
         hikari.addDataSourceProperty("cachePrepStmts",          "true");
@@ -56,32 +134,25 @@ public class MySQLDatabaseService implements DatabaseService {
         hikari.addDataSourceProperty("characterEncoding",        "UTF-8");
         hikari.addDataSourceProperty("useUnicode",               "true");
 
-        // Test połączenia przy starcie
         hikari.setConnectionTestQuery("SELECT 1");
-        hikari.setInitializationFailTimeout(5_000);
-
-        try {
-            this.dataSource = new HikariDataSource(hikari);
-            logger.info("[MySQL] Połączono z: "
-                    + config.getMysqlHost() + ":" + config.getMysqlPort()
-                    + "/" + config.getMysqlDatabase()
-                    + " (pool: " + config.getMysqlPoolSize() + ")");
-        } catch (Exception e) {
-            logger.severe("[MySQL] Błąd połączenia: " + e.getMessage());
-            throw new RuntimeException("MySQL init failed", e);
-        }
+        return hikari;
     }
 
-    private String buildJdbcUrl() {
+    /**
+     * @param hosts "host:port" albo kilka rozdzielonych przecinkami —
+     *              wtedy sterownik rozkłada połączenia między hosty
+     *              (loadbalance) i omija niedostępne
+     */
+    private String buildJdbcUrl(String hosts) {
         return String.format(
-                "jdbc:mysql://%s:%d/%s"
+                (hosts.contains(",") ? "jdbc:mysql:loadbalance://" : "jdbc:mysql://")
+                        + "%s/%s"
                         + "?useSSL=%s"
                         + "&autoReconnect=true"
                         + "&characterEncoding=UTF-8"
                         + "&serverTimezone=UTC"
                         + "&allowPublicKeyRetrieval=true",
-                config.getMysqlHost(),
-                config.getMysqlPort(),
+                hosts,
                 config.getMysqlDatabase(),
                 config.isMysqlSsl()
         );
@@ -97,8 +168,54 @@ public class MySQLDatabaseService implements DatabaseService {
         return dataSource.getConnection();
     }
 
+    /**
+     * Połączenie z repliki, a gdy ta jest niedostępna (lub brak replik)
+     * — z głównej puli.
+     */
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        HikariDataSource replica = replicaSource;
+        if (replica == null || replica.isClosed()) {
+            return getConnection();
+        }
+
+        if (!replicaUp) {
+            if (System.currentTimeMillis() >= nextProbeAt) probeReplica(replica);
+            return getConnection();
+        }
+
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return getConnection();
+        }
+    }
+
+    /** Czy skonfigurowano repliki do odczytu. */
+    public boolean hasReplicas() {
+        return replicaSource != null;
+    }
+
+    /** Czy odczyty idą teraz na replikę (false = fallback na główny). */
+    public boolean isReplicaHealthy() {
+        return replicaSource != null && replicaUp;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return executor;
+    }
+
     @Override
     public void shutdown() {
+        // Najpierw dokończ oczekujące zapytania async, potem zamknij pulę
+        if (executor != null) {
+            executor.shutdown(5_000L);
+        }
+        if (replicaSource != null && !replicaSource.isClosed()) {
+            replicaSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("[MySQL] Pula połączeń zamknięta.");
@@ -120,4 +237,41 @@ public class MySQLDatabaseService implements DatabaseService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // ── Replika ───────────────────────────────────────────────────────────
+
+    private void markReplicaDown(SQLException e) {
+        nextProbeAt = System.currentTimeMillis() + REPLICA_RETRY_MS;
+        if (replicaUp) {
+            replicaUp = false;
+            logger.warning("[MySQL] Replika niedostępna — odczyty na serwer główny: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Jedna próba w tle naraz — odczyty nie czekają na jej wynik.
+     */
+    private void probeReplica(HikariDataSource replica) {
+        if (!replicaProbing.compareAndSet(false, true)) return;
+
+        try {
+            executor.execute(() -> {
+                try (Connection conn = replica.getConnection()) {
+                    if (conn.isValid(2)) {
+                        replicaUp = true;
+                        logger.info("[MySQL] Replika znów dostępna — odczyty wracają na replikę.");
+                    } else {
+                        nextProbeAt = System.currentTimeMillis() + REPLICA_RETRY_MS;
+                    }
+                } catch (SQLException e) {
+                    nextProbeAt = System.currentTimeMillis() + REPLICA_RETRY_MS;
+                } finally {
+                    replicaProbing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            replicaProbing.set(false);
+        }
+    }
+}
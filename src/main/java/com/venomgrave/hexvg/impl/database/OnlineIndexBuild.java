@@ -0,0 +1,63 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Budowa indeksu MySQL w tle zamiast CREATE INDEX w pliku migracji.
+ *
+ * Na dużej tabeli (np. hexvg_sessions) CREATE INDEX w migracji trzyma
+ * onEnable przez całą przebudowę. Tutaj indeks powstaje na wątku
+ * BackfillRunnera jako online DDL (ALGORITHM=INPLACE, LOCK=NONE) —
+ * zapisy graczy idą równolegle. Dopiero po zbudowaniu usuwany jest
+ * indeks, który nowy zastępuje, więc do tego czasu zapytania korzystają
+ * ze starego.
+ *
+ * Rejestrowana przez MigrationRunner.onlineIndex(...) — IndexVerifier
+ * oczekuje starego indeksu, dopóki nowy nie powstanie. Oba kroki
+ * sprawdzają stan w information_schema, więc przerwana budowa po
+ * restarcie po prostu rusza od nowa.
+ */
+public class OnlineIndexBuild extends BackfillMigration {
+
+    private final String table;
+    private final String index;
+    private final String columns;
+    private final String replaces;
+
+    /**
+     * @param columns  lista kolumn jak w CREATE INDEX, np. "player_uuid, login_at"
+     * @param replaces indeks usuwany po zbudowaniu nowego (null = brak)
+     */
+    public OnlineIndexBuild(String module,
+                            String table,
+                            String index,
+                            String columns,
+                            String replaces) {
+        super(module, index + ".online");
+        this.table    = table;
+        this.index    = index;
+        this.columns  = columns;
+        this.replaces = replaces;
+    }
+
+    public String getTable()    { return table; }
+    public String getIndex()    { return index; }
+    public String getReplaces() { return replaces; }
+
+    @Override
+    protected Chunk chunk(Connection conn, String after, int limit) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            if (!IndexVerifier.existsMysql(conn, table, index)) {
+                st.execute("ALTER TABLE " + table + " ADD INDEX " + index
+                        + " (" + columns + "), ALGORITHM=INPLACE, LOCK=NONE");
+            }
+            if (replaces != null && IndexVerifier.existsMysql(conn, table, replaces)) {
+                st.execute("ALTER TABLE " + table + " DROP INDEX " + replaces);
+            }
+        }
+        // Jedna "paczka" — brak kursora kończy migrację
+        return new Chunk(null, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Opakowanie połączenia wydawanego z puli.
+ *
+ * close() nie zamyka fizycznego połączenia — oddaje je do puli
+ * przez podany callback. Po oddaniu każde wywołanie rzuca SQLException,
+ * więc przypadkowe użycie "starej" referencji nie miesza w cudzej transakcji.
+ */
+final class PooledConnection implements InvocationHandler {
+
+    private final Connection           raw;
+    private final Consumer<Connection> onRelease;
+    private       boolean              released;
+
+    private PooledConnection(Connection raw, Consumer<Connection> onRelease) {
+        this.raw       = raw;
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * Zwraca proxy Connection, którego close() wywołuje onRelease(raw).
+     */
+    static Connection wrap(Connection raw, Consumer<Connection> onRelease) {
+        return (Connection) Proxy.newProxyInstance(
+                PooledConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnection(raw, onRelease)
+        );
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close" -> {
+                if (!released) {
+                    released = true;
+                    onRelease.accept(raw);
+                }
+                return null;
+            }
+            case "isClosed" -> {
+                return released || raw.isClosed();
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "toString" -> {
+                return "PooledConnection[" + raw + (released ? ", released" : "") + "]";
+            }
+            default -> {
+                if (released) {
+                    throw new SQLException("Połączenie zostało już zwrócone do puli.");
+                }
+            }
+        }
+
+        try {
+            return method.invoke(raw, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.QueryStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Metryki per zapytanie: histogram czasów, licznik błędów, log wolnych.
+ *
+ * Kluczem jest tekst SQL — stałe zapytania (text blocki) to wciąż te same
+ * obiekty String z zapamiętanym hashem, więc wyszukiwanie jest tanie.
+ * Normalizacja i nadanie nazwy dzieje się raz, przy pierwszym wykonaniu;
+ * warianty różniące się tylko literałami lub długością IN (?, ?, ...)
+ * trafiają do jednego wpisu.
+ */
+final class QueryMetrics {
+
+    // Ograniczenie liczby wpisów — SQL z literałami (Statement) mógłby
+    // zapełnić mapę; nadmiarowe trafiają do jednego zbiorczego wpisu
+    private static final int MAX_ENTRIES = 1_000;
+
+    // Ten sam wolny SQL logujemy najwyżej raz na tyle ms
+    private static final long SLOW_LOG_INTERVAL_MS = 10_000L;
+
+    private static final Pattern TAG_COMMENT = Pattern.compile("^\\s*/\\*\\s*(.+?)\\s*\\*/");
+    private static final Pattern STRING_LIT  = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LIT  = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern WHITESPACE  = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST     = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern TABLE       = Pattern.compile(
+            "\\b(?:FROM|INTO|UPDATE|TABLE(?:\\s+IF\\s+NOT\\s+EXISTS)?)\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    static final class Entry {
+        final String           tag;
+        final String           sql;
+        final int              params;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder        errors    = new LongAdder();
+        volatile long          lastSlowLog;
+
+        Entry(String tag, String sql, int params) {
+            this.tag    = tag;
+            this.sql    = sql;
+            this.params = params;
+        }
+    }
+
+    // Surowy SQL → wpis oraz znormalizowany SQL → wpis
+    private final Map<String, Entry> byRaw    = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries  = new ConcurrentHashMap<>();
+    private final Entry              overflow = new Entry("(inne)", "(inne)", 0);
+    private final Logger             logger;
+    private final long               slowNanos;
+
+    QueryMetrics(Logger logger, long slowQueryMs) {
+        this.logger    = logger;
+        this.slowNanos = slowQueryMs * 1_000_000L;
+    }
+
+    // ── Zapis ─────────────────────────────────────────────────────────────
+
+    Entry entry(String rawSql) {
+        if (rawSql == null) return overflow;
+        Entry e = byRaw.get(rawSql);
+        if (e != null) return e;
+        if (byRaw.size() >= MAX_ENTRIES) return overflow;
+        return byRaw.computeIfAbsent(rawSql, raw -> {
+            String sql = normalize(raw);
+            return entries.computeIfAbsent(sql, k -> describe(raw, sql));
+        });
+    }
+
+    void record(Entry entry, long nanos, boolean failed) {
+        entry.histogram.record(nanos);
+        if (failed) entry.errors.increment();
+
+        if (nanos >= slowNanos) {
+            long now = System.currentTimeMillis();
+            long last = entry.lastSlowLog;
+            if (now - last >= SLOW_LOG_INTERVAL_MS) {
+                entry.lastSlowLog = now;
+                // Tylko znormalizowany SQL — wartości parametrów nigdy nie trafiają do logu
+                logger.warning("[DB] Wolne zapytanie (" + nanos / 1_000_000L + " ms) ["
+                        + entry.tag + "]: " + entry.sql
+                        + (entry.params > 0 ? " — parametry ukryte (" + entry.params + ")" : ""));
+            }
+        }
+    }
+
+    // ── Odczyt ────────────────────────────────────────────────────────────
+
+    List<QueryStats> stats() {
+        List<QueryStats> out = new ArrayList<>(entries.size() + 1);
+        for (Entry e : entries.values()) {
+            if (e.histogram.count() > 0) out.add(snapshot(e));
+        }
+        if (overflow.histogram.count() > 0) out.add(snapshot(overflow));
+        out.sort(Comparator.comparingDouble(QueryStats::totalMs).reversed());
+        return out;
+    }
+
+    void reset() {
+        for (Entry e : entries.values()) {
+            e.histogram.reset();
+            e.errors.reset();
+        }
+        overflow.histogram.reset();
+        overflow.errors.reset();
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private static QueryStats snapshot(Entry e) {
+        LatencyHistogram h = e.histogram;
+        return new QueryStats(
+                e.tag,
+                e.sql,
+                h.count(),
+                e.errors.sum(),
+                h.totalMs(),
+                h.meanMs(),
+                h.percentileMs(50),
+                h.percentileMs(95),
+                h.percentileMs(99),
+                h.maxMs()
+        );
+    }
+
+    /**
+     * Bezpieczna do logowania postać SQL: literały zastąpione znakiem
+     * zapytania, listy IN zwinięte, białe znaki zwinięte.
+     */
+    private static String normalize(String rawSql) {
+        String sql = STRING_LIT.matcher(rawSql).replaceAll("?");
+        sql = NUMBER_LIT.matcher(sql).replaceAll("?");
+        sql = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        return IN_LIST.matcher(sql).replaceAll("?, ...");
+    }
+
+    private static Entry describe(String rawSql, String sql) {
+        int params = 0;
+        for (int i = 0; i < rawSql.length(); i++) {
+            if (rawSql.charAt(i) == '?') params++;
+        }
+
+        Matcher comment = TAG_COMMENT.matcher(rawSql);
+        if (comment.find()) {
+            return new Entry(comment.group(1), sql, params);
+        }
+
+        int    space = sql.indexOf(' ');
+        String verb  = (space < 0 ? sql : sql.substring(0, space)).toUpperCase(Locale.ROOT);
+        Matcher table = TABLE.matcher(sql);
+        String tag = verb + (table.find() ? " " + table.group(1) : "")
+                + String.format(" #%04x", sql.hashCode() & 0xffff);
+        return new Entry(tag, sql, params);
+    }
+}
@@ -0,0 +1,188 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sprawdza plany gorących zapytań (EXPLAIN / EXPLAIN QUERY PLAN)
+ * i ostrzega, gdy któreś skanuje całą tabelę.
+ *
+ * Uzupełnia IndexVerifier: tamten pilnuje, że indeks istnieje, ten — że
+ * planista go używa (np. po zmianie zapytania, kolejności kolumn albo
+ * typu kolumny). Zapytania podają serwisy (hotQueries()), więc
+ * sprawdzany jest dokładnie ten SQL, który jest wykonywany.
+ *
+ * Regresja: MySQL — type = ALL na tabeli hexvg_*, SQLite — krok SCAN
+ * tabeli hexvg_* bez indeksu. Bez progu liczby wierszy: na pustej bazie
+ * testowej (CI) skan ma wyjść tak samo jak na produkcji.
+ *
+ * Wynik (Result) zwraca run() i zapamiętuje lastResult() — do CI
+ * i /hexvg db plans.
+ */
+public class QueryPlanCheck {
+
+    /**
+     * Gorące zapytanie do sprawdzenia. Parametry '?' to UUID gracza,
+     * poza numerami z {@code timestamps} (liczone od 1) — wszystkie
+     * wiązane przykładowymi wartościami.
+     */
+    public record HotQuery(String name, String sql, int... timestamps) {}
+
+    /** Zapytanie z pełnym skanem — scans to opis tabel z planu. */
+    public record Regression(String query, String scans) {}
+
+    /**
+     * Wynik sprawdzenia.
+     *
+     * @param checked     liczba sprawdzonych zapytań
+     * @param regressions zapytania z pełnym skanem
+     * @param error       komunikat błędu, gdy sprawdzenie się nie udało (wtedy
+     *                    regressions jest puste), inaczej null
+     */
+    public record Result(int checked, List<Regression> regressions, String error) {
+
+        /** true gdy sprawdzenie przeszło i żadne zapytanie nie skanuje tabeli. */
+        public boolean ok() {
+            return error == null && regressions.isEmpty();
+        }
+    }
+
+    // Długość listy IN (...) w zapytaniach zbiorczych — typowa paczka (tab)
+    private static final int BULK_PROBE = 50;
+
+    private static final long PROBE_TIME = 1_000_000_000_000L;
+
+    private static final Pattern SQLITE_SCAN = Pattern.compile(
+            "^SCAN (?:TABLE )?(\\w+)(.*)$");
+
+    private final DatabaseService db;
+    private final Logger          logger;
+    private final List<HotQuery>  queries;
+
+    // Wynik ostatniego sprawdzenia — null do pierwszego
+    private volatile Result last;
+
+    public QueryPlanCheck(DatabaseService db, Logger logger, List<HotQuery> queries) {
+        this.db      = db;
+        this.logger  = logger;
+        this.queries = List.copyOf(queries);
+    }
+
+    /**
+     * Zapytanie zbiorcze z IN (%s) — lista '?' długości typowej paczki,
+     * każdy parametr to UUID gracza.
+     */
+    public static HotQuery bulk(String name, String sql) {
+        return new HotQuery(name, sql.formatted(SqlUtil.placeholders(BULK_PROBE)));
+    }
+
+    /**
+     * Sprawdza w tle. Future kończy się wynikiem na wątku puli — także
+     * gdy pula odrzuci zadanie (Result z error).
+     */
+    public CompletableFuture<Result> runAsync() {
+        try {
+            return CompletableFuture.supplyAsync(this::run, db.getAsyncExecutor());
+        } catch (RejectedExecutionException e) {
+            logger.warning("[DB] Nie można sprawdzić planów zapytań: " + e.getMessage());
+            return CompletableFuture.completedFuture(
+                    last = new Result(queries.size(), List.of(), e.getMessage()));
+        }
+    }
+
+    /** Sprawdza plany na bieżącym wątku; wynik także w logach i lastResult(). */
+    public Result run() {
+        List<Regression> regressions = new ArrayList<>();
+
+        // Główna baza — replika może jeszcze nie mieć nowego indeksu
+        try (Connection conn = db.getConnection()) {
+            for (HotQuery query : queries) {
+                List<String> scans = db.getType() == DatabaseType.MYSQL
+                        ? explainMysql(conn, query)
+                        : explainSqlite(conn, query);
+                if (scans.isEmpty()) continue;
+
+                regressions.add(new Regression(query.name(), String.join(", ", scans)));
+                logger.warning("[DB] Zapytanie " + query.name() + " skanuje całą tabelę: "
+                        + String.join(", ", scans) + " — brak pasującego indeksu.");
+            }
+        } catch (SQLException e) {
+            logger.warning("[DB] Sprawdzenie planów zapytań nie powiodło się: " + e.getMessage());
+            return last = new Result(queries.size(), List.of(), e.getMessage());
+        }
+
+        if (regressions.isEmpty()) {
+            logger.info("[DB] Plany zapytań OK (" + queries.size() + ").");
+        }
+        return last = new Result(queries.size(), List.copyOf(regressions), null);
+    }
+
+    /** Wynik ostatniego sprawdzenia, null gdy jeszcze nie było. */
+    public Result lastResult() {
+        return last;
+    }
+
+    // ── Dialekty ──────────────────────────────────────────────────────────
+
+    private List<String> explainMysql(Connection conn, HotQuery query) throws SQLException {
+        List<String> scans = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + query.sql())) {
+            bind(ps, query);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    if (table != null && table.startsWith("hexvg_")
+                            && "ALL".equalsIgnoreCase(rs.getString("type"))) {
+                        scans.add(table + " (~" + rs.getLong("rows") + " wierszy)");
+                    }
+                }
+            }
+        }
+        return scans;
+    }
+
+    private List<String> explainSqlite(Connection conn, HotQuery query) throws SQLException {
+        List<String> scans = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + query.sql())) {
+            bind(ps, query);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Matcher m = SQLITE_SCAN.matcher(rs.getString("detail"));
+                    if (m.find() && m.group(1).startsWith("hexvg_")
+                            && !m.group(2).contains(" USING ")) {
+                        scans.add(m.group(1));
+                    }
+                }
+            }
+        }
+        return scans;
+    }
+
+    // Każdy UUID inny — optymalizator nie zwija listy IN do jednej wartości
+    private void bind(PreparedStatement ps, HotQuery query) throws SQLException {
+        int params = (int) query.sql().chars().filter(c -> c == '?').count();
+        for (int i = 1; i <= params; i++) {
+            int index = i;
+            if (Arrays.stream(query.timestamps()).anyMatch(t -> t == index)) {
+                SqlUtil.setTimestamp(ps, i, PROBE_TIME, db.getType());
+            } else {
+                SqlUtil.setUuid(ps, i, new UUID(0L, i));
+            }
+        }
+    }
+}
@@ -2,23 +2,60 @@ package com.venomgrave.hexvg.impl.database;
 
 import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.config.CoreConfig;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
+/**
+ * SQLite w trybie WAL: jedno połączenie zapisujące + mała pula odczytowa.
+ *
+ * SQLite i tak dopuszcza tylko jednego pisarza naraz, więc zapisy idą
+ * przez jedno połączenie, wydawane po kolei (sprawiedliwa kolejka FIFO).
+ * Odczyty dostają osobne połączenia tylko-do-odczytu — w WAL czytelnicy
+ * nie czekają na pisarza, widzą ostatni zatwierdzony snapshot.
+ *
+ * Wydawane połączenia są opakowane (PooledConnection) — close()
+ * oddaje je do puli zamiast zamykać fizyczne połączenie.
+ */
 public class SQLiteDatabaseService implements DatabaseService {
 
+    // Ile maksymalnie czekamy na wolne połączenie
+    private static final long ACQUIRE_TIMEOUT_MS = 10_000L;
+
     private final File   dbFile;
     private final Logger logger;
-    private Connection   connection;
+    private final int    readPoolSize;
+
+    // ── Pisarz ────────────────────────────────────────────────────────────
+    // fair = true → wątki dostają połączenie w kolejności zgłoszenia
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private       Connection    writer;
+
+    // ── Czytelnicy ────────────────────────────────────────────────────────
+    private final BlockingQueue<Connection> readers;
+
+    // Async — czytelnicy + pisarz
+    private final DatabaseExecutor executor;
 
-    public SQLiteDatabaseService(File dataFolder, Logger logger) {
-        this.dbFile = new File(dataFolder, "hexvg.db");
-        this.logger = logger;
+    private volatile boolean closed;
+
+    public SQLiteDatabaseService(CoreConfig config, File dataFolder, Logger logger) {
+        this.dbFile       = new File(dataFolder, "hexvg.db");
+        this.logger       = logger;
+        this.readPoolSize = config.getSqliteReadPoolSize();
+        this.readers      = new ArrayBlockingQueue<>(readPoolSize);
+        this.executor     = new DatabaseExecutor(
+                "HexVG-SQLite-Async", readPoolSize + 1, logger);
 
         // Upewnij się że folder istnieje
         if (!dataFolder.exists()) {
@@ -34,13 +71,15 @@ public class SQLiteDatabaseService implements DatabaseService {
         try {
             Class.forName("org.sqlite.JDBC");
 
-            connection = DriverManager.getConnection(
-                    "jdbc:sqlite:" + dbFile.getAbsolutePath()
-            );
+            // Najpierw pisarz — ustawia WAL, który jest trwały w pliku bazy
+            writer = openWriter();
 
-            applyPragmas();
+            for (int i = 0; i < readPoolSize; i++) {
+                readers.add(openReader());
+            }
 
-            logger.info("[SQLite] Połączono z: " + dbFile.getName());
+            logger.info("[SQLite] Połączono z: " + dbFile.getName()
+                    + " (readers: " + readPoolSize + ")");
 
         } catch (ClassNotFoundException e) {
             logger.severe("[SQLite] Brak sterownika JDBC: " + e.getMessage());
@@ -51,11 +90,30 @@ public class SQLiteDatabaseService implements DatabaseService {
         }
     }
 
+    private Connection openWriter() throws SQLException {
+        Connection conn = DriverManager.getConnection(
+                "jdbc:sqlite:" + dbFile.getAbsolutePath());
+        applyPragmas(conn);
+        return conn;
+    }
+
+    private Connection openReader() throws SQLException {
+        Connection conn = DriverManager.getConnection(
+                "jdbc:sqlite:" + dbFile.getAbsolutePath());
+        applyPragmas(conn);
+        try (Statement st = conn.createStatement()) {
+            // Blokada zapisu na poziomie połączenia
+            st.execute("PRAGMA query_only = ON;");
+        }
+        return conn;
+    }
+
     /**
      * Ustawia PRAGMA dla lepszej wydajności i bezpieczeństwa.
+     * Większość PRAGMA działa per połączenie — wywoływane dla każdego.
      */
-    private void applyPragmas() throws SQLException {
-        try (Statement st = connection.createStatement()) {
+    private void applyPragmas(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
             // WAL mode — lepsza współbieżność odczytu
             st.execute("PRAGMA journal_mode = WAL;");
             // Wymuszenie kluczy obcych
@@ -66,34 +124,108 @@ public class SQLiteDatabaseService implements DatabaseService {
             st.execute("PRAGMA cache_size = -65536;");
             // Przechowuj temp tabele w pamięci
             st.execute("PRAGMA temp_store = MEMORY;");
+            // Czekaj na checkpoint zamiast od razu rzucać SQLITE_BUSY
+            st.execute("PRAGMA busy_timeout = 5000;");
         }
     }
 
     // ── DatabaseService ───────────────────────────────────────────────────
 
+    /**
+     * Zwraca połączenie zapisujące.
+     * Tylko jeden wątek naraz — pozostali czekają w kolejce FIFO
+     * aż poprzedni wywoła close().
+     */
     @Override
     public Connection getConnection() throws SQLException {
-        // SQLite jest single-connection — sprawdzamy czy żyje
-        if (connection == null || connection.isClosed()) {
-            logger.warning("[SQLite] Połączenie zerwane — rekonektuję...");
-            init();
+        ensureOpen();
+
+        boolean acquired;
+        try {
+            acquired = writeLock.tryLock(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("[SQLite] Przerwano oczekiwanie na połączenie.", e);
+        }
+        if (!acquired) {
+            throw new SQLException("[SQLite] Timeout oczekiwania na połączenie zapisujące.");
+        }
+
+        try {
+            if (writer == null || writer.isClosed()) {
+                logger.warning("[SQLite] Połączenie zapisujące zerwane — rekonektuję...");
+                writer = openWriter();
+            }
+            return PooledConnection.wrap(writer, this::releaseWriter);
+        } catch (SQLException | RuntimeException e) {
+            writeLock.unlock();
+            throw e;
         }
-        return connection;
+    }
+
+    /**
+     * Zwraca połączenie tylko-do-odczytu z puli.
+     * Nie czeka na trwający zapis — WAL daje spójny snapshot.
+     */
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        ensureOpen();
+
+        Connection conn;
+        try {
+            conn = readers.poll(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("[SQLite] Przerwano oczekiwanie na połączenie.", e);
+        }
+        if (conn == null) {
+            throw new SQLException("[SQLite] Timeout oczekiwania na połączenie odczytowe.");
+        }
+
+        try {
+            if (conn.isClosed()) {
+                logger.warning("[SQLite] Połączenie odczytowe zerwane — otwieram nowe...");
+                conn = openReader();
+            }
+        } catch (SQLException e) {
+            // Slot w puli nie może przepaść — oddajemy martwe połączenie,
+            // następny poll spróbuje je odtworzyć
+            readers.offer(conn);
+            throw e;
+        }
+        return PooledConnection.wrap(conn, this::releaseReader);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return executor;
     }
 
     @Override
     public void shutdown() {
+        // Najpierw dokończ oczekujące zapytania async, potem zamknij połączenia
+        executor.shutdown(5_000L);
+        closed = true;
+
+        Connection reader;
+        while ((reader = readers.poll()) != null) {
+            closeQuietly(reader);
+        }
+
+        writeLock.lock();
         try {
-            if (connection != null && !connection.isClosed()) {
+            if (writer != null && !writer.isClosed()) {
                 // Checkpoint WAL przed zamknięciem
-                try (Statement st = connection.createStatement()) {
+                try (Statement st = writer.createStatement()) {
                     st.execute("PRAGMA wal_checkpoint(TRUNCATE);");
                 }
-                connection.close();
+                writer.close();
                 logger.info("[SQLite] Połączenie zamknięte.");
             }
         } catch (SQLException e) {
             logger.warning("[SQLite] Błąd zamykania: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -104,12 +236,59 @@ public class SQLiteDatabaseService implements DatabaseService {
 
     @Override
     public boolean isConnected() {
-        try {
-            return connection != null
-                    && !connection.isClosed()
-                    && connection.isValid(2);
+        try (Connection conn = getConnection()) {
+            return conn.isValid(2);
         } catch (SQLException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // ── Pula ──────────────────────────────────────────────────────────────
+
+    private void releaseWriter(Connection raw) {
+        try {
+            // Zewnętrzny lease (nie zagnieżdżony) — przywróć stan domyślny,
+            // żeby niedokończona transakcja nie wyciekła do następnego wątku
+            if (writeLock.getHoldCount() == 1) {
+                resetState(raw);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void releaseReader(Connection raw) {
+        resetState(raw);
+        if (closed) {
+            closeQuietly(raw);
+            return;
+        }
+        readers.offer(raw);
+    }
+
+    private void resetState(Connection raw) {
+        try {
+            if (!raw.isClosed() && !raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warning("[SQLite] Reset połączenia nieudany: " + e.getMessage());
+            closeQuietly(raw);
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("[SQLite] Serwis zamknięty.");
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // Zamykamy i tak — nic więcej nie zrobimy
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.venomgrave.hexvg.impl.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Strumieniowy podział skryptu SQL na polecenia.
+ *
+ * Czyta znak po znaku — w pamięci jest tylko bieżące polecenie, więc
+ * wielomegabajtowe migracje z danymi nie ładują się w całości.
+ * Rozumie:
+ * - literały '...', "...", `...` (średnik w środku nie kończy polecenia),
+ *   podwojony cudzysłów oraz ukośnik wsteczny (MySQL)
+ * - komentarze -- i # (MySQL) do końca linii oraz blokowe; komentarze
+ *   wykonywalne MySQL są zachowywane, reszta usuwana
+ * - DELIMITER xx — zmiana separatora, jak w kliencie mysql
+ * - bloki BEGIN ... END w CREATE TRIGGER / PROCEDURE / FUNCTION / EVENT
+ */
+final class SqlScriptReader implements Closeable {
+
+    private static final Set<String> COMPOUND = Set.of("TRIGGER", "PROCEDURE", "FUNCTION", "EVENT");
+
+    // Po END te słowa zamykają własny blok (END IF), nie BEGIN
+    private static final Set<String> END_SUFFIX = Set.of("IF", "LOOP", "WHILE", "REPEAT");
+
+    private final Reader  in;
+    private final boolean mysql;
+
+    private String delimiter = ";";
+    private int    ahead     = -2;   // -2 = brak podejrzanego znaku
+    private int    line      = 1;
+    private int    statementLine;
+
+    // Stan bieżącego polecenia
+    private final StringBuilder sql  = new StringBuilder();
+    private final StringBuilder word = new StringBuilder();
+    private String  firstWord;
+    private boolean compound;
+    private boolean pendingEnd;
+    private int     depth;
+
+    /**
+     * @param mysql składnia MySQL: ukośnik wsteczny w literałach i komentarze #
+     */
+    SqlScriptReader(Reader in, boolean mysql) {
+        this.in    = in;
+        this.mysql = mysql;
+    }
+
+    /** Linia skryptu, w której zaczyna się ostatnio zwrócone polecenie. */
+    int line() {
+        return statementLine;
+    }
+
+    /**
+     * Następne polecenie bez separatora i komentarzy albo null na końcu skryptu.
+     */
+    String next() throws IOException {
+        reset();
+
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\'' || c == '"' || c == '`') {
+                flushWord();
+                append(c);
+                quoted(c);
+                continue;
+            }
+            if (c == '-' && peek() == '-' || c == '#' && mysql) {
+                flushWord();
+                skipLine();
+                if (!sql.isEmpty()) sql.append('\n');
+                continue;
+            }
+            if (c == '/' && peek() == '*') {
+                flushWord();
+                blockComment();
+                continue;
+            }
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                word.append((char) c);
+                append(c);
+                continue;
+            }
+
+            if (flushWord()) continue;   // DELIMITER — linia już przeczytana
+            append(c);
+
+            if (endsWithDelimiter()) {
+                if (pendingEnd) {
+                    pendingEnd = false;
+                    depth--;
+                }
+                if (depth > 0) continue;
+
+                sql.setLength(sql.length() - delimiter.length());
+                String stmt = sql.toString().strip();
+                if (!stmt.isEmpty()) return stmt;
+                reset();
+            }
+        }
+
+        flushWord();
+        String stmt = sql.toString().strip();
+        reset();
+        return stmt.isEmpty() ? null : stmt;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ── Elementy składni ──────────────────────────────────────────────────
+
+    private void quoted(int quote) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            sql.append((char) c);
+            if (c == '\\' && mysql && quote != '`') {
+                int escaped = read();
+                if (escaped != -1) sql.append((char) escaped);
+                continue;
+            }
+            if (c == quote) {
+                if (peek() == quote) {
+                    sql.append((char) read());
+                    continue;
+                }
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            // pomijamy
+        }
+    }
+
+    private void blockComment() throws IOException {
+        read();   // '*'
+        boolean keep = mysql && peek() == '!';
+        if (keep) sql.append("/*");
+
+        int prev = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (keep) sql.append((char) c);
+            if (prev == '*' && c == '/') break;
+            prev = c;
+        }
+        if (!keep && !sql.isEmpty()) sql.append(' ');
+    }
+
+    /**
+     * Zamyka bieżące słowo i aktualizuje stan bloków.
+     *
+     * @return true jeśli słowo było poleceniem DELIMITER (linia zużyta)
+     */
+    private boolean flushWord() throws IOException {
+        if (word.isEmpty()) return false;
+        String w = word.toString().toUpperCase(Locale.ROOT);
+        word.setLength(0);
+
+        if (firstWord == null) {
+            firstWord = w;
+            if (w.equals("DELIMITER")) {
+                StringBuilder rest = new StringBuilder();
+                int c;
+                while ((c = read()) != -1 && c != '\n') rest.append((char) c);
+                String d = rest.toString().strip();
+                if (!d.isEmpty()) delimiter = d;
+                reset();
+                return true;
+            }
+        }
+
+        if (firstWord.equals("CREATE") && COMPOUND.contains(w)) compound = true;
+        if (!compound) return false;
+
+        if (pendingEnd) {
+            pendingEnd = false;
+            if (END_SUFFIX.contains(w)) return false;   // END IF / END LOOP ...
+            depth--;
+            if (w.equals("CASE")) return false;         // END CASE
+        }
+        switch (w) {
+            case "BEGIN", "CASE" -> depth++;
+            case "END"           -> pendingEnd = true;
+            default              -> { }
+        }
+        return false;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private void append(int c) {
+        if (sql.isEmpty() && Character.isWhitespace(c)) return;
+        if (sql.isEmpty()) statementLine = line;
+        sql.append((char) c);
+    }
+
+    private boolean endsWithDelimiter() {
+        int n = delimiter.length();
+        int s = sql.length();
+        if (s < n) return false;
+        for (int i = 0; i < n; i++) {
+            if (sql.charAt(s - n + i) != delimiter.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void reset() {
+        sql.setLength(0);
+        word.setLength(0);
+        firstWord  = null;
+        compound   = false;
+        pendingEnd = false;
+        depth      = 0;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (ahead != -2) {
+            c     = ahead;
+            ahead = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') line++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (ahead == -2) ahead = in.read();
+        return ahead;
+    }
+}
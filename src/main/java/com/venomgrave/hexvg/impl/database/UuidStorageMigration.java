@@ -0,0 +1,513 @@
+package com.venomgrave.hexvg.impl.database;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Konwersja kolumn UUID tabel Core z VARCHAR(36) na 16 bajtów
+ * (database.uuid-format: BINARY).
+ *
+ * Po zakończeniu w hexvg_schema_version zostaje znacznik MARKER; od tej
+ * chwili format jest BINARY niezależnie od configu (powrót wymagałby
+ * konwersji w drugą stronę).
+ *
+ * MySQL — w trzech krokach, żeby onEnable nie przepisywał całych tabel
+ * bez zgody administratora:
+ * 1. start: pusta kolumna cieniowa {kolumna}_bin BINARY(16) NULL
+ *    (ADD COLUMN na końcu tabeli — bez przebudowy w MySQL 8)
+ * 2. w tle (BackfillRunner): UPDATE ... SET {kolumna}_bin = UNHEX(...)
+ *    paczkami po kluczu; usługi cały czas działają na formacie TEXT
+ * 3. dopiero przy starcie z database.uuid-swap: true — dopisanie wierszy
+ *    wstawionych w międzyczasie (UUID w wierszu nigdy się nie zmienia,
+ *    więc wystarczą te z pustą kolumną cieniową) i jeden ALTER na tabelę:
+ *    stara kolumna znika, cieniowa przejmuje jej nazwę, indeksy z nią są
+ *    odtwarzane według information_schema. To przebudowa tabel — nie da
+ *    się jej zrobić w tle, bo działające usługi zapisują UUID jako tekst
+ *    aż do zmiany formatu. Bez uuid-swap start tylko loguje rozmiar tabel
+ *    i szacowany czas przestoju.
+ *
+ * SQLite: typ kolumny zostaje (SQLite nie zmienia BLOB-ów przy afinicji
+ * TEXT), wartości są przepisywane przy starcie paczkami po rowid — baza
+ * lokalna, bez round-tripów. Każdy krok da się powtórzyć — przerwana
+ * konwersja dokończy się przy następnym starcie.
+ */
+public class UuidStorageMigration {
+
+    static final String MARKER = "uuid_binary";
+
+    // Znacznik zakończonego backfillu kolumn cieniowych (MySQL)
+    static final String BACKFILL = "uuid_binary.backfill";
+
+    private static final String SHADOW = "_bin";
+
+    private static final String MODULE = "core";
+
+    // Paczka przepisywania w SQLite
+    private static final int CHUNK = 10_000;
+
+    // Orientacyjna szybkość przebudowy tabeli InnoDB z indeksami —
+    // tylko do szacunku przestoju w logu
+    private static final long REBUILD_BYTES_PER_SEC = 20L * 1024 * 1024;
+
+    // ER_ALTER_OPERATION_NOT_SUPPORTED_REASON — INPLACE / LOCK=NONE niedozwolone
+    private static final int ER_ALTER_NOT_SUPPORTED = 1846;
+
+    /** Kolumny UUID tabel Core; id = czy tabela ma klucz BIGINT id. */
+    private record Table(String name, boolean id, List<String> columns) {
+
+        /** Klucz paginacji backfillu — id albo sam UUID (klucz główny). */
+        String key() {
+            return id ? "id" : columns.get(0);
+        }
+    }
+
+    /** Indeks z information_schema — do odtworzenia po podmianie kolumny. */
+    private record Index(String name, boolean unique, List<String> parts) {}
+
+    private static final List<Table> TABLES = List.of(
+            new Table("hexvg_audit",          true,  List.of("actor_uuid")),
+            new Table("hexvg_warnings",       true,  List.of("player_uuid", "staff_uuid")),
+            new Table("hexvg_punishments",    true,  List.of("player_uuid", "staff_uuid")),
+            new Table("hexvg_sessions",       true,  List.of("player_uuid")),
+            new Table("hexvg_playtime",       false, List.of("uuid")),
+            new Table("hexvg_players",        false, List.of("uuid")),
+            new Table("hexvg_player_summary", false, List.of("uuid"))
+    );
+
+    private static final String MARKER_SQL =
+            "SELECT 1 FROM hexvg_schema_version WHERE module = ? AND version = ?";
+
+    private static final String MARK_SQL_MYSQL =
+            "INSERT IGNORE INTO hexvg_schema_version (module, version) VALUES (?, ?)";
+
+    private static final String MARK_SQL_SQLITE =
+            "INSERT OR IGNORE INTO hexvg_schema_version (module, version) VALUES (?, ?)";
+
+    private static final String COLUMN_EXISTS_SQL = """
+            SELECT 1 FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+            """;
+
+    private static final String TABLE_SIZE_SQL = """
+            SELECT table_rows, data_length + index_length
+            FROM information_schema.tables
+            WHERE table_schema = DATABASE() AND table_name = ?
+            """;
+
+    private static final String INDEXES_SQL = """
+            SELECT index_name, non_unique, column_name, sub_part
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = ?
+            ORDER BY index_name, seq_in_index
+            """;
+
+    private final DatabaseService db;
+    private final Logger          logger;
+
+    public UuidStorageMigration(DatabaseService db, Logger logger) {
+        this.db     = db;
+        this.logger = logger;
+    }
+
+    /**
+     * Ustala format UUID (SqlUtil.setBinaryUuids) i w razie potrzeby
+     * konwertuje dane.
+     *
+     * @param binary database.uuid-format: BINARY
+     * @param swap   database.uuid-swap: podmiana kolumn w MySQL dozwolona
+     * @return backfill kolumn cieniowych do przekazania BackfillRunnerowi
+     *         (MySQL, konwersja w toku) albo null
+     */
+    public BackfillMigration apply(boolean binary, boolean swap) {
+        try (Connection conn = db.getConnection()) {
+            if (isMarked(conn, MARKER)) {
+                if (!binary) {
+                    logger.warning("[Migration:core] Kolumny UUID są już w formacie BINARY"
+                            + " — uuid-format: TEXT zignorowany.");
+                }
+                SqlUtil.setBinaryUuids(true);
+                return null;
+            }
+
+            SqlUtil.setBinaryUuids(false);
+            if (!binary) return null;
+
+            if (db.getType() == DatabaseType.MYSQL) {
+                if (isMarked(conn, BACKFILL)) {
+                    if (swap) {
+                        finishMysql(conn);
+                    } else {
+                        logger.warning("[Migration:core] Kolumny UUID gotowe do podmiany na"
+                                + " BINARY(16). " + estimate(conn) + " Ustaw database.uuid-swap:"
+                                + " true i zrestartuj w oknie serwisowym — do tego czasu"
+                                + " zostaje format TEXT.");
+                    }
+                    return null;
+                }
+                prepareMysql(conn);
+                return new ShadowBackfill(logger);
+            }
+
+            convertSqlite(conn);
+            return null;
+
+        } catch (SQLException e) {
+            logger.severe("[Migration:core] Błąd konwersji UUID: " + e.getMessage());
+            throw new RuntimeException("UUID conversion failed", e);
+        }
+    }
+
+    // ── MySQL ─────────────────────────────────────────────────────────────
+
+    /**
+     * Krok 1: kolumny cieniowe. Usługi zostają na formacie TEXT do czasu
+     * podmiany przy następnym starcie.
+     */
+    private void prepareMysql(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (Table table : TABLES) {
+                for (String column : table.columns()) {
+                    if (columnExists(conn, table.name(), column + SHADOW)) continue;
+                    st.execute("ALTER TABLE " + table.name()
+                            + " ADD COLUMN " + column + SHADOW + " BINARY(16) NULL");
+                }
+            }
+        }
+        logger.info("[Migration:core] Kolumny UUID przepisywane w tle — podmiana na BINARY"
+                + " po zakończeniu backfillu, przy starcie z database.uuid-swap: true.");
+    }
+
+    /**
+     * Krok 3: dopisanie nowych wierszy i podmiana kolumn. Gdy któraś
+     * wartość nie jest poprawnym UUID — konwersja jest wstrzymywana,
+     * serwer startuje na formacie TEXT.
+     */
+    private void finishMysql(Connection conn) throws SQLException {
+        logger.warning("[Migration:core] Podmiana kolumn UUID na BINARY(16) — " + estimate(conn)
+                + " Serwer wystartuje po jej zakończeniu.");
+        long start = System.currentTimeMillis();
+
+        for (Table table : TABLES) {
+            if (!fillRemaining(conn, table)) return;
+        }
+
+        for (Table table : TABLES) {
+            long t0 = System.currentTimeMillis();
+            if (!columnExists(conn, table.name(), table.columns().get(0) + SHADOW)) continue;
+            swap(conn, table);
+            logger.info("[Migration:core] " + table.name() + " — "
+                    + (System.currentTimeMillis() - t0) + " ms.");
+        }
+
+        mark(conn, MARKER);
+        SqlUtil.setBinaryUuids(true);
+        logger.info("[Migration:core] Konwersja UUID zakończona w "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Wiersze wstawione po przejściu backfillu (pusta kolumna cieniowa).
+     *
+     * @return false gdy zostały wartości, których nie da się przekonwertować
+     */
+    private boolean fillRemaining(Connection conn, Table table) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String column : table.columns()) {
+                if (!columnExists(conn, table.name(), column + SHADOW)) return true;
+
+                st.executeUpdate("UPDATE " + table.name()
+                        + " SET " + column + SHADOW + " = " + unhex(column)
+                        + " WHERE " + column + SHADOW + " IS NULL");
+
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table.name()
+                        + " WHERE " + column + SHADOW + " IS NULL")) {
+                    long invalid = rs.next() ? rs.getLong(1) : 0;
+                    if (invalid > 0) {
+                        logger.severe("[Migration:core] " + table.name() + "." + column + ": "
+                                + invalid + " wartości nie jest poprawnym UUID — konwersja"
+                                + " wstrzymana, zostaje format TEXT. Popraw dane i zrestartuj.");
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ALTER online (INPLACE, LOCK=NONE) — inne serwery sieci mogą w tym
+     * czasie czytać i pisać. Gdy MySQL nie pozwala na to dla tej tabeli,
+     * zwykły ALTER z blokadą.
+     */
+    private void swap(Connection conn, Table table) throws SQLException {
+        String sql = swapSql(table, affectedIndexes(conn, table));
+        try (Statement st = conn.createStatement()) {
+            try {
+                st.execute(sql + ", ALGORITHM=INPLACE, LOCK=NONE");
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_ALTER_NOT_SUPPORTED) throw e;
+                logger.warning("[Migration:core] " + table.name() + ": ALTER online"
+                        + " niedostępny (" + e.getMessage() + ") — ALTER z blokadą tabeli.");
+                st.execute(sql);
+            }
+        }
+    }
+
+    /** Rozmiar tabel do przebudowy i orientacyjny czas przestoju. */
+    private String estimate(Connection conn) throws SQLException {
+        long rows  = 0;
+        long bytes = 0;
+        try (PreparedStatement ps = conn.prepareStatement(TABLE_SIZE_SQL)) {
+            for (Table table : TABLES) {
+                ps.setString(1, table.name());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        rows  += rs.getLong(1);
+                        bytes += rs.getLong(2);
+                    }
+                }
+            }
+        }
+        long seconds = Math.max(1, bytes / REBUILD_BYTES_PER_SEC);
+        return "Przebudowa " + TABLES.size() + " tabel: ~" + rows + " wierszy, ~"
+                + bytes / (1024 * 1024) + " MB, szacunkowo ~" + (seconds + 59) / 60
+                + " min przestoju.";
+    }
+
+    /**
+     * Jeden ALTER na tabelę (atomowy w MySQL 8): zdjęcie indeksów
+     * z kolumną UUID, podmiana kolumn, odtworzenie indeksów.
+     */
+    private static String swapSql(Table table, List<Index> indexes) {
+        List<String> parts = new ArrayList<>();
+        for (Index index : indexes) {
+            parts.add(index.name().equals("PRIMARY")
+                    ? "DROP PRIMARY KEY"
+                    : "DROP INDEX " + index.name());
+        }
+        for (String column : table.columns()) {
+            parts.add("DROP COLUMN " + column);
+            parts.add("CHANGE COLUMN " + column + SHADOW + " " + column + " BINARY(16) NOT NULL");
+        }
+        for (Index index : indexes) {
+            String columns = "(" + String.join(", ", index.parts()) + ")";
+            parts.add(index.name().equals("PRIMARY") ? "ADD PRIMARY KEY " + columns
+                    : (index.unique() ? "ADD UNIQUE INDEX " : "ADD INDEX ")
+                      + index.name() + " " + columns);
+        }
+        return "ALTER TABLE " + table.name() + " " + String.join(", ", parts);
+    }
+
+    private static List<Index> affectedIndexes(Connection conn, Table table) throws SQLException {
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(INDEXES_SQL)) {
+            ps.setString(1, table.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String  name    = rs.getString("index_name");
+                    boolean unique  = rs.getInt("non_unique") == 0;
+                    String  column  = rs.getString("column_name");
+                    int     subPart = rs.getInt("sub_part");
+                    String  part    = rs.wasNull() ? column : column + "(" + subPart + ")";
+                    indexes.computeIfAbsent(name, n -> new Index(n, unique, new ArrayList<>()))
+                           .parts().add(part);
+                }
+            }
+        }
+        indexes.values().removeIf(index -> index.parts().stream()
+                .noneMatch(part -> table.columns().contains(part)));
+        return new ArrayList<>(indexes.values());
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(COLUMN_EXISTS_SQL)) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static String unhex(String column) {
+        return "UNHEX(REPLACE(" + column + ", '-', ''))";
+    }
+
+    /**
+     * Krok 2: wypełnienie kolumn cieniowych, tabela po tabeli.
+     * Kursor: "{numer tabeli}:{ostatni klucz}".
+     */
+    private static final class ShadowBackfill extends BackfillMigration {
+
+        private final Logger logger;
+
+        ShadowBackfill(Logger logger) {
+            super(MODULE, BACKFILL);
+            this.logger = logger;
+        }
+
+        @Override
+        protected void onComplete() {
+            logger.info("[Migration:core] Kolumny cieniowe UUID wypełnione. Podmiana na"
+                    + " BINARY(16) przebudowuje tabele — ustaw database.uuid-swap: true"
+                    + " i zrestartuj w oknie serwisowym.");
+        }
+
+        @Override
+        protected String initialCursor() {
+            return "0:";
+        }
+
+        @Override
+        protected Chunk chunk(Connection conn, String after, int limit) throws SQLException {
+            int    sep   = after.indexOf(':');
+            int    table = Integer.parseInt(after.substring(0, sep));
+            String key   = after.substring(sep + 1);
+            int    rows  = 0;
+
+            while (table < TABLES.size() && rows < limit) {
+                Chunk page = fill(conn, TABLES.get(table), key, limit - rows);
+                if (page == null) {
+                    // Tabela skończona — reszta paczki na następną
+                    table++;
+                    key = "";
+                    continue;
+                }
+                rows += page.rows();
+                key   = page.cursor();
+            }
+            return new Chunk(table + ":" + key, rows);
+        }
+
+        /** @return ostatni przetworzony klucz i liczba wierszy, null gdy brak */
+        private static Chunk fill(Connection conn, Table t, String after, int limit) throws SQLException {
+            String keys = "SELECT MAX(k), COUNT(*) FROM (SELECT " + t.key() + " AS k FROM " + t.name()
+                    + " WHERE " + t.key() + " > ? ORDER BY " + t.key() + " LIMIT ?) page";
+
+            String last;
+            int    count;
+            try (PreparedStatement ps = conn.prepareStatement(keys)) {
+                bindKey(ps, 1, t, after);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getInt(2) == 0) return null;
+                    last  = rs.getString(1);
+                    count = rs.getInt(2);
+                }
+            }
+
+            StringBuilder update = new StringBuilder("UPDATE ").append(t.name()).append(" SET ");
+            for (int i = 0; i < t.columns().size(); i++) {
+                String column = t.columns().get(i);
+                if (i > 0) update.append(", ");
+                update.append(column).append(SHADOW).append(" = ").append(unhex(column));
+            }
+            update.append(" WHERE ").append(t.key()).append(" > ? AND ").append(t.key()).append(" <= ?");
+
+            try (PreparedStatement ps = conn.prepareStatement(update.toString())) {
+                bindKey(ps, 1, t, after);
+                bindKey(ps, 2, t, last);
+                ps.executeUpdate();
+            }
+            return new Chunk(last, count);
+        }
+
+        private static void bindKey(PreparedStatement ps, int index, Table t, String key) throws SQLException {
+            if (t.id()) {
+                ps.setLong(index, key.isEmpty() ? 0 : Long.parseLong(key));
+            } else {
+                ps.setString(index, key);
+            }
+        }
+    }
+
+    // ── SQLite ────────────────────────────────────────────────────────────
+
+    private void convertSqlite(Connection conn) throws SQLException {
+        logger.info("[Migration:core] Konwersja kolumn UUID na BLOB...");
+        long start = System.currentTimeMillis();
+
+        for (Table table : TABLES) {
+            long t0 = System.currentTimeMillis();
+            convertSqlite(conn, table);
+            logger.info("[Migration:core] " + table.name() + " — "
+                    + (System.currentTimeMillis() - t0) + " ms.");
+        }
+
+        mark(conn, MARKER);
+        SqlUtil.setBinaryUuids(true);
+        logger.info("[Migration:core] Konwersja UUID zakończona w "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    private void convertSqlite(Connection conn, Table table) throws SQLException {
+        for (String column : table.columns()) {
+            String select = "SELECT rowid, " + column + " FROM " + table.name()
+                    + " WHERE rowid > ? AND typeof(" + column + ") = 'text'"
+                    + " ORDER BY rowid LIMIT " + CHUNK;
+            String update = "UPDATE " + table.name() + " SET " + column + " = ? WHERE rowid = ?";
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement read  = conn.prepareStatement(select);
+                 PreparedStatement write = conn.prepareStatement(update)) {
+                long after = 0;
+                while (true) {
+                    int rows = 0;
+                    read.setLong(1, after);
+                    try (ResultSet rs = read.executeQuery()) {
+                        while (rs.next()) {
+                            after = rs.getLong(1);
+                            write.setBytes(1, SqlUtil.toBytes(UUID.fromString(rs.getString(2))));
+                            write.setLong( 2, after);
+                            write.addBatch();
+                            rows++;
+                        }
+                    }
+                    if (rows == 0) break;
+                    write.executeBatch();
+                    conn.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    // ── Znacznik ──────────────────────────────────────────────────────────
+
+    private boolean isMarked(Connection conn, String version) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(MARKER_SQL)) {
+            ps.setString(1, MODULE);
+            ps.setString(2, version);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void mark(Connection conn, String version) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                db.getType() == DatabaseType.MYSQL ? MARK_SQL_MYSQL : MARK_SQL_SQLITE)) {
+            ps.setString(1, MODULE);
+            ps.setString(2, version);
+            ps.executeUpdate();
+        }
+    }
+}
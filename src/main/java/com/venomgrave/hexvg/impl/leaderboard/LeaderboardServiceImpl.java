@@ -0,0 +1,233 @@
+package com.venomgrave.hexvg.impl.leaderboard;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardEntry;
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardService;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.logging.Logger;
+
+/**
+ * Ranking czasu gry utrzymywany przyrostowo w pamięci.
+ *
+ * Start: jednorazowe wczytanie hexvg_playtime (w tle). Potem zero
+ * zapytań — SessionServiceImpl zgłasza join / quit, a gracze online
+ * są co LIVE_REFRESH_MS przestawiani na wynik z bieżącą sesją.
+ * Koszt odświeżenia: O(online · log n), niezależny od wielkości rankingu.
+ */
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final String SEED_SQL = """
+            SELECT t.uuid, t.total_seconds, p.name
+            FROM hexvg_playtime t
+            LEFT JOIN hexvg_players p ON p.uuid = t.uuid
+            """;
+
+    // Co tyle gracze online dostają nowy wynik w rankingu
+    private static final long LIVE_REFRESH_MS = 5_000L;
+
+    private final DatabaseService db;
+    private final Logger          logger;
+
+    // Skip lista i mapa online — zapis pod writeLock, zapytania pod readLock
+    private final StampedLock    lock = new StampedLock();
+    private final RankedSkipList list = new RankedSkipList();
+
+    // Gracz online: wynik bez bieżącej sesji + moment dołączenia
+    private record Live(long base, long joinedAt) {}
+    private final Map<UUID, Live> online = new HashMap<>();
+
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "HexVG-Leaderboard");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public LeaderboardServiceImpl(DatabaseService db, Logger logger) {
+        this.db     = db;
+        this.logger = logger;
+
+        ticker.scheduleWithFixedDelay(this::refreshOnline,
+                LIVE_REFRESH_MS, LIVE_REFRESH_MS, TimeUnit.MILLISECONDS);
+
+        try {
+            db.getAsyncExecutor().execute(this::load);
+        } catch (RejectedExecutionException e) {
+            logger.warning("[Leaderboard] Nie można wczytać rankingu: " + e.getMessage());
+        }
+    }
+
+    // ── LeaderboardService ────────────────────────────────────────────────
+
+    @Override
+    public List<LeaderboardEntry> top(int n) {
+        return page(1, n);
+    }
+
+    @Override
+    public List<LeaderboardEntry> page(int page, int pageSize) {
+        if (page < 1 || pageSize <= 0) return List.of();
+        long from = (long) (page - 1) * pageSize + 1;
+        if (from > Integer.MAX_VALUE) return List.of();
+
+        long stamp = lock.readLock();
+        try {
+            return list.range((int) from, pageSize, names::get);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public LeaderboardEntry at(int rank) {
+        List<LeaderboardEntry> one = page(rank, 1);
+        return one.isEmpty() ? null : one.get(0);
+    }
+
+    @Override
+    public int rankOf(UUID uuid) {
+        long stamp = lock.readLock();
+        try {
+            return list.rankOf(uuid);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return list.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ── Zdarzenia sesji (SessionServiceImpl) ──────────────────────────────
+
+    /** Gracz dołączył — od teraz jego wynik rośnie z bieżącą sesją. */
+    public void join(UUID uuid, String name, long joinedAt) {
+        if (name != null) names.put(uuid, name);
+
+        long stamp = lock.writeLock();
+        try {
+            long base = Math.max(list.score(uuid), 0L);
+            online.put(uuid, new Live(base, joinedAt));
+            list.put(uuid, base);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Gracz wyszedł — sesja dopisana na stałe do wyniku. */
+    public void quit(UUID uuid, long seconds) {
+        long stamp = lock.writeLock();
+        try {
+            Live live = online.remove(uuid);
+            long base = live != null ? live.base() : Math.max(list.score(uuid), 0L);
+            list.put(uuid, base + Math.max(seconds, 0L));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // ── Wewnętrzne ────────────────────────────────────────────────────────
+
+    private void refreshOnline() {
+        long now   = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            online.forEach((uuid, live) ->
+                    list.put(uuid, live.base() + (now - live.joinedAt()) / 1000L));
+        } catch (RuntimeException e) {
+            // Wyjątek zatrzymałby scheduleWithFixedDelay na zawsze
+            logger.warning("[Leaderboard] Błąd odświeżania: " + e.getMessage());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+
+        List<UUID> uuids   = new ArrayList<>();
+        List<Long> seconds = new ArrayList<>();
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(SEED_SQL)) {
+            ps.setFetchSize(1_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid;
+                    try {
+                        uuid = SqlUtil.getUuid(rs, 1);
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    uuids.add(uuid);
+                    seconds.add(rs.getLong(2));
+                    String name = rs.getString(3);
+                    if (name != null) names.putIfAbsent(uuid, name);
+                }
+            }
+        } catch (SQLException e) {
+            logger.warning("[Leaderboard] Błąd wczytywania rankingu: " + e.getMessage());
+            return;
+        }
+
+        // Gracze, którzy weszli / wyszli przed końcem wczytywania, mają już
+        // wynik w indeksie — większy z dwóch jest aktualny
+        long now   = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < uuids.size(); i++) {
+                UUID uuid   = uuids.get(i);
+                long stored = seconds.get(i);
+
+                Live live = online.get(uuid);
+                if (live != null) {
+                    long base = Math.max(live.base(), stored);
+                    online.put(uuid, new Live(base, live.joinedAt()));
+                    list.put(uuid, base + (now - live.joinedAt()) / 1000L);
+                } else {
+                    list.put(uuid, Math.max(list.score(uuid), stored));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        ready = true;
+        logger.info("[Leaderboard] Wczytano " + uuids.size() + " graczy w "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+}
@@ -0,0 +1,192 @@
+package com.venomgrave.hexvg.impl.leaderboard;
+
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Skip lista z rozpiętościami (jak sorted set w Redisie).
+ *
+ * Każdy wskaźnik pamięta ile węzłów przeskakuje, więc oprócz
+ * wstawiania i usuwania także miejsce gracza i wejście na n-tą
+ * pozycję kosztują O(log n). Kolejność: wynik malejąco, przy remisie
+ * UUID rosnąco — stabilna między odświeżeniami.
+ *
+ * Niesynchronizowana — dostęp pilnuje LeaderboardServiceImpl.
+ */
+final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final UUID   uuid;
+        final long   score;
+        final Node[] next;
+        final int[]  span;
+
+        Node(UUID uuid, long score, int level) {
+            this.uuid  = uuid;
+            this.score = score;
+            this.next  = new Node[level];
+            this.span  = new int[level];
+        }
+    }
+
+    private final Node            head   = new Node(null, Long.MAX_VALUE, MAX_LEVEL);
+    private final Map<UUID, Long> scores = new HashMap<>();
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /** Wynik gracza lub -1 jeśli go nie ma. */
+    long score(UUID uuid) {
+        Long score = scores.get(uuid);
+        return score != null ? score : -1L;
+    }
+
+    /** Wstawia albo przestawia gracza na nowy wynik. */
+    void put(UUID uuid, long score) {
+        Long old = scores.get(uuid);
+        if (old != null) {
+            if (old == score) return;
+            remove(uuid);
+        }
+        scores.put(uuid, score);
+
+        Node[] update = new Node[MAX_LEVEL];
+        int[]  rank   = new int[MAX_LEVEL];
+        Node   x      = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], score, uuid) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int lvl = randomLevel();
+        if (lvl > level) {
+            for (int i = level; i < lvl; i++) {
+                rank[i]      = 0;
+                update[i]    = head;
+                head.span[i] = size;
+            }
+            level = lvl;
+        }
+
+        x = new Node(uuid, score, lvl);
+        for (int i = 0; i < lvl; i++) {
+            x.next[i]         = update[i].next[i];
+            update[i].next[i] = x;
+            x.span[i]         = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+        for (int i = lvl; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    void remove(UUID uuid) {
+        Long score = scores.remove(uuid);
+        if (score == null) return;
+
+        Node[] update = new Node[MAX_LEVEL];
+        Node   x      = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], score, uuid) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        x = x.next[0];
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i]  = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) level--;
+        size--;
+    }
+
+    /** Miejsce gracza (od 1) lub 0 jeśli go nie ma. */
+    int rankOf(UUID uuid) {
+        Long score = scores.get(uuid);
+        if (score == null) return 0;
+
+        int  rank = 0;
+        Node x    = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], score, uuid) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x.uuid != null && x.uuid.equals(uuid)) return rank;
+        }
+        return 0;
+    }
+
+    /**
+     * Do count pozycji począwszy od miejsca from (od 1).
+     * Zejście do from w O(log n), dalej po najniższym poziomie.
+     */
+    List<LeaderboardEntry> range(int from, int count, Function<UUID, String> names) {
+        if (from < 1 || from > size || count <= 0) return List.of();
+
+        int  traversed = 0;
+        Node x         = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= from) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == from) break;
+        }
+
+        List<LeaderboardEntry> out = new ArrayList<>(Math.min(count, size - from + 1));
+        for (int rank = from; x != null && out.size() < count; rank++, x = x.next[0]) {
+            out.add(new LeaderboardEntry(rank, x.uuid, names.apply(x.uuid), x.score));
+        }
+        return out;
+    }
+
+    void clear() {
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        scores.clear();
+        level = 1;
+        size  = 0;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    // < 0 gdy węzeł stoi przed (score, uuid)
+    private static int compare(Node node, long score, UUID uuid) {
+        if (node.score != score) return node.score > score ? -1 : 1;
+        return node.uuid.compareTo(uuid);
+    }
+
+    // p = 1/4 — średnio 1.33 wskaźnika na węzeł
+    private static int randomLevel() {
+        int lvl = 1;
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (lvl < MAX_LEVEL && rnd.nextInt(4) == 0) lvl++;
+        return lvl;
+    }
+}
@@ -0,0 +1,185 @@
+package com.venomgrave.hexvg.impl.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wiadomość skompilowana przy ładowaniu pliku językowego.
+ *
+ * MiniMessage parsuje szablon raz — {prefix} już wstrzyknięty, sloty
+ * {klucz} zostają jako zwykły tekst. Przy wysyłce:
+ * - bez placeholderów → gotowy, niemutowalny Component,
+ * - ze slotami → replaceText() tylko w miejscach slotów, bez parsowania.
+ *
+ * Pełne parsowanie zostaje tylko dla rzadkich przypadków, których
+ * nie da się podmienić w gotowym komponencie: slot wewnątrz tagu
+ * (np. {@code <click:run_command:/tpa {player}>}) albo placeholder
+ * w formie {@code <klucz>}.
+ */
+final class MessageTemplate {
+
+    private static final MiniMessage MM = MiniMessage.miniMessage();
+
+    private static final Pattern SLOT = Pattern.compile("\\{([A-Za-z0-9_-]+)}");
+    private static final Pattern TAG  = Pattern.compile("<([A-Za-z0-9_-]+)>");
+
+    private final String    raw;
+    private final Component component;
+
+    // raw = parts[0] + {slots[0]} + parts[1] + ... + parts[n]
+    private final String[]  parts;
+    private final String[]  slots;
+
+    // Sloty w argumentach tagów — wymagają podmiany tekstu i parsowania
+    private final Set<String> slotsInTags;
+    // Nazwy <tagów> — mogą być placeholderami w stylu MiniMessage
+    private final Set<String> tagNames;
+
+    private MessageTemplate(String raw) {
+        this.raw = raw;
+
+        List<String> partList = new ArrayList<>();
+        List<String> slotList = new ArrayList<>();
+        Set<String>  inTags   = new HashSet<>();
+
+        Matcher m    = SLOT.matcher(raw);
+        int     last = 0;
+        while (m.find()) {
+            partList.add(raw.substring(last, m.start()));
+            slotList.add(m.group(1));
+            if (insideTag(raw, m.start())) inTags.add(m.group(1));
+            last = m.end();
+        }
+        partList.add(raw.substring(last));
+
+        Set<String> tags = new HashSet<>();
+        Matcher t = TAG.matcher(raw);
+        while (t.find()) tags.add(t.group(1));
+
+        this.parts       = partList.toArray(new String[0]);
+        this.slots       = slotList.toArray(new String[0]);
+        this.slotsInTags = inTags;
+        this.tagNames    = tags;
+        this.component   = MM.deserialize(raw);
+    }
+
+    /**
+     * @param value  wartość z pliku językowego (null = brak klucza)
+     * @param prefix wartość general.prefix
+     */
+    static MessageTemplate compile(String path, String value, String prefix) {
+        if (value == null) {
+            return new MessageTemplate("<red>[MISSING: " + path + "]</red>");
+        }
+        return new MessageTemplate(value.replace("{prefix}", prefix));
+    }
+
+    // ── Wypełnianie ───────────────────────────────────────────────────────
+
+    Component component(Object... placeholders) {
+        if (placeholders == null || placeholders.length < 2) return component;
+        if (slots.length == 0 && tagNames.isEmpty()) return component;
+
+        if (needsParse(placeholders)) {
+            return MM.deserialize(raw(placeholders), resolvers(placeholders));
+        }
+
+        Component result = component;
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            String key = String.valueOf(placeholders[i]);
+            if (!hasSlot(key)) continue;
+
+            result = result.replaceText(TextReplacementConfig.builder()
+                    .matchLiteral("{" + key + "}")
+                    .replacement(value(placeholders[i + 1]))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Surowy string z podmienionymi slotami {klucz}.
+     */
+    String raw(Object... placeholders) {
+        if (slots.length == 0 || placeholders == null || placeholders.length < 2) return raw;
+
+        StringBuilder sb = new StringBuilder(raw.length() + 32);
+        for (int s = 0; s < slots.length; s++) {
+            sb.append(parts[s]);
+            String value = lookup(slots[s], placeholders);
+            if (value != null) {
+                sb.append(value);
+            } else {
+                sb.append('{').append(slots[s]).append('}');
+            }
+        }
+        sb.append(parts[slots.length]);
+        return sb.toString();
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private boolean needsParse(Object... placeholders) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            String key = String.valueOf(placeholders[i]);
+            if (slotsInTags.contains(key) || tagNames.contains(key)) return true;
+        }
+        return false;
+    }
+
+    private boolean hasSlot(String key) {
+        for (String slot : slots) {
+            if (slot.equals(key)) return true;
+        }
+        return false;
+    }
+
+    // Pierwsza para wygrywa — jak wcześniejsze String.replace po kolei
+    private static String lookup(String key, Object... placeholders) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            if (key.equals(String.valueOf(placeholders[i]))) {
+                return String.valueOf(placeholders[i + 1]);
+            }
+        }
+        return null;
+    }
+
+    // Wartość z tagami (np. kolorowy nick) parsujemy jak wcześniej,
+    // zwykły tekst (liczby, nazwy) — bez MiniMessage
+    private static Component value(Object raw) {
+        String value = String.valueOf(raw);
+        return value.indexOf('<') >= 0 ? MM.deserialize(value) : Component.text(value);
+    }
+
+    private static boolean insideTag(String raw, int index) {
+        return raw.lastIndexOf('<', index) > raw.lastIndexOf('>', index);
+    }
+
+    /**
+     * Buduje TagResolver z par (klucz, wartość).
+     * Placeholdery w MiniMessage: <klucz>
+     */
+    static TagResolver resolvers(Object... placeholders) {
+        if (placeholders == null || placeholders.length < 2) {
+            return TagResolver.empty();
+        }
+
+        List<TagResolver> resolvers = new ArrayList<>();
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            String key   = String.valueOf(placeholders[i]);
+            String value = String.valueOf(placeholders[i + 1]);
+            resolvers.add(Placeholder.parsed(key, value));
+        }
+        return TagResolver.resolver(resolvers);
+    }
+}
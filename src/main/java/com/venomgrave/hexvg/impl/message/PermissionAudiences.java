@@ -0,0 +1,174 @@
+package com.venomgrave.hexvg.impl.message;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejestr odbiorców per uprawnienie dla sendToPermission().
+ *
+ * Zbiór graczy dla uprawnienia jest liczony raz — przy pierwszym
+ * broadcaście — i potem utrzymywany przyrostowo: join / quit / zmiana
+ * świata / przeliczenie uprawnień w LuckPerms. Broadcast to iteracja
+ * po gotowym zbiorze zamiast hasPermission() dla każdego gracza online.
+ *
+ * Zbiory są aktualne tylko, gdy zmiany uprawnień przychodzą zdarzeniami —
+ * czyli z LuckPerms (setTracked). Bez niego (inny plugin uprawnień, op,
+ * attachmenty) broadcast skanuje graczy online przy każdym wywołaniu.
+ */
+public class PermissionAudiences implements Listener {
+
+    private final Plugin plugin;
+
+    private final Map<String, Set<Player>> audiences = new ConcurrentHashMap<>();
+
+    // true gdy przeliczenia uprawnień przychodzą z LuckPerms
+    private volatile boolean tracked;
+
+    // ── Metryki ───────────────────────────────────────────────────────────
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private volatile long    lastNanos;
+    private volatile long    maxNanos;
+
+    public PermissionAudiences(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Włącza zbiory przyrostowe. Wołane przez HexVGCore po subskrypcji
+     * przeliczeń LuckPerms; wyłączenie czyści zbiory.
+     */
+    public void setTracked(boolean tracked) {
+        this.tracked = tracked;
+        if (!tracked) audiences.clear();
+    }
+
+    /**
+     * Gracze online z uprawnieniem. Pierwsze wywołanie dla danego
+     * uprawnienia skanuje graczy online, kolejne zwracają gotowy zbiór.
+     * Bez śledzenia — skan przy każdym wywołaniu.
+     */
+    public Collection<Player> audience(String permission) {
+        if (!tracked) return scan(permission);
+        return audiences.computeIfAbsent(permission, this::scan);
+    }
+
+    // ── Utrzymanie ────────────────────────────────────────────────────────
+
+    /** Przelicza przynależność gracza do wszystkich znanych odbiorców. */
+    public void refresh(Player player) {
+        audiences.forEach((perm, set) -> {
+            if (player.isOnline() && player.hasPermission(perm)) {
+                set.add(player);
+            } else {
+                set.remove(player);
+            }
+        });
+    }
+
+    /**
+     * Wersja dla zdarzeń z innych wątków (LuckPerms) — przelicza
+     * na głównym wątku serwera.
+     */
+    public void refresh(UUID uuid) {
+        runSync(() -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) refresh(player);
+        });
+    }
+
+    /** Zmiana grupy może dotyczyć wielu graczy — zbiory liczone od nowa. */
+    public void refreshAll() {
+        runSync(audiences::clear);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        // LOWEST — gracz jest już w zbiorach gdy inne pluginy ogłaszają join
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        audiences.values().forEach(set -> set.remove(player));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        // Uprawnienia per-świat (kontekst world w LuckPerms)
+        refresh(event.getPlayer());
+    }
+
+    // ── Metryki ───────────────────────────────────────────────────────────
+
+    void recordBroadcast(long nanos) {
+        broadcasts.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        lastNanos = nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    /** Rozmiary odbiorców i czasy broadcastów. */
+    public BroadcastStats stats() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        audiences.forEach((perm, set) -> sizes.put(perm, set.size()));
+
+        long n = broadcasts.get();
+        return new BroadcastStats(
+                sizes,
+                n,
+                lastNanos / 1_000_000.0,
+                n == 0 ? 0.0 : totalNanos.get() / (double) n / 1_000_000.0,
+                maxNanos / 1_000_000.0
+        );
+    }
+
+    /**
+     * @param audienceSizes uprawnienie → liczba odbiorców
+     * @param broadcasts    liczba broadcastów od startu
+     * @param lastMs        czas ostatniego broadcastu (render + wysyłka)
+     * @param avgMs         średni czas broadcastu
+     * @param maxMs         najdłuższy broadcast
+     */
+    public record BroadcastStats(
+            Map<String, Integer> audienceSizes,
+            long   broadcasts,
+            double lastMs,
+            double avgMs,
+            double maxMs
+    ) {}
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private Set<Player> scan(String permission) {
+        Set<Player> set = ConcurrentHashMap.newKeySet();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            if (p.hasPermission(permission)) set.add(p);
+        }
+        return set;
+    }
+
+    private void runSync(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+}
@@ -4,8 +4,6 @@ import com.venomgrave.hexvg.api.message.MessageKey;
 import com.venomgrave.hexvg.api.message.MessageProvider;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -19,7 +17,10 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 public class YamlMessageProvider implements MessageProvider {
@@ -32,10 +33,19 @@ public class YamlMessageProvider implements MessageProvider {
 
     private FileConfiguration messages;
 
+    // Odbiorcy sendToPermission — listener rejestrowany przez HexVGCore
+    private final PermissionAudiences audiences;
+
+    // Szablony skompilowane przy load() — podmieniane w całości przy reload
+    private volatile Map<MessageKey, MessageTemplate> templates = new EnumMap<>(MessageKey.class);
+    // Ścieżki spoza MessageKey (String API) — kompilowane przy pierwszym użyciu
+    private volatile Map<String, MessageTemplate>     byPath    = new ConcurrentHashMap<>();
+
     public YamlMessageProvider(JavaPlugin plugin, String language) {
         this.plugin   = plugin;
         this.logger   = plugin.getLogger();
         this.language = language;
+        this.audiences = new PermissionAudiences(plugin);
         load();
     }
 
@@ -79,39 +89,80 @@ public class YamlMessageProvider implements MessageProvider {
                     + " Klucze będą wyświetlane zamiast wiadomości.");
             messages = new YamlConfiguration();
         }
+
+        compile();
+    }
+
+    /**
+     * Kompiluje wszystkie MessageKey do szablonów — jedno parsowanie
+     * MiniMessage na klucz zamiast na każde wywołanie get().
+     */
+    private void compile() {
+        String prefix = messages.getString(MessageKey.PREFIX.getPath(), "");
+
+        Map<MessageKey, MessageTemplate> compiled = new EnumMap<>(MessageKey.class);
+        Map<String, MessageTemplate>     paths    = new ConcurrentHashMap<>();
+        List<String>                     missing  = new ArrayList<>();
+
+        for (MessageKey key : MessageKey.values()) {
+            String value = messages.getString(key.getPath());
+            if (value == null && !messages.isList(key.getPath())) missing.add(key.getPath());
+
+            MessageTemplate template = MessageTemplate.compile(key.getPath(), value, prefix);
+            compiled.put(key, template);
+            paths.put(key.getPath(), template);
+        }
+
+        templates = compiled;
+        byPath    = paths;
+
+        if (!missing.isEmpty()) {
+            logger.warning("[Messages] Brak kluczy: " + String.join(", ", missing));
+        }
+    }
+
+    private MessageTemplate template(String path) {
+        return byPath.computeIfAbsent(path, p -> {
+            String value = messages.getString(p);
+            if (value == null) logger.warning("[Messages] Brak klucza: '" + p + "'");
+            return MessageTemplate.compile(p, value,
+                    messages.getString(MessageKey.PREFIX.getPath(), ""));
+        });
     }
 
     // ── MessageKey API ────────────────────────────────────────────────────
 
     @Override
     public Component get(MessageKey key, Object... placeholders) {
-        return get(key.getPath(), placeholders);
+        return templates.get(key).component(placeholders);
     }
 
     @Override
     public String getRaw(MessageKey key, Object... placeholders) {
-        return getRaw(key.getPath(), placeholders);
+        return templates.get(key).raw(placeholders);
     }
 
     @Override
     public void send(CommandSender sender, MessageKey key, Object... placeholders) {
-        send(sender, key.getPath(), placeholders);
+        sender.sendMessage(get(key, placeholders));
     }
 
     @Override
     public void sendToPermission(String permission,
                                  MessageKey key,
                                  Object... placeholders) {
+        long      start     = System.nanoTime();
         Component component = get(key, placeholders);
 
         if (permission == null || permission.isBlank()) {
             Bukkit.getOnlinePlayers().forEach(p -> p.sendMessage(component));
             Bukkit.getConsoleSender().sendMessage(component);
         } else {
-            Bukkit.getOnlinePlayers().stream()
-                    .filter(p -> p.hasPermission(permission))
-                    .forEach(p -> p.sendMessage(component));
+            for (Player p : audiences.audience(permission)) {
+                p.sendMessage(component);
+            }
         }
+        audiences.recordBroadcast(System.nanoTime() - start);
     }
 
     @Override
@@ -150,25 +201,12 @@ public class YamlMessageProvider implements MessageProvider {
 
     @Override
     public Component get(String path, Object... placeholders) {
-        String raw = getRaw(path, placeholders);
-        return MM.deserialize(raw, buildResolvers(placeholders));
+        return template(path).component(placeholders);
     }
 
     @Override
     public String getRaw(String path, Object... placeholders) {
-        String prefix = messages.getString(
-                MessageKey.PREFIX.getPath(), "");
-        String value  = messages.getString(path);
-
-        if (value == null) {
-            logger.warning("[Messages] Brak klucza: '" + path + "'");
-            return "<red>[MISSING: " + path + "]</red>";
-        }
-
-        // Wstrzykujemy prefix i placeholdery
-        value = value.replace("{prefix}", prefix);
-        value = applyPlaceholders(value, placeholders);
-        return value;
+        return template(path).raw(placeholders);
     }
 
     @Override
@@ -192,7 +230,7 @@ public class YamlMessageProvider implements MessageProvider {
         for (String line : lines) {
             line = line.replace("{prefix}", prefix);
             line = applyPlaceholders(line, placeholders);
-            result.add(MM.deserialize(line, buildResolvers(placeholders)));
+            result.add(MM.deserialize(line, MessageTemplate.resolvers(placeholders)));
         }
         return result;
     }
@@ -205,6 +243,11 @@ public class YamlMessageProvider implements MessageProvider {
         logger.info("[Messages] Przeładowano.");
     }
 
+    /** Rejestr odbiorców per uprawnienie (listener + metryki broadcastów). */
+    public PermissionAudiences getAudiences() {
+        return audiences;
+    }
+
     @Override
     public String getLanguage() {
         return language;
@@ -218,24 +261,6 @@ public class YamlMessageProvider implements MessageProvider {
 
     // ── Pomocnicze ────────────────────────────────────────────────────────
 
-    /**
-     * Buduje TagResolver z par (klucz, wartość).
-     * Placeholdery w MiniMessage: <klucz>
-     */
-    private TagResolver buildResolvers(Object... placeholders) {
-        if (placeholders == null || placeholders.length < 2) {
-            return TagResolver.empty();
-        }
-
-        List<TagResolver> resolvers = new ArrayList<>();
-        for (int i = 0; i + 1 < placeholders.length; i += 2) {
-            String key   = String.valueOf(placeholders[i]);
-            String value = String.valueOf(placeholders[i + 1]);
-            resolvers.add(Placeholder.parsed(key, value));
-        }
-        return TagResolver.resolver(resolvers);
-    }
-
     /**
      * Podmienia {klucz} w surowym stringu.
      */
@@ -1,8 +1,6 @@
 package com.venomgrave.hexvg.impl.placeholder;
 
 import com.venomgrave.hexvg.HexVGCore;
-import com.venomgrave.hexvg.api.player.HexPlayer;
-import com.venomgrave.hexvg.util.TimeUtil;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
@@ -21,13 +19,25 @@ import org.jetbrains.annotations.NotNull;
  *   %hexvg_is_muted%         — true/false
  *   %hexvg_warn_count%       — liczba aktywnych warnów
  *   %hexvg_rank_weight%      — waga rangi
+ *   %hexvg_playtime_rank%    — miejsce w rankingu czasu gry
+ *
+ * Ranking (działa też bez gracza, np. w hologramach):
+ *   %hexvg_top_<N>_name%     — nazwa gracza na miejscu N
+ *   %hexvg_top_<N>_playtime% — sformatowany czas gry miejsca N
+ *   %hexvg_top_<N>_seconds%  — czas gry miejsca N w sekundach
+ *
+ * Wartości serwowane z PlaceholderCache (TTL per placeholder,
+ * odświeżanie w tle) — żądanie nie dotyka bazy.
  */
 public class PapiHook extends PlaceholderExpansion {
 
-    private final HexVGCore core;
+    private final HexVGCore        core;
+    // Wartości z TTL — scoreboardy pytają kilka razy na sekundę
+    private final PlaceholderCache cache;
 
     public PapiHook(HexVGCore core) {
-        this.core = core;
+        this.core  = core;
+        this.cache = new PlaceholderCache(core);
     }
 
     @Override
@@ -47,49 +57,13 @@ public class PapiHook extends PlaceholderExpansion {
 
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String params) {
+        if (params.startsWith("top_")) return cache.resolveTop(params);
         if (player == null) return "";
+        return cache.resolve(player, params);
+    }
 
-        HexPlayer hp = core.getAPI().getPlayerManager().get(player);
-
-        return switch (params.toLowerCase()) {
-
-            case "playtime" ->
-                    TimeUtil.formatPl(hp.getPlaytimeSeconds(), 2);
-
-            case "playtime_seconds" ->
-                    String.valueOf(hp.getPlaytimeSeconds());
-
-            case "login_count" ->
-                    String.valueOf(hp.getLoginCount());
-
-            case "first_join" ->
-                    hp.getFirstJoin() != null
-                            ? TimeUtil.formatDate(hp.getFirstJoin())
-                            : "nigdy";
-
-            case "last_seen" ->
-                    hp.getLastSeen() != null
-                            ? TimeUtil.timeAgo(hp.getLastSeen())
-                            : "nigdy";
-
-            case "nick" ->
-                    hp.getNick() != null
-                            ? hp.getNick()
-                            : player.getName();
-
-            case "is_banned" ->
-                    String.valueOf(hp.isBanned());
-
-            case "is_muted" ->
-                    String.valueOf(hp.isMuted());
-
-            case "warn_count" ->
-                    String.valueOf(hp.getActiveWarnCount());
-
-            case "rank_weight" ->
-                    String.valueOf(hp.getRankWeight());
-
-            default -> null; // PAPI traktuje null jako nieznany placeholder
-        };
+    /** Cache wartości — listener rejestrowany przez HexVGCore. */
+    public PlaceholderCache getCache() {
+        return cache;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,288 @@
+package com.venomgrave.hexvg.impl.placeholder;
+
+import com.venomgrave.hexvg.HexVGCore;
+import com.venomgrave.hexvg.api.event.HexPlayerJoinEvent;
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardEntry;
+import com.venomgrave.hexvg.api.leaderboard.LeaderboardService;
+import com.venomgrave.hexvg.api.player.HexPlayer;
+import com.venomgrave.hexvg.util.TimeUtil;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Cache wartości placeholderów per gracz online.
+ *
+ * Każdy placeholder ma własny TTL. Trafienie to odczyt z tablicy —
+ * bez I/O i bez alokacji. Po wygaśnięciu zwracana jest dotychczasowa
+ * wartość, a odświeżenie idzie w tle na executorze DB.
+ *
+ * Playtime liczony lokalnie: suma z DB (odświeżana rzadko) + czas od
+ * jej pobrania; tekst formatowany najwyżej raz na sekundę.
+ *
+ * Ranking (playtime_rank, top_N_*) czytany wprost z LeaderboardService —
+ * indeks w pamięci, O(log n), bez cache.
+ *
+ * Wpisy tworzą tylko HexPlayerJoinEvent i konstruktor (gracze już online),
+ * oba na wątku serwera; usuwa je quit. resolve() z wątków PAPI tylko czyta —
+ * nie wskrzesi wpisu po quit i nie sięga po HexPlayer spoza cache.
+ */
+public class PlaceholderCache implements Listener {
+
+    // ── Placeholdery z TTL ────────────────────────────────────────────────
+
+    private record Spec(String name, long ttlMs, Function<HexPlayer, String> loader) {}
+
+    // Nie zmieniają się w trakcie sesji
+    private static final long SESSION = Long.MAX_VALUE;
+
+    private static final Spec[] SPECS = {
+            new Spec("login_count", SESSION, hp -> String.valueOf(hp.getLoginCount())),
+            new Spec("first_join",  SESSION, hp -> hp.getFirstJoin() != null
+                    ? TimeUtil.formatDate(hp.getFirstJoin())
+                    : "nigdy"),
+            new Spec("last_seen",   30_000L, hp -> hp.getLastSeen() != null
+                    ? TimeUtil.timeAgo(hp.getLastSeen())
+                    : "nigdy"),
+            new Spec("nick",        10_000L, hp -> hp.getNick() != null
+                    ? hp.getNick()
+                    : hp.getName()),
+            new Spec("is_banned",    5_000L, hp -> String.valueOf(hp.isBanned())),
+            new Spec("is_muted",     5_000L, hp -> String.valueOf(hp.isMuted())),
+            new Spec("warn_count",  30_000L, hp -> String.valueOf(hp.getActiveWarnCount())),
+            new Spec("rank_weight", 30_000L, hp -> String.valueOf(hp.getRankWeight())),
+    };
+
+    // Suma playtime z DB — odświeżana rzadko, resztę liczymy lokalnie
+    private static final long PLAYTIME_TTL_MS = 5 * 60_000L;
+
+    // Indeksy specjalne w tablicy dyspozycji
+    private static final int PLAYTIME         = -1;
+    private static final int PLAYTIME_SECONDS = -2;
+    private static final int PLAYTIME_RANK    = -3;
+
+    // Puste miejsce w rankingu
+    private static final String NO_RANK = "---";
+
+    // nazwa → indeks w SPECS (albo PLAYTIME*); budowana raz
+    private static final Map<String, Integer> DISPATCH = new HashMap<>();
+
+    static {
+        for (int i = 0; i < SPECS.length; i++) {
+            DISPATCH.put(SPECS[i].name(), i);
+        }
+        DISPATCH.put("playtime",         PLAYTIME);
+        DISPATCH.put("playtime_seconds", PLAYTIME_SECONDS);
+        DISPATCH.put("playtime_rank",    PLAYTIME_RANK);
+    }
+
+    private final HexVGCore        core;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public PlaceholderCache(HexVGCore core) {
+        this.core = core;
+
+        // Gracze online przed rejestracją hooka (reload PAPI / pluginu)
+        for (HexPlayer hp : core.getPlayerManager().getOnlinePlayers()) {
+            warm(hp);
+        }
+    }
+
+    // ── Odczyt ────────────────────────────────────────────────────────────
+
+    /**
+     * Wartość placeholdera lub null jeśli nieznany.
+     * Przed pierwszym załadowaniem i dla gracza bez wpisu (jeszcze przed
+     * HexPlayerJoinEvent albo już po quit) zwraca pusty string.
+     */
+    public String resolve(Player player, String params) {
+        Integer slot = DISPATCH.get(params);
+        if (slot == null) {
+            // Wielkie litery — rzadkie, tylko wtedy toLowerCase()
+            slot = DISPATCH.get(params.toLowerCase());
+            if (slot == null) return null;
+        }
+
+        if (slot == PLAYTIME_RANK) return rankText(player.getUniqueId());
+
+        Entry entry = entries.get(player.getUniqueId());
+        if (entry == null) return "";
+
+        long now = System.currentTimeMillis();
+        return switch (slot) {
+            case PLAYTIME         -> entry.playtimeText(now);
+            case PLAYTIME_SECONDS -> entry.playtimeSecondsText(now);
+            default               -> entry.get(slot, now);
+        };
+    }
+
+    /**
+     * %hexvg_top_N_name%, %hexvg_top_N_playtime%, %hexvg_top_N_seconds% —
+     * nie wymagają gracza (hologramy). Null jeśli format nieznany.
+     */
+    public String resolveTop(String params) {
+        int split = params.indexOf('_', 4);
+        if (!params.startsWith("top_") || split < 0) return null;
+
+        int rank;
+        try {
+            rank = Integer.parseInt(params, 4, split, 10);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        LeaderboardService lb    = core.getLeaderboardService();
+        LeaderboardEntry   entry = lb != null ? lb.at(rank) : null;
+
+        return switch (params.substring(split + 1).toLowerCase()) {
+            case "name"     -> entry == null ? NO_RANK
+                    : entry.name() != null ? entry.name() : entry.uuid().toString();
+            case "playtime" -> entry == null ? NO_RANK : TimeUtil.formatPl(entry.seconds(), 2);
+            case "seconds"  -> entry == null ? "0" : String.valueOf(entry.seconds());
+            default         -> null;
+        };
+    }
+
+    private String rankText(UUID uuid) {
+        LeaderboardService lb = core.getLeaderboardService();
+        int rank = lb != null ? lb.rankOf(uuid) : 0;
+        return rank > 0 ? String.valueOf(rank) : NO_RANK;
+    }
+
+    // ── Cykl życia ────────────────────────────────────────────────────────
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onHexJoin(HexPlayerJoinEvent event) {
+        warm(event.getHexPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        entries.remove(event.getPlayer().getUniqueId());
+    }
+
+    /** Tworzy wpis i ładuje wszystkie wartości w tle. Tylko wątek serwera. */
+    private void warm(HexPlayer hp) {
+        Entry entry = new Entry(hp);
+        if (entries.putIfAbsent(hp.getUuid(), entry) != null) return;
+
+        for (int i = 0; i < SPECS.length; i++) {
+            entry.refresh(i);
+        }
+        entry.refreshPlaytime();
+    }
+
+    // ── Wpis gracza ───────────────────────────────────────────────────────
+
+    private final class Entry {
+
+        private final HexPlayer hp;
+
+        private final AtomicReferenceArray<String> values  = new AtomicReferenceArray<>(SPECS.length);
+        private final AtomicLongArray              expires = new AtomicLongArray(SPECS.length);
+        // 1 = odświeżanie w toku
+        private final AtomicIntegerArray           loading = new AtomicIntegerArray(SPECS.length + 1);
+
+        private volatile long   playtimeBase = -1;
+        private volatile long   playtimeBaseAt;
+        private volatile long   playtimeExpires;
+
+        // Ostatnio sformatowana sekunda — tekst liczony raz na sekundę
+        private volatile long   textSecond = -1;
+        private volatile String text       = "";
+        private volatile long   rawSecond  = -1;
+        private volatile String raw        = "";
+
+        Entry(HexPlayer hp) {
+            this.hp = hp;
+        }
+
+        String get(int i, long now) {
+            if (now >= expires.get(i)) refresh(i);
+            String value = values.get(i);
+            return value != null ? value : "";
+        }
+
+        String playtimeText(long now) {
+            long seconds = playtimeSeconds(now);
+            if (seconds < 0) return "";
+            if (seconds != textSecond) {
+                text       = TimeUtil.formatPl(seconds, 2);
+                textSecond = seconds;
+            }
+            return text;
+        }
+
+        String playtimeSecondsText(long now) {
+            long seconds = playtimeSeconds(now);
+            if (seconds < 0) return "";
+            if (seconds != rawSecond) {
+                raw       = String.valueOf(seconds);
+                rawSecond = seconds;
+            }
+            return raw;
+        }
+
+        private long playtimeSeconds(long now) {
+            if (now >= playtimeExpires) refreshPlaytime();
+            long base = playtimeBase;
+            if (base < 0) return -1;
+            return base + (now - playtimeBaseAt) / 1000L;
+        }
+
+        void refresh(int i) {
+            if (!loading.compareAndSet(i, 0, 1)) return;
+
+            Spec spec = SPECS[i];
+            submit(i, () -> {
+                String value = spec.loader().apply(hp);
+                long   ttl   = spec.ttlMs();
+                values.set(i, value);
+                expires.set(i, ttl == SESSION ? SESSION : System.currentTimeMillis() + ttl);
+            });
+        }
+
+        void refreshPlaytime() {
+            if (!loading.compareAndSet(SPECS.length, 0, 1)) return;
+
+            submit(SPECS.length, () -> {
+                long total = hp.getPlaytimeSeconds();
+                long now   = System.currentTimeMillis();
+                // Kolejność: najpierw moment pobrania, potem baza
+                playtimeBaseAt  = now;
+                playtimeBase    = total;
+                playtimeExpires = now + PLAYTIME_TTL_MS;
+            });
+        }
+
+        private void submit(int flag, Runnable task) {
+            try {
+                core.getDatabaseService().getAsyncExecutor().execute(() -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        core.getLogger().warning("[PAPI] Błąd odświeżania placeholdera: "
+                                + e.getMessage());
+                    } finally {
+                        loading.set(flag, 0);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Kolejka pełna — spróbujemy przy następnym odczycie
+                loading.set(flag, 0);
+            }
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.venomgrave.hexvg.impl.player;
 
 import com.venomgrave.hexvg.api.data.PlayerDataService;
+import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.api.player.HexPlayer;
 import com.venomgrave.hexvg.api.player.HexPlayerManager;
+import com.venomgrave.hexvg.api.player.PlayerSnapshot;
 import com.venomgrave.hexvg.api.rank.RankHook;
 import com.venomgrave.hexvg.api.session.SessionService;
+import com.venomgrave.hexvg.config.CoreConfig;
+import com.venomgrave.hexvg.impl.session.SessionServiceImpl;
 import org.bukkit.entity.Player;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 public class HexPlayerManagerImpl implements HexPlayerManager {
@@ -25,14 +34,45 @@ public class HexPlayerManagerImpl implements HexPlayerManager {
     // UUID → HexPlayer (tylko online gracze)
     private final Map<UUID, HexPlayer> cache = new ConcurrentHashMap<>();
 
-    public HexPlayerManagerImpl(SessionService sessionService,
+    // Nazwy online graczy — findByName i tab-complete bez skanowania cache
+    private final NameIndex names = new NameIndex();
+
+    // Snapshoty graczy offline — LRU ograniczone do cache.snapshot-size.
+    // Zdejmowane po zapisach Core (nick, kary, flush sesji); generacja
+    // rośnie przy każdym zdjęciu — snapshot czytany w trakcie nie wraca.
+    private final DatabaseService                     db;
+    private final SnapshotLoader                      loader;
+    private final LinkedHashMap<UUID, PlayerSnapshot> snapshots;
+    private final Predicate<UUID>                     pendingWrites;
+    private long                                      snapshotGen;
+
+    public HexPlayerManagerImpl(DatabaseService db,
+                                SessionService sessionService,
                                 PlayerDataService dataService,
                                 RankHook rankHook,
-                                Logger logger) {
+                                Logger logger,
+                                CoreConfig config) {
+        this.db             = db;
         this.sessionService = sessionService;
         this.dataService    = dataService;
         this.rankHook       = rankHook;
         this.logger         = logger;
+        this.loader         = new SnapshotLoader(db, logger,
+                sessionService instanceof SessionServiceImpl impl
+                        ? impl::isSummaryReady
+                        : () -> false);
+        // Sesja gracza jeszcze w kolejce write-behind — baza bez ostatniego wyjścia
+        this.pendingWrites  = sessionService instanceof SessionServiceImpl impl
+                ? impl::hasPendingWrites
+                : uuid -> false;
+
+        int maxSnapshots = config.getSnapshotCacheSize();
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PlayerSnapshot> eldest) {
+                return size() > maxSnapshots;
+            }
+        };
     }
 
     // ── HexPlayerManager ──────────────────────────────────────────────────
@@ -55,15 +95,53 @@ public class HexPlayerManagerImpl implements HexPlayerManager {
 
     @Override
     public Optional<HexPlayer> findByName(String name) {
-        return cache.values().stream()
-                .filter(p -> p.getName().equalsIgnoreCase(name))
-                .findFirst();
+        UUID uuid = names.get(name);
+        return uuid != null ? Optional.ofNullable(cache.get(uuid)) : Optional.empty();
+    }
+
+    @Override
+    public List<String> completeNames(String prefix, int limit) {
+        return names.complete(prefix, limit);
     }
 
     @Override
     public HexPlayer getOffline(UUID uuid, String name) {
-        // Nie cachujemy offline graczy
-        return createPlayer(uuid, name);
+        // Obiekt tani — profil ładowany leniwie, jednym zapytaniem,
+        // przez cache snapshotów
+        return new HexPlayer(uuid, name, sessionService, dataService, rankHook,
+                () -> snapshot(uuid, name));
+    }
+
+    @Override
+    public PlayerSnapshot getSnapshot(UUID uuid) {
+        return snapshot(uuid, null);
+    }
+
+    @Override
+    public PlayerSnapshot refreshSnapshot(UUID uuid) {
+        invalidateSnapshot(uuid);
+        return snapshot(uuid, null);
+    }
+
+    @Override
+    public void invalidateSnapshot(UUID uuid) {
+        synchronized (snapshots) {
+            snapshots.remove(uuid);
+            snapshotGen++;
+        }
+    }
+
+    @Override
+    public CompletableFuture<PlayerSnapshot> getSnapshotAsync(UUID uuid) {
+        synchronized (snapshots) {
+            PlayerSnapshot cached = snapshots.get(uuid);
+            if (cached != null) return CompletableFuture.completedFuture(cached);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> getSnapshot(uuid), db.getAsyncExecutor());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     @Override
@@ -75,6 +153,8 @@ public class HexPlayerManagerImpl implements HexPlayerManager {
     public void load(UUID uuid, String name) {
         HexPlayer player = createPlayer(uuid, name);
         cache.put(uuid, player);
+        names.put(uuid, name);
+        invalidateSnapshot(uuid);
 
         if (logger != null) {
             logger.fine("[HexPlayerManager] Załadowano: " + name
@@ -82,9 +162,33 @@ public class HexPlayerManagerImpl implements HexPlayerManager {
         }
     }
 
+    @Override
+    public void load(UUID uuid, String name, Instant firstJoin, int loginCount) {
+        HexPlayer player = new HexPlayer(
+                uuid,
+                name,
+                sessionService,
+                dataService,
+                rankHook,
+                firstJoin,
+                loginCount
+        );
+        cache.put(uuid, player);
+        names.put(uuid, name);
+        invalidateSnapshot(uuid);
+
+        if (logger != null) {
+            logger.fine("[HexPlayerManager] Załadowano (prefetch): " + name
+                    + " (" + uuid + ")");
+        }
+    }
+
     @Override
     public void unload(UUID uuid) {
         HexPlayer removed = cache.remove(uuid);
+        names.remove(uuid);
+        // Sesja zmieniła playtime / last_seen — stary obraz nieaktualny
+        invalidateSnapshot(uuid);
         if (removed != null && logger != null) {
             logger.fine("[HexPlayerManager] Usunięto z cache: "
                     + removed.getName());
@@ -94,12 +198,37 @@ public class HexPlayerManagerImpl implements HexPlayerManager {
     // ── Pomocnicze ────────────────────────────────────────────────────────
 
     private HexPlayer createPlayer(UUID uuid, String name) {
+        // Gracz online — snapshot tylko dla tego obiektu, bez LRU
         return new HexPlayer(
                 uuid,
                 name,
                 sessionService,
                 dataService,
-                rankHook
+                rankHook,
+                () -> loader.load(uuid, name)
         );
     }
+
+    /**
+     * Snapshot z LRU albo świeżo załadowany. Nie cachujemy graczy online
+     * (dane zmieniają się w trakcie sesji), graczy z niezapisanymi
+     * operacjami write-behind ani odczytu, w trakcie którego snapshot
+     * został zdjęty.
+     */
+    private PlayerSnapshot snapshot(UUID uuid, String name) {
+        long gen;
+        synchronized (snapshots) {
+            PlayerSnapshot cached = snapshots.get(uuid);
+            if (cached != null) return cached;
+            gen = snapshotGen;
+        }
+
+        PlayerSnapshot loaded = loader.load(uuid, name);
+        if (loaded != null && !cache.containsKey(uuid) && !pendingWrites.test(uuid)) {
+            synchronized (snapshots) {
+                if (snapshotGen == gen) snapshots.put(uuid, loaded);
+            }
+        }
+        return loaded;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.venomgrave.hexvg.impl.player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indeks nazw bez rozróżniania wielkości liter: dokładne wyszukiwanie
+ * w O(1) i podpowiedzi po prefiksie przez zwarte drzewo trie.
+ *
+ * Odczyty bez blokad — trie jest niemutowalne, zapis kopiuje tylko
+ * ścieżkę od korzenia do zmienionego węzła (O(długość nazwy))
+ * i publikuje nowy korzeń przez volatile. Zapisy (join / quit /
+ * zmiana nicku) są rzadkie i serializowane.
+ */
+public final class NameIndex {
+
+    // Węzeł: posortowane znaki dzieci + dzieci, value = nazwa kończąca się tu
+    private static final class Node {
+        static final Node EMPTY = new Node(new char[0], new Node[0], null, 0);
+
+        final char[] keys;
+        final Node[] kids;
+        final String value;
+        final int    count;   // liczba nazw w poddrzewie
+
+        Node(char[] keys, Node[] kids, String value, int count) {
+            this.keys  = keys;
+            this.kids  = kids;
+            this.value = value;
+            this.count = count;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? kids[i] : null;
+        }
+
+        // Kopia z podmienionym dzieckiem (null = usuń)
+        Node withChild(char c, Node kid) {
+            int    i     = Arrays.binarySearch(keys, c);
+            int    delta = (kid != null ? kid.count : 0) - (i >= 0 ? kids[i].count : 0);
+            char[] k;
+            Node[] n;
+
+            if (i >= 0 && kid != null) {
+                k = keys;
+                n = kids.clone();
+                n[i] = kid;
+            } else if (i >= 0) {
+                k = new char[keys.length - 1];
+                n = new Node[kids.length - 1];
+                System.arraycopy(keys, 0, k, 0, i);
+                System.arraycopy(kids, 0, n, 0, i);
+                System.arraycopy(keys, i + 1, k, i, keys.length - i - 1);
+                System.arraycopy(kids, i + 1, n, i, kids.length - i - 1);
+            } else if (kid != null) {
+                int at = -i - 1;
+                k = new char[keys.length + 1];
+                n = new Node[kids.length + 1];
+                System.arraycopy(keys, 0, k, 0, at);
+                System.arraycopy(kids, 0, n, 0, at);
+                k[at] = c;
+                n[at] = kid;
+                System.arraycopy(keys, at, k, at + 1, keys.length - at);
+                System.arraycopy(kids, at, n, at + 1, kids.length - at);
+            } else {
+                return this;
+            }
+            return new Node(k, n, value, count + delta);
+        }
+
+        Node withValue(String v) {
+            int delta = (v != null ? 1 : 0) - (value != null ? 1 : 0);
+            return new Node(keys, kids, v, count + delta);
+        }
+    }
+
+    private volatile Node root = Node.EMPTY;
+
+    // małe litery → UUID oraz UUID → nazwa w oryginalnej pisowni
+    private final Map<String, UUID> byKey  = new ConcurrentHashMap<>();
+    private final Map<UUID, String> byUuid = new ConcurrentHashMap<>();
+
+    // ── Odczyt ────────────────────────────────────────────────────────────
+
+    /** UUID dla nazwy (bez rozróżniania wielkości liter) lub null. */
+    public UUID get(String name) {
+        return name == null ? null : byKey.get(key(name));
+    }
+
+    /** Nazwa przypisana do gracza lub null. */
+    public String nameOf(UUID uuid) {
+        return byUuid.get(uuid);
+    }
+
+    public int size() {
+        return byUuid.size();
+    }
+
+    /**
+     * Do limit nazw zaczynających się od prefix, alfabetycznie.
+     * Pusty prefiks — pierwsze limit nazw.
+     */
+    public List<String> complete(String prefix, int limit) {
+        Node node = root;
+        String p  = key(prefix == null ? "" : prefix);
+        for (int i = 0; i < p.length() && node != null; i++) {
+            node = node.child(p.charAt(i));
+        }
+        if (node == null || node.count == 0 || limit <= 0) return List.of();
+
+        List<String> out = new ArrayList<>(Math.min(limit, node.count));
+        collect(node, out, limit);
+        return out;
+    }
+
+    // ── Zapis ─────────────────────────────────────────────────────────────
+
+    /** Przypisuje nazwę graczowi (zastępuje poprzednią). */
+    public synchronized void put(UUID uuid, String name) {
+        if (name == null || name.isEmpty()) {
+            remove(uuid);
+            return;
+        }
+        String old = byUuid.put(uuid, name);
+        if (old != null && !key(old).equals(key(name))) unlink(uuid, old);
+
+        byKey.put(key(name), uuid);
+        root = set(root, key(name), 0, name);
+    }
+
+    public synchronized void remove(UUID uuid) {
+        String old = byUuid.remove(uuid);
+        if (old != null) unlink(uuid, old);
+    }
+
+    public synchronized void clear() {
+        byKey.clear();
+        byUuid.clear();
+        root = Node.EMPTY;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    // Usuwa klucz tylko jeśli wciąż wskazuje na tego gracza
+    private void unlink(UUID uuid, String name) {
+        String k = key(name);
+        if (byKey.remove(k, uuid)) {
+            root = set(root, k, 0, null);
+        }
+    }
+
+    // Kopia ścieżki do klucza z nową wartością; puste gałęzie są przycinane
+    private static Node set(Node node, String key, int depth, String value) {
+        if (node == null) {
+            if (value == null) return null;
+            node = Node.EMPTY;
+        }
+        if (depth == key.length()) {
+            Node updated = node.withValue(value);
+            return updated.count == 0 ? null : updated;
+        }
+
+        char c    = key.charAt(depth);
+        Node kid  = set(node.child(c), key, depth + 1, value);
+        Node next = node.withChild(c, kid);
+        // Korzeń zostaje nawet pusty
+        return next.count == 0 && depth > 0 ? null : next;
+    }
+
+    private static void collect(Node node, List<String> out, int limit) {
+        if (node.value != null) out.add(node.value);
+        for (int i = 0; i < node.kids.length && out.size() < limit; i++) {
+            collect(node.kids[i], out, limit);
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
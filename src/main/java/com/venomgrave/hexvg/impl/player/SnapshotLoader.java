@@ -0,0 +1,117 @@
+package com.venomgrave.hexvg.impl.player;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.player.PlayerSnapshot;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Ładuje PlayerSnapshot jednym zapytaniem.
+ *
+ * Jednowierszowa tabela z UUID złączona (LEFT JOIN) z profilem,
+ * playtime i podsumowaniem — gracz bez wpisów też daje wiersz.
+ * Kary i warny jako podzapytania skalarne.
+ */
+class SnapshotLoader {
+
+    private static final String SNAPSHOT_SQL = snapshotSql(
+            "",
+            "(SELECT MIN(login_at) FROM hexvg_sessions WHERE player_uuid = k.id)",
+            "(SELECT MAX(login_at) FROM hexvg_sessions WHERE player_uuid = k.id)",
+            "(SELECT COUNT(*) FROM hexvg_sessions WHERE player_uuid = k.id)");
+
+    // Po backfillu podsumowań — bez agregacji hexvg_sessions
+    private static final String SNAPSHOT_SUMMARY_SQL = snapshotSql(
+            "LEFT JOIN hexvg_player_summary s ON s.uuid = k.id",
+            "s.first_join",
+            "s.last_seen",
+            "s.login_count");
+
+    private static String snapshotSql(String summaryJoin,
+                                      String firstJoin,
+                                      String lastSeen,
+                                      String loginCount) {
+        return """
+            SELECT
+                p.name, p.nick, p.first_ip_hash,
+                t.total_seconds                                     AS playtime,
+                %s                                                  AS first_join,
+                %s                                                  AS last_seen,
+                %s                                                  AS login_count,
+                EXISTS (SELECT 1 FROM hexvg_punishments
+                  WHERE player_uuid = k.id AND type = 'BAN' AND active = 1
+                    AND (expires_at IS NULL
+                         OR expires_at > CURRENT_TIMESTAMP))        AS banned,
+                EXISTS (SELECT 1 FROM hexvg_punishments
+                  WHERE player_uuid = k.id AND type = 'MUTE' AND active = 1
+                    AND (expires_at IS NULL
+                         OR expires_at > CURRENT_TIMESTAMP))        AS muted,
+                (SELECT COUNT(*) FROM hexvg_warnings
+                  WHERE player_uuid = k.id AND active = 1
+                    AND (expires_at IS NULL
+                         OR expires_at > CURRENT_TIMESTAMP))        AS warn_count
+            FROM (SELECT ? AS id) k
+            LEFT JOIN hexvg_players  p ON p.uuid = k.id
+            LEFT JOIN hexvg_playtime t ON t.uuid = k.id
+            %s
+            """.formatted(firstJoin, lastSeen, loginCount, summaryJoin);
+    }
+
+    private final DatabaseService db;
+    private final Logger          logger;
+    private final BooleanSupplier summaryReady;
+
+    SnapshotLoader(DatabaseService db, Logger logger, BooleanSupplier summaryReady) {
+        this.db           = db;
+        this.logger       = logger;
+        this.summaryReady = summaryReady;
+    }
+
+    /**
+     * Zwraca snapshot lub null jeśli zapytanie się nie powiodło —
+     * wtedy HexPlayer wraca do odczytów z serwisów.
+     */
+    PlayerSnapshot load(UUID uuid, String fallbackName) {
+        String sql = summaryReady.getAsBoolean() ? SNAPSHOT_SUMMARY_SQL : SNAPSHOT_SQL;
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            SqlUtil.setUuid(ps, 1, uuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    String name = rs.getString("name");
+                    return new PlayerSnapshot(
+                            uuid,
+                            name != null ? name : fallbackName,
+                            rs.getString("nick"),
+                            rs.getString("first_ip_hash"),
+                            instant(rs.getTimestamp("first_join")),
+                            instant(rs.getTimestamp("last_seen")),
+                            rs.getInt("login_count"),
+                            rs.getLong("playtime"),
+                            rs.getBoolean("banned"),
+                            rs.getBoolean("muted"),
+                            rs.getInt("warn_count"),
+                            Instant.now()
+                    );
+                }
+            }
+        } catch (SQLException e) {
+            logger.warning("[HexPlayerManager] snapshot error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static Instant instant(Timestamp ts) {
+        return ts != null ? ts.toInstant() : null;
+    }
+}
@@ -3,19 +3,53 @@ package com.venomgrave.hexvg.impl.rank;
 import com.venomgrave.hexvg.api.rank.RankHook;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.cacheddata.CachedPermissionData;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.node.types.MetaNode;
+import net.luckperms.api.util.Tristate;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
-public class LuckPermsRankHook implements RankHook {
+public class LuckPermsRankHook implements RankHook, Listener {
 
+    // Operacje bypass z cache — 2 bity na operację, stan z LuckPerms
+    private static final List<String> BYPASS_OPS = List.of(
+            "ban", "mute", "kick", "freeze", "tempban", "warn", "jail", "spy");
+
+    private static final int UNKNOWN   = 0;
+    private static final int DENIED    = 1;
+    private static final int UNDEFINED = 2;
+    private static final int GRANTED   = 3;
+
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private final Plugin    plugin;
     private final LuckPerms lp;
     private final Logger    logger;
 
-    public LuckPermsRankHook(Logger logger) {
+    // UUID → weight / maska bypass; czyszczone przez zdarzenia LuckPerms.
+    // Wynik policzony przed invalidacją nie trafi do cache (generacja mapy).
+    private final UuidIntMap weights = new UuidIntMap();
+    private final UuidIntMap bypass  = new UuidIntMap();
+
+    private final LongAdder hits   = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LuckPermsRankHook(Plugin plugin, Logger logger) {
+        this.plugin = plugin;
         this.logger = logger;
         LuckPerms api = null;
         try {
@@ -26,12 +60,29 @@ public class LuckPermsRankHook implements RankHook {
                     + e.getMessage());
         }
         this.lp = api;
+
+        subscribeRecalculate(this::invalidate, this::invalidateAll);
     }
 
     @Override
     public int getWeight(Player player) {
         if (lp == null) return 0;
 
+        UUID uuid   = player.getUniqueId();
+        int  cached = weights.get(uuid, MISSING);
+        if (cached != MISSING) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long gen    = weights.generation();
+        int  weight = computeWeight(player);
+        weights.putIf(uuid, weight, gen);
+        return weight;
+    }
+
+    private int computeWeight(Player player) {
         try {
             User user = lp.getUserManager().getUser(player.getUniqueId());
             if (user == null) return 0;
@@ -57,13 +108,125 @@ public class LuckPermsRankHook implements RankHook {
         }
     }
 
+    /**
+     * Cache trzyma tylko to, co wynika z danych LuckPerms (TRUE / FALSE /
+     * brak wpisu) — te zmiany przychodzą jako UserDataRecalculateEvent,
+     * także attachmenty innych pluginów (LuckPerms trzyma je w danych
+     * tymczasowych gracza). Brak wpisu rozstrzyga przy każdym wywołaniu
+     * player.isOp() — domyślna wartość Bukkita dla niezarejestrowanych
+     * uprawnień — więc op/deop działa od razu.
+     */
     @Override
     public boolean hasBypass(Player player, String operation) {
         if (lp == null) return player.isOp();
+
+        int op = BYPASS_OPS.indexOf(operation);
+        if (op < 0) {
+            // Operacja spoza listy — bez cache
+            return checkBypass(player, operation);
+        }
+
+        UUID uuid  = player.getUniqueId();
+        int  shift = op * 2;
+
+        int state = (bypass.get(uuid, 0) >>> shift) & 3;
+        if (state != UNKNOWN) {
+            hits.increment();
+            return resolve(player, state);
+        }
+        misses.increment();
+
+        long gen = bypass.generation();
+        state = lookupBypass(uuid, operation);
+        if (state == UNKNOWN) {
+            // Gracz jeszcze niezaładowany w LuckPerms — bez cache
+            return checkBypass(player, operation);
+        }
+        bypass.orIf(uuid, state << shift, gen);
+        return resolve(player, state);
+    }
+
+    private static boolean resolve(Player player, int state) {
+        return state == GRANTED || (state == UNDEFINED && player.isOp());
+    }
+
+    /**
+     * Stan bypass z danych LuckPerms — jak checkBypass, bez op:
+     * GRANTED gdy któreś uprawnienie jest TRUE, DENIED gdy oba FALSE.
+     */
+    private int lookupBypass(UUID uuid, String operation) {
+        try {
+            User user = lp.getUserManager().getUser(uuid);
+            if (user == null) return UNKNOWN;
+
+            CachedPermissionData data = user.getCachedData().getPermissionData();
+            Tristate exact    = data.checkPermission("hexvg.bypass." + operation);
+            Tristate wildcard = data.checkPermission("hexvg.bypass.*");
+
+            if (exact == Tristate.TRUE || wildcard == Tristate.TRUE) return GRANTED;
+            if (exact == Tristate.FALSE && wildcard == Tristate.FALSE) return DENIED;
+            return UNDEFINED;
+
+        } catch (Exception e) {
+            logger.warning("[RankHook] hasBypass error dla " + uuid + ": " + e.getMessage());
+            return UNKNOWN;
+        }
+    }
+
+    private boolean checkBypass(Player player, String operation) {
         return player.hasPermission("hexvg.bypass." + operation)
                 || player.hasPermission("hexvg.bypass.*");
     }
 
+    // ── Cache ─────────────────────────────────────────────────────────────
+
+    /** Przeliczono uprawnienia / meta gracza. */
+    public void invalidate(UUID uuid) {
+        weights.remove(uuid);
+        bypass.remove(uuid);
+    }
+
+    /** Zmiana grupy — może dotyczyć każdego gracza. */
+    public void invalidateAll() {
+        weights.clear();
+        bypass.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /** Trafienia / chybienia cache weight + bypass. */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), weights.size());
+    }
+
+    /**
+     * @param hits    odczyty z cache
+     * @param misses  odczyty liczone w LuckPerms
+     * @param players gracze z zapamiętaną wagą
+     */
+    public record CacheStats(long hits, long misses, int players) {}
+
+    /**
+     * Subskrybuje przeliczenia uprawnień w LuckPerms.
+     * Callbacki wołane z wątku LuckPerms — odbiorca sam wraca na main thread.
+     *
+     * @param onUser  przeliczono dane jednego gracza
+     * @param onGroup przeliczono dane grupy (dotyczy wielu graczy)
+     * @return false gdy LuckPerms niedostępne — zdarzeń nie będzie
+     */
+    public boolean subscribeRecalculate(Consumer<UUID> onUser, Runnable onGroup) {
+        if (lp == null) return false;
+
+        lp.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                e -> onUser.accept(e.getUser().getUniqueId()));
+        lp.getEventBus().subscribe(plugin, GroupDataRecalculateEvent.class,
+                e -> onGroup.run());
+        return true;
+    }
+
     // ── Pomocnicze ────────────────────────────────────────────────────────
 
     private int getGroupWeight(String groupName) {
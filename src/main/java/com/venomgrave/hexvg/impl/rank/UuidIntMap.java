@@ -0,0 +1,158 @@
+package com.venomgrave.hexvg.impl.rank;
+
+import java.util.UUID;
+
+/**
+ * Mapa UUID → int na tablicach prymitywów (adresowanie otwarte,
+ * linear probing) — bez boxingu Integer i bez obiektów wpisów.
+ *
+ * Synchronizowana — odczyty z main thread i wątków PAPI, zapisy
+ * (invalidacja) z wątków LuckPerms. Sekcje krytyczne to kilka porównań.
+ *
+ * Generacja rośnie przy każdym remove/clear. Wynik policzony poza lockiem
+ * zapisuje się przez putIf/orIf z generacją odczytaną przed liczeniem —
+ * porównanie i zapis pod jednym lockiem, więc invalidacja w międzyczasie
+ * zawsze wygrywa.
+ */
+final class UuidIntMap {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private long[]    keyMsb;
+    private long[]    keyLsb;
+    private int[]     values;
+    private boolean[] used;
+    private int       size;
+    private long      generation;
+
+    UuidIntMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /** Wartość lub missing jeśli brak klucza. */
+    synchronized int get(UUID uuid, int missing) {
+        int i = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        return i < 0 ? missing : values[i];
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /** put, o ile od odczytu {@code gen} nie było invalidacji. */
+    synchronized boolean putIf(UUID uuid, int value, long gen) {
+        if (generation != gen) return false;
+        put(uuid, value);
+        return true;
+    }
+
+    /** Dopisuje bity do wartości (brak klucza = 0), o ile generacja się nie zmieniła. */
+    synchronized boolean orIf(UUID uuid, int bits, long gen) {
+        if (generation != gen) return false;
+        put(uuid, get(uuid, 0) | bits);
+        return true;
+    }
+
+    synchronized void put(UUID uuid, int value) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+
+        int i = find(msb, lsb);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+
+        if ((size + 1) * 2 > used.length) resize(used.length * 2);
+
+        int m = used.length - 1;
+        i = slot(msb, lsb, m);
+        while (used[i]) i = (i + 1) & m;
+        keyMsb[i] = msb;
+        keyLsb[i] = lsb;
+        values[i] = value;
+        used[i]   = true;
+        size++;
+    }
+
+    // Usuwanie z przesunięciem wstecz — bez "nagrobków"
+    synchronized void remove(UUID uuid) {
+        generation++;
+        int i = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (i < 0) return;
+
+        int m = used.length - 1;
+        used[i] = false;
+        size--;
+
+        int j = (i + 1) & m;
+        while (used[j]) {
+            int home = slot(keyMsb[j], keyLsb[j], m);
+            if (((j - home) & m) >= ((j - i) & m)) {
+                keyMsb[i] = keyMsb[j];
+                keyLsb[i] = keyLsb[j];
+                values[i] = values[j];
+                used[i]   = true;
+                used[j]   = false;
+                i = j;
+            }
+            j = (j + 1) & m;
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // ── Pomocnicze ────────────────────────────────────────────────────────
+
+    private int find(long msb, long lsb) {
+        int m = used.length - 1;
+        int i = slot(msb, lsb, m);
+        while (used[i]) {
+            if (keyMsb[i] == msb && keyLsb[i] == lsb) return i;
+            i = (i + 1) & m;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[]    oM = keyMsb, oL = keyLsb;
+        int[]     oV = values;
+        boolean[] oU = used;
+
+        allocate(capacity);
+        int m = capacity - 1;
+        for (int k = 0; k < oU.length; k++) {
+            if (!oU[k]) continue;
+            int i = slot(oM[k], oL[k], m);
+            while (used[i]) i = (i + 1) & m;
+            keyMsb[i] = oM[k];
+            keyLsb[i] = oL[k];
+            values[i] = oV[k];
+            used[i]   = true;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keyMsb = new long[capacity];
+        keyLsb = new long[capacity];
+        values = new int[capacity];
+        used   = new boolean[capacity];
+    }
+
+    // UUID v4 jest losowy — wystarczy wymieszać obie połowy
+    private static int slot(long msb, long lsb, int mask) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
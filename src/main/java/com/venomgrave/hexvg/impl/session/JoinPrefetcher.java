@@ -0,0 +1,102 @@
+package com.venomgrave.hexvg.impl.session;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.impl.data.PlayerDataServiceImpl;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Pobiera wszystko czego potrzebuje PlayerJoinEvent jednym zapytaniem.
+ * Wywoływane z AsyncPlayerPreLoginEvent — poza głównym wątkiem.
+ */
+class JoinPrefetcher {
+
+    // Podzapytania skalarne — jeden round-trip zamiast pięciu.
+    // SELECT bez FROM działa zarówno w MySQL jak i SQLite.
+    private static final String PREFETCH_SQL = prefetchSql(
+            "SELECT MIN(login_at) FROM hexvg_sessions WHERE player_uuid = ?",
+            "SELECT COUNT(*) FROM hexvg_sessions WHERE player_uuid = ?");
+
+    // Po backfillu — odczyt po kluczu głównym zamiast agregacji sesji
+    private static final String PREFETCH_SUMMARY_SQL = prefetchSql(
+            "SELECT first_join FROM hexvg_player_summary WHERE uuid = ?",
+            "SELECT login_count FROM hexvg_player_summary WHERE uuid = ?");
+
+    private static String prefetchSql(String firstJoin, String loginCount) {
+        return """
+            SELECT
+                (SELECT nick FROM hexvg_players
+                  WHERE uuid = ?)                                   AS nick,
+                (%s)                                                AS first_join,
+                (%s)                                                AS login_count,
+                (SELECT total_seconds FROM hexvg_playtime
+                  WHERE uuid = ?)                                   AS playtime,
+                EXISTS (SELECT 1 FROM hexvg_punishments
+                  WHERE player_uuid = ? AND type = 'BAN' AND active = 1
+                    AND expires_at IS NULL)                         AS ban_permanent,
+                (SELECT MAX(expires_at) FROM hexvg_punishments
+                  WHERE player_uuid = ? AND type = 'BAN' AND active = 1
+                    AND expires_at > CURRENT_TIMESTAMP)             AS ban_until,
+                EXISTS (SELECT 1 FROM hexvg_punishments
+                  WHERE player_uuid = ? AND type = 'MUTE' AND active = 1
+                    AND expires_at IS NULL)                         AS mute_permanent,
+                (SELECT MAX(expires_at) FROM hexvg_punishments
+                  WHERE player_uuid = ? AND type = 'MUTE' AND active = 1
+                    AND expires_at > CURRENT_TIMESTAMP)             AS mute_until
+            """.formatted(firstJoin, loginCount);
+    }
+
+    private final DatabaseService db;
+    private final Logger          logger;
+    private final BooleanSupplier summaryReady;
+
+    JoinPrefetcher(DatabaseService db, Logger logger, BooleanSupplier summaryReady) {
+        this.db           = db;
+        this.logger       = logger;
+        this.summaryReady = summaryReady;
+    }
+
+    /**
+     * Zwraca dane gracza lub null jeśli zapytanie się nie powiodło —
+     * wtedy SessionListener wraca do ścieżki synchronicznej.
+     */
+    PreLoginData fetch(UUID uuid, String ipHash) {
+        // Główna baza — przy szybkim rejoinie odczyt idzie zaraz po zapisie
+        // sesji z wyjścia, replika mogłaby zwrócić stare liczniki
+        try (Connection conn = db.getPrimaryReadConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     summaryReady.getAsBoolean() ? PREFETCH_SUMMARY_SQL : PREFETCH_SQL)) {
+            for (int i = 1; i <= 8; i++) {
+                SqlUtil.setUuid(ps, i, uuid);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+
+                Timestamp firstJoin = rs.getTimestamp("first_join");
+                return new PreLoginData(
+                        ipHash,
+                        rs.getString("nick"),
+                        PlayerDataServiceImpl.toExpiry(
+                                rs.getBoolean("ban_permanent"), rs.getTimestamp("ban_until")),
+                        PlayerDataServiceImpl.toExpiry(
+                                rs.getBoolean("mute_permanent"), rs.getTimestamp("mute_until")),
+                        firstJoin != null ? firstJoin.toInstant() : null,
+                        rs.getInt("login_count"),
+                        rs.getLong("playtime"),
+                        System.currentTimeMillis()
+                );
+            }
+        } catch (SQLException e) {
+            logger.warning("[Session] prefetch error: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.venomgrave.hexvg.impl.session;
+
+import java.time.Instant;
+
+/**
+ * Dane gracza pobrane w AsyncPlayerPreLoginEvent.
+ * Czekają w mapie stagingowej do PlayerJoinEvent — tam są
+ * konsumowane bez żadnego zapytania do DB.
+ *
+ * loginCount / firstJoin — stan PRZED bieżącym logowaniem.
+ * banUntil / muteUntil   — PlayerDataServiceImpl.toExpiry(...).
+ */
+record PreLoginData(
+        String  ipHash,
+        String  nick,
+        long    banUntil,
+        long    muteUntil,
+        Instant firstJoin,
+        int     loginCount,
+        long    playtimeSeconds,
+        long    fetchedAt
+) {}
@@ -2,14 +2,17 @@ package com.venomgrave.hexvg.impl.session;
 
 import com.venomgrave.hexvg.HexVGCore;
 import com.venomgrave.hexvg.api.data.PlayerDataService;
+import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.api.event.HexPlayerJoinEvent;
 import com.venomgrave.hexvg.api.event.HexPlayerQuitEvent;
 import com.venomgrave.hexvg.api.player.HexPlayer;
 import com.venomgrave.hexvg.api.player.HexPlayerManager;
 import com.venomgrave.hexvg.api.session.SessionService;
+import com.venomgrave.hexvg.impl.data.PlayerDataServiceImpl;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
@@ -17,6 +20,10 @@ import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 public class SessionListener implements Listener {
@@ -26,8 +33,17 @@ public class SessionListener implements Listener {
     private final PlayerDataService dataService;
     private final HexPlayerManager  playerManager;
     private final Logger            logger;
+    private final JoinPrefetcher    prefetcher;
+
+    // Po ilu ms porzucamy dane z pre-login, do których nie doszedł join
+    // (np. logowanie odrzucone później przez serwer)
+    private static final long STAGING_TTL_MS = 60_000L;
+
+    // UUID → dane pobrane w AsyncPlayerPreLoginEvent, czekające na join
+    private final Map<UUID, PreLoginData> staging = new ConcurrentHashMap<>();
 
     public SessionListener(HexVGCore core,
+                           DatabaseService db,
                            SessionService sessionService,
                            PlayerDataService dataService,
                            HexPlayerManager playerManager,
@@ -37,32 +53,52 @@ public class SessionListener implements Listener {
         this.dataService    = dataService;
         this.playerManager  = playerManager;
         this.logger         = logger;
+        this.prefetcher     = new JoinPrefetcher(db, logger,
+                sessionService instanceof SessionServiceImpl impl
+                        ? impl::isSummaryReady
+                        : () -> false);
     }
 
+    /**
+     * Wątek asynchroniczny — tu robimy całe I/O potrzebne przy dołączeniu.
+     * MONITOR: inne pluginy już zdecydowały, czy gracz może wejść.
+     */
     @EventHandler(priority = EventPriority.MONITOR)
-    public void onJoin(PlayerJoinEvent event) {
-        var player = event.getPlayer();
-        var uuid   = player.getUniqueId();
-        var name   = player.getName();
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
 
-        InetSocketAddress address = player.getAddress();
-        String ipHash = hashIp(address != null
-                ? address.getAddress().getHostAddress()
+        purgeStaleStaging();
+
+        String ipHash = hashIp(event.getAddress() != null
+                ? event.getAddress().getHostAddress()
                 : "unknown");
 
-        // 1. Upsert profilu gracza
-        dataService.upsertProfile(uuid, name, ipHash);
+        // Zapisy z niedawnego wyjścia muszą być w bazie przed odczytem;
+        // jeśli się nie udało — join pójdzie ścieżką synchroniczną
+        if (sessionService instanceof SessionServiceImpl impl
+                && !impl.flushPending(event.getUniqueId())) {
+            return;
+        }
 
-        // 2. Rejestruj sesję
-        sessionService.handleJoin(uuid, name, ipHash);
+        PreLoginData data = prefetcher.fetch(event.getUniqueId(), ipHash);
+        if (data != null) {
+            staging.put(event.getUniqueId(), data);
+        }
+    }
 
-        // 3. Załaduj HexPlayer do cache
-        playerManager.load(uuid, name);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        var player = event.getPlayer();
+        var uuid   = player.getUniqueId();
+        var name   = player.getName();
+
+        PreLoginData pre = staging.remove(uuid);
 
-        // 4. Sprawdź czy pierwszy join
-        boolean firstJoin = sessionService.getLoginCount(uuid) == 1;
+        boolean firstJoin = pre != null
+                ? joinPrefetched(uuid, name, pre)
+                : joinSync(uuid, name, player.getAddress());
 
-        // 5. Wywołaj HexPlayerJoinEvent
+        // Wywołaj HexPlayerJoinEvent
         HexPlayer hexPlayer = playerManager.get(uuid);
         core.getServer().getPluginManager()
                 .callEvent(new HexPlayerJoinEvent(hexPlayer, firstJoin));
@@ -82,11 +118,73 @@ public class SessionListener implements Listener {
 
         // 2. Usuń z cache
         playerManager.unload(uuid);
+        staging.remove(uuid);
+        if (dataService instanceof PlayerDataServiceImpl impl) {
+            impl.forget(uuid);
+        }
 
         // 3. Zamknij sesję
         sessionService.handleQuit(uuid);
     }
 
+    // ── Join ──────────────────────────────────────────────────────────────
+
+    /**
+     * Ścieżka bez I/O — wszystko pobrane w pre-login, zapisy idą w tle.
+     * Zwraca true jeśli to pierwsze dołączenie gracza.
+     */
+    private boolean joinPrefetched(UUID uuid, String name, PreLoginData pre) {
+        // 1. Upsert profilu gracza — w tle
+        dataService.upsertProfileAsync(uuid, name, pre.ipHash());
+
+        // 2. Wypełnij cache serwisów
+        if (dataService instanceof PlayerDataServiceImpl impl) {
+            impl.prime(uuid, pre.nick(), pre.banUntil(), pre.muteUntil());
+        }
+        if (sessionService instanceof SessionServiceImpl impl) {
+            impl.primePlaytime(uuid, pre.playtimeSeconds());
+        }
+
+        // 3. Rejestruj sesję (INSERT w tle)
+        sessionService.handleJoin(uuid, name, pre.ipHash());
+
+        // 4. Załaduj HexPlayer — bieżące logowanie już wliczone
+        int     loginCount = pre.loginCount() + 1;
+        Instant firstJoin  = pre.firstJoin() != null ? pre.firstJoin() : Instant.now();
+        playerManager.load(uuid, name, firstJoin, loginCount);
+
+        return loginCount == 1;
+    }
+
+    /**
+     * Fallback gdy pre-login nie dostarczył danych (błąd DB, reload pluginu).
+     * Zapytania na głównym wątku — jak dawniej.
+     */
+    private boolean joinSync(UUID uuid, String name, InetSocketAddress address) {
+        String ipHash = hashIp(address != null
+                ? address.getAddress().getHostAddress()
+                : "unknown");
+
+        // Stan sprzed bieżącego logowania — INSERT sesji idzie w tle,
+        // więc liczymy zanim go zlecimy
+        int     previous  = sessionService.getLoginCount(uuid);
+        Instant firstJoin = sessionService.getFirstJoin(uuid);
+
+        dataService.upsertProfile(uuid, name, ipHash);
+        sessionService.handleJoin(uuid, name, ipHash);
+
+        playerManager.load(uuid, name,
+                firstJoin != null ? firstJoin : Instant.now(),
+                previous + 1);
+
+        return previous == 0;
+    }
+
+    private void purgeStaleStaging() {
+        long cutoff = System.currentTimeMillis() - STAGING_TTL_MS;
+        staging.values().removeIf(d -> d.fetchedAt() < cutoff);
+    }
+
     // ── Pomocnicze ────────────────────────────────────────────────────────
 
     private String hashIp(String ip) {
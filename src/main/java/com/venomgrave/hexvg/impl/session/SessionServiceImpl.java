@@ -4,16 +4,76 @@ import com.venomgrave.hexvg.api.database.DatabaseService;
 import com.venomgrave.hexvg.api.database.DatabaseType;
 import com.venomgrave.hexvg.api.session.SessionService;
 import com.venomgrave.hexvg.config.CoreConfig;
+import com.venomgrave.hexvg.impl.database.BackfillRunner;
+import com.venomgrave.hexvg.impl.database.QueryPlanCheck;
+import com.venomgrave.hexvg.impl.leaderboard.LeaderboardServiceImpl;
+import com.venomgrave.hexvg.util.SqlUtil;
 
 import java.sql.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public class SessionServiceImpl implements SessionService {
 
+    // Odczyty z historii sesji — do czasu backfillu hexvg_player_summary
+    private static final String LAST_SEEN_SQL = """
+            SELECT login_at FROM hexvg_sessions
+            WHERE player_uuid = ?
+            ORDER BY login_at DESC
+            LIMIT 1
+            """;
+
+    private static final String FIRST_JOIN_SQL = """
+            SELECT MIN(login_at) AS first_join
+            FROM hexvg_sessions
+            WHERE player_uuid = ?
+            """;
+
+    private static final String LOGIN_COUNT_SQL =
+            "SELECT COUNT(*) FROM hexvg_sessions WHERE player_uuid = ?";
+
+    // Odczyty zbiorcze — %s to lista '?' (SqlUtil.queryIn). *_HISTORY_*
+    // liczą z hexvg_sessions do czasu zakończenia backfillu podsumowań
+    private static final String PLAYTIME_IN_SQL =
+            "SELECT uuid, total_seconds FROM hexvg_playtime WHERE uuid IN (%s)";
+
+    private static final String LAST_SEEN_IN_SQL =
+            "SELECT uuid, last_seen FROM hexvg_player_summary WHERE uuid IN (%s)";
+
+    private static final String LAST_SEEN_HISTORY_IN_SQL = """
+            SELECT player_uuid, MAX(login_at) FROM hexvg_sessions
+            WHERE player_uuid IN (%s)
+            GROUP BY player_uuid
+            """;
+
+    private static final String LOGIN_COUNT_IN_SQL =
+            "SELECT uuid, login_count FROM hexvg_player_summary WHERE uuid IN (%s)";
+
+    private static final String LOGIN_COUNT_HISTORY_IN_SQL = """
+            SELECT player_uuid, COUNT(*) FROM hexvg_sessions
+            WHERE player_uuid IN (%s)
+            GROUP BY player_uuid
+            """;
+
+    private static final String FIRST_JOIN_IN_SQL =
+            "SELECT uuid, first_join FROM hexvg_player_summary WHERE uuid IN (%s)";
+
+    private static final String FIRST_JOIN_HISTORY_IN_SQL = """
+            SELECT player_uuid, MIN(login_at) FROM hexvg_sessions
+            WHERE player_uuid IN (%s)
+            GROUP BY player_uuid
+            """;
+
     private final DatabaseService db;
     private final Logger          logger;
     private final CoreConfig      config;
@@ -21,20 +81,48 @@ public class SessionServiceImpl implements SessionService {
     // UUID → czas dołączenia (epoch millis) dla aktywnych sesji
     private final Map<UUID, Long> activeSessions = new ConcurrentHashMap<>();
 
+    // UUID → łączny playtime z DB w chwili dołączenia (tylko online gracze).
+    // Pozwala liczyć playtime online gracza bez zapytania: baza + bieżąca sesja.
+    private final Map<UUID, Long> storedPlaytime = new ConcurrentHashMap<>();
+
+    // Zapisy join/quit — kolejka flushowana paczkami (JDBC batch)
+    private final SessionWriteBehind writeBehind;
+
+    // Ranking czasu gry — aktualizowany przy join / quit
+    private final LeaderboardServiceImpl leaderboard;
+
+    // true gdy hexvg_player_summary jest wypełniona historią — do tego
+    // czasu odczyty liczą z hexvg_sessions
+    private volatile boolean summaryReady;
+
+    // Zapisy sesji gracza zatwierdzone — HexPlayerManager zdejmuje snapshot
+    private volatile Consumer<UUID> flushListener = uuid -> {};
+
     public SessionServiceImpl(DatabaseService db,
                               Logger logger,
-                              CoreConfig config) {
+                              CoreConfig config,
+                              BackfillRunner backfills) {
         this.db     = db;
         this.logger = logger;
         this.config = config;
+        this.writeBehind = new SessionWriteBehind(db, logger,
+                config.getWriteBehindFlushMs(), config.getWriteBehindBatchSize(),
+                config.getWriteBehindMaxPending(),
+                uuid -> flushListener.accept(uuid));
+
+        this.leaderboard = new LeaderboardServiceImpl(db, logger);
+
+        backfills.submit(new SummaryBackfill(db.getType(), () -> summaryReady = true));
     }
 
     // ── SessionService ────────────────────────────────────────────────────
 
     @Override
     public void handleJoin(UUID uuid, String playerName, String ipHash) {
-        activeSessions.put(uuid, System.currentTimeMillis());
-        insertSession(uuid, playerName, ipHash);
+        long now = System.currentTimeMillis();
+        activeSessions.put(uuid, now);
+        writeBehind.open(uuid, playerName, ipHash, now);
+        leaderboard.join(uuid, playerName, now);
 
         if (config.isDebug()) {
             logger.info("[Session] Join: " + playerName + " (" + uuid + ")");
@@ -44,11 +132,13 @@ public class SessionServiceImpl implements SessionService {
     @Override
     public void handleQuit(UUID uuid) {
         Long joinTime = activeSessions.remove(uuid);
+        storedPlaytime.remove(uuid);
         if (joinTime == null) return;
 
-        long seconds = (System.currentTimeMillis() - joinTime) / 1000L;
-        addPlaytime(uuid, seconds);
-        closeSession(uuid);
+        long now     = System.currentTimeMillis();
+        long seconds = (now - joinTime) / 1000L;
+        writeBehind.close(uuid, seconds, now);
+        leaderboard.quit(uuid, seconds);
 
         if (config.isDebug()) {
             logger.info("[Session] Quit: " + uuid
@@ -60,17 +150,11 @@ public class SessionServiceImpl implements SessionService {
     public Instant getLastSeen(UUID uuid) {
         // Jeśli gracz jest online — teraz
         if (activeSessions.containsKey(uuid)) return Instant.now();
+        if (summaryReady) return summaryInstant(uuid, "last_seen");
 
-        String sql = """
-                SELECT login_at FROM hexvg_sessions
-                WHERE player_uuid = ?
-                ORDER BY login_at DESC
-                LIMIT 1
-                """;
-
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(LAST_SEEN_SQL)) {
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     Timestamp ts = rs.getTimestamp("login_at");
@@ -90,13 +174,17 @@ public class SessionServiceImpl implements SessionService {
         Long joinTime = activeSessions.get(uuid);
         if (joinTime != null) {
             extra = (System.currentTimeMillis() - joinTime) / 1000L;
+
+            // Gracz online z playtime pobranym przy logowaniu — bez DB
+            Long stored = storedPlaytime.get(uuid);
+            if (stored != null) return stored + extra;
         }
 
         String sql = "SELECT total_seconds FROM hexvg_playtime WHERE uuid = ?";
 
-        try (Connection conn = db.getConnection();
+        try (Connection conn = db.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getLong("total_seconds") + extra;
             }
@@ -108,11 +196,13 @@ public class SessionServiceImpl implements SessionService {
 
     @Override
     public int getLoginCount(UUID uuid) {
-        String sql = "SELECT COUNT(*) FROM hexvg_sessions WHERE player_uuid = ?";
+        String sql = summaryReady
+                ? "SELECT login_count FROM hexvg_player_summary WHERE uuid = ?"
+                : LOGIN_COUNT_SQL;
 
-        try (Connection conn = db.getConnection();
+        try (Connection conn = db.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getInt(1);
             }
@@ -124,15 +214,11 @@ public class SessionServiceImpl implements SessionService {
 
     @Override
     public Instant getFirstJoin(UUID uuid) {
-        String sql = """
-                SELECT MIN(login_at) AS first_join
-                FROM hexvg_sessions
-                WHERE player_uuid = ?
-                """;
+        if (summaryReady) return summaryInstant(uuid, "first_join");
 
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIRST_JOIN_SQL)) {
+            SqlUtil.setUuid(ps, 1, uuid);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     Timestamp ts = rs.getTimestamp("first_join");
@@ -150,101 +236,270 @@ public class SessionServiceImpl implements SessionService {
         return getLoginCount(uuid) > 0;
     }
 
+    // ── Wiele graczy naraz ────────────────────────────────────────────────
+
     @Override
-    public void flushAll() {
-        if (activeSessions.isEmpty()) return;
+    public Map<UUID, Long> getPlaytimeSeconds(Collection<UUID> uuids) {
+        Map<UUID, Long> result = new HashMap<>();
+        List<UUID>      query  = new ArrayList<>();
+        long            now    = System.currentTimeMillis();
+
+        for (UUID uuid : uuids) {
+            Long joinTime = activeSessions.get(uuid);
+            Long stored   = storedPlaytime.get(uuid);
+            if (joinTime != null && stored != null) {
+                result.put(uuid, stored + (now - joinTime) / 1000L);
+            } else {
+                result.put(uuid, 0L);
+                query.add(uuid);
+            }
+        }
+        if (query.isEmpty()) return result;
 
-        logger.info("[Session] Flushuję " + activeSessions.size()
-                + " aktywnych sesji...");
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, PLAYTIME_IN_SQL, query,
+                    rs -> result.put(SqlUtil.getUuid(rs, 1), rs.getLong(2)));
+        } catch (SQLException e) {
+            logger.warning("[Session] getPlaytimeSeconds(bulk) error: " + e.getMessage());
+        }
+
+        // Online bez playtime z logowania — dolicz bieżącą sesję
+        for (UUID uuid : query) {
+            Long joinTime = activeSessions.get(uuid);
+            if (joinTime != null) result.merge(uuid, (now - joinTime) / 1000L, Long::sum);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Instant> getLastSeen(Collection<UUID> uuids) {
+        Map<UUID, Instant> result = new HashMap<>();
+        List<UUID>         query  = new ArrayList<>();
+        Instant            now    = Instant.now();
+
+        for (UUID uuid : uuids) {
+            if (activeSessions.containsKey(uuid)) {
+                result.put(uuid, now);
+            } else {
+                query.add(uuid);
+            }
+        }
+
+        String sql = summaryReady ? LAST_SEEN_IN_SQL : LAST_SEEN_HISTORY_IN_SQL;
+        bulkInstants(sql, query, result, "getLastSeen");
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Integer> getLoginCount(Collection<UUID> uuids) {
+        Map<UUID, Integer> result = new HashMap<>();
+        for (UUID uuid : uuids) {
+            result.put(uuid, 0);
+        }
+        if (result.isEmpty()) return result;
+
+        String sql = summaryReady ? LOGIN_COUNT_IN_SQL : LOGIN_COUNT_HISTORY_IN_SQL;
+
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, sql, result.keySet(),
+                    rs -> result.put(SqlUtil.getUuid(rs, 1), rs.getInt(2)));
+        } catch (SQLException e) {
+            logger.warning("[Session] getLoginCount(bulk) error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<UUID, Instant> getFirstJoin(Collection<UUID> uuids) {
+        Map<UUID, Instant> result = new HashMap<>();
+
+        String sql = summaryReady ? FIRST_JOIN_IN_SQL : FIRST_JOIN_HISTORY_IN_SQL;
+        bulkInstants(sql, uuids, result, "getFirstJoin");
+        return result;
+    }
+
+    @Override
+    public void flushAll() {
+        if (!activeSessions.isEmpty()) {
+            logger.info("[Session] Flushuję " + activeSessions.size()
+                    + " aktywnych sesji...");
+        }
 
         // Kopiujemy żeby uniknąć ConcurrentModificationException
         Map<UUID, Long> snapshot = Map.copyOf(activeSessions);
+        long now = System.currentTimeMillis();
 
-        snapshot.forEach((uuid, joinTime) -> {
-            long seconds = (System.currentTimeMillis() - joinTime) / 1000L;
-            addPlaytime(uuid, seconds);
-            closeSession(uuid);
-        });
+        snapshot.forEach((uuid, joinTime) ->
+                writeBehind.close(uuid, (now - joinTime) / 1000L, now));
 
         activeSessions.clear();
+        storedPlaytime.clear();
+
+        // Jedna paczka na wszystkich graczy — czas nie rośnie z ich liczbą
+        writeBehind.shutdown(5_000L);
+        leaderboard.shutdown();
         logger.info("[Session] Flush zakończony.");
     }
 
-    // ── SQL helpers ───────────────────────────────────────────────────────
+    /** Ranking czasu gry — udostępniany przez HexVGCoreAPI. */
+    public LeaderboardServiceImpl getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Czy odczyty login_count / first_join / last_seen idą już
+     * z hexvg_player_summary (backfill historii zakończony).
+     */
+    public boolean isSummaryReady() {
+        return summaryReady;
+    }
 
-    private void insertSession(UUID uuid, String playerName, String ipHash) {
-        String sql = """
-                INSERT INTO hexvg_sessions (player_uuid, player_name, login_at, ip_hash)
-                VALUES (?, ?, CURRENT_TIMESTAMP, ?)
-                """;
+    /**
+     * Zapytania sesji wykonywane przy każdym wyjściu gracza, przy
+     * odczytach sprzed backfillu i odczyty zbiorcze (tab, rankingi) —
+     * do sprawdzenia planów (QueryPlanCheck).
+     */
+    public List<QueryPlanCheck.HotQuery> hotQueries() {
+        return List.of(
+                new QueryPlanCheck.HotQuery("closeSession", db.getType() == DatabaseType.MYSQL
+                        ? SessionWriteBehind.CLOSE_SQL_MYSQL
+                        : SessionWriteBehind.CLOSE_SQL_SQLITE, 1),
+                new QueryPlanCheck.HotQuery("lastSeen",     LAST_SEEN_SQL),
+                new QueryPlanCheck.HotQuery("firstJoin",    FIRST_JOIN_SQL),
+                new QueryPlanCheck.HotQuery("loginCount",   LOGIN_COUNT_SQL),
+                QueryPlanCheck.bulk("playtime(bulk)",          PLAYTIME_IN_SQL),
+                QueryPlanCheck.bulk("lastSeen(bulk)",          LAST_SEEN_IN_SQL),
+                QueryPlanCheck.bulk("lastSeenHistory(bulk)",   LAST_SEEN_HISTORY_IN_SQL),
+                QueryPlanCheck.bulk("loginCount(bulk)",        LOGIN_COUNT_IN_SQL),
+                QueryPlanCheck.bulk("loginCountHistory(bulk)", LOGIN_COUNT_HISTORY_IN_SQL),
+                QueryPlanCheck.bulk("firstJoin(bulk)",         FIRST_JOIN_IN_SQL),
+                QueryPlanCheck.bulk("firstJoinHistory(bulk)",  FIRST_JOIN_HISTORY_IN_SQL)
+        );
+    }
 
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ps.setString(2, playerName);
-            ps.setString(3, ipHash);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            logger.warning("[Session] insertSession error: " + e.getMessage());
-        }
-    }
-
-    private void closeSession(UUID uuid) {
-        // SQLite nie wspiera LIMIT w UPDATE — osobna ścieżka
-        String sql = db.getType() == DatabaseType.MYSQL
-                ? """
-                  UPDATE hexvg_sessions
-                  SET logout_at = CURRENT_TIMESTAMP
-                  WHERE player_uuid = ? AND logout_at IS NULL
-                  ORDER BY login_at DESC
-                  LIMIT 1
-                  """
-                : """
-                  UPDATE hexvg_sessions
-                  SET logout_at = CURRENT_TIMESTAMP
-                  WHERE id = (
-                      SELECT id FROM hexvg_sessions
-                      WHERE player_uuid = ? AND logout_at IS NULL
-                      ORDER BY login_at DESC
-                      LIMIT 1
-                  )
-                  """;
-
-        try (Connection conn = db.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ps.executeUpdate();
+    /**
+     * Zapisuje od razu czekające zapisy sesji gracza — wołane w pre-login
+     * przed prefetchem, żeby szybki powrót (quit + join w obrębie jednego
+     * flushu) nie odczytał starego playtime / login_count.
+     *
+     * @return false gdy zapisy nadal czekają (baza niedostępna)
+     */
+    public boolean flushPending(UUID uuid) {
+        return writeBehind.flushFor(uuid);
+    }
+
+    /** Czy gracz ma zapisy sesji jeszcze niewysłane do bazy. */
+    public boolean hasPendingWrites(UUID uuid) {
+        return writeBehind.isPending(uuid);
+    }
+
+    /**
+     * Wołany z wątku zapisu po zatwierdzeniu paczki — raz na gracza,
+     * którego operacje w niej były.
+     */
+    public void onFlushed(Consumer<UUID> listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * Zapamiętuje łączny playtime z DB pobrany przy logowaniu.
+     * Wywoływane przez SessionListener przed handleJoin().
+     */
+    public void primePlaytime(UUID uuid, long totalSeconds) {
+        storedPlaytime.put(uuid, totalSeconds);
+    }
+
+    // Zapytanie (uuid, timestamp) paczkami IN (...) — null pomijane
+    private void bulkInstants(String sql,
+                              Collection<UUID> uuids,
+                              Map<UUID, Instant> result,
+                              String method) {
+        if (uuids.isEmpty()) return;
+
+        try (Connection conn = db.getReadConnection()) {
+            SqlUtil.queryIn(conn, sql, uuids, rs -> {
+                Timestamp ts = rs.getTimestamp(2);
+                if (ts != null) result.put(SqlUtil.getUuid(rs, 1), ts.toInstant());
+            });
         } catch (SQLException e) {
-            logger.warning("[Session] closeSession error: " + e.getMessage());
-        }
-    }
-
-    private void addPlaytime(UUID uuid, long seconds) {
-        if (seconds <= 0) return;
-
-        String sql = db.getType() == DatabaseType.MYSQL
-                ? """
-                  INSERT INTO hexvg_playtime (uuid, total_seconds)
-                  VALUES (?, ?)
-                  ON DUPLICATE KEY UPDATE
-                      total_seconds = total_seconds + VALUES(total_seconds),
-                      updated_at    = CURRENT_TIMESTAMP
-                  """
-                : """
-                  INSERT INTO hexvg_playtime (uuid, total_seconds)
-                  VALUES (?, ?)
-                  ON CONFLICT(uuid) DO UPDATE SET
-                      total_seconds = total_seconds + excluded.total_seconds,
-                      updated_at    = CURRENT_TIMESTAMP
-                  """;
-
-        try (Connection conn = db.getConnection();
+            logger.warning("[Session] " + method + "(bulk) error: " + e.getMessage());
+        }
+    }
+
+    // Odczyt po kluczu głównym — kolumna to stała z tej klasy
+    private Instant summaryInstant(UUID uuid, String column) {
+        String sql = "SELECT " + column + " FROM hexvg_player_summary WHERE uuid = ?";
+
+        try (Connection conn = db.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            ps.setLong(  2, seconds);
-            ps.executeUpdate();
+            SqlUtil.setUuid(ps, 1, uuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp ts = rs.getTimestamp(1);
+                    return ts != null ? ts.toInstant() : null;
+                }
+            }
         } catch (SQLException e) {
-            logger.warning("[Session] addPlaytime error: " + e.getMessage());
+            logger.warning("[Session] summary " + column + " error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // ── Async ─────────────────────────────────────────────────────────────
+
+    @Override
+    public CompletableFuture<Instant> getLastSeenAsync(UUID uuid) {
+        if (activeSessions.containsKey(uuid)) {
+            return CompletableFuture.completedFuture(Instant.now());
+        }
+        return async(() -> getLastSeen(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Long> getPlaytimeSecondsAsync(UUID uuid) {
+        return async(() -> getPlaytimeSeconds(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getLoginCountAsync(UUID uuid) {
+        return async(() -> getLoginCount(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Instant> getFirstJoinAsync(UUID uuid) {
+        return async(() -> getFirstJoin(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasPlayedAsync(UUID uuid) {
+        return async(() -> hasPlayed(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getPlaytimeSecondsAsync(Collection<UUID> uuids) {
+        return async(() -> getPlaytimeSeconds(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Instant>> getLastSeenAsync(Collection<UUID> uuids) {
+        return async(() -> getLastSeen(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Integer>> getLoginCountAsync(Collection<UUID> uuids) {
+        return async(() -> getLoginCount(uuids));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Instant>> getFirstJoinAsync(Collection<UUID> uuids) {
+        return async(() -> getFirstJoin(uuids));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, db.getAsyncExecutor());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
-}
\ No newline at end of file
+}
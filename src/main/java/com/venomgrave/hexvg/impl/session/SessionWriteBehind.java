@@ -0,0 +1,440 @@
+package com.venomgrave.hexvg.impl.session;
+
+import com.venomgrave.hexvg.api.database.DatabaseService;
+import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Kolejka zapisów sesji (write-behind).
+ *
+ * Join / quit tylko dopisują operację do kolejki. Wątek flushujący co
+ * flushIntervalMs (albo od razu po batchSize operacjach) wysyła je jako
+ * JDBC batch w jednej transakcji: INSERT sesji, UPSERT playtime
+ * (zsumowany per gracz), UPDATE logout_at oraz podsumowanie gracza
+ * (hexvg_player_summary) — stała liczba round-tripów na paczkę
+ * zamiast kilku na gracza.
+ *
+ * Czasy login_at / logout_at / last_seen to chwile join / quit zapisane
+ * w operacji, nie chwila flushu. last_seen = ostatnie logowanie, tak jak
+ * MAX(login_at) w odczytach sprzed backfillu podsumowań. Nieudany flush jest ponawiany z rosnącą
+ * przerwą (1s → 30s); operacje czekają w pamięci do maxPending —
+ * ponad to najstarsze są odrzucane.
+ *
+ * Po zatwierdzeniu paczki onFlushed dostaje UUID jej graczy (np. do
+ * zdjęcia snapshotów offline); isPending mówi bez blokowania, czy gracz
+ * ma jeszcze niezapisane operacje.
+ */
+class SessionWriteBehind {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO hexvg_sessions (player_uuid, player_name, login_at, ip_hash)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    // SQLite nie wspiera LIMIT w UPDATE — osobna ścieżka
+    static final String CLOSE_SQL_MYSQL = """
+            UPDATE hexvg_sessions
+            SET logout_at = ?
+            WHERE player_uuid = ? AND logout_at IS NULL
+            ORDER BY login_at DESC
+            LIMIT 1
+            """;
+
+    static final String CLOSE_SQL_SQLITE = """
+            UPDATE hexvg_sessions
+            SET logout_at = ?
+            WHERE id = (
+                SELECT id FROM hexvg_sessions
+                WHERE player_uuid = ? AND logout_at IS NULL
+                ORDER BY login_at DESC
+                LIMIT 1
+            )
+            """;
+
+    private static final String PLAYTIME_SQL_MYSQL = """
+            INSERT INTO hexvg_playtime (uuid, total_seconds)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE
+                total_seconds = total_seconds + VALUES(total_seconds),
+                updated_at    = CURRENT_TIMESTAMP
+            """;
+
+    private static final String PLAYTIME_SQL_SQLITE = """
+            INSERT INTO hexvg_playtime (uuid, total_seconds)
+            VALUES (?, ?)
+            ON CONFLICT(uuid) DO UPDATE SET
+                total_seconds = total_seconds + excluded.total_seconds,
+                updated_at    = CURRENT_TIMESTAMP
+            """;
+
+    // Podsumowanie gracza — login_count / first_join / last_seen bez
+    // skanowania hexvg_sessions przy odczycie
+    private static final String SUMMARY_OPEN_SQL_MYSQL = """
+            INSERT INTO hexvg_player_summary (uuid, login_count, first_join, last_seen)
+            VALUES (?, 1, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                login_count = login_count + 1,
+                last_seen   = VALUES(last_seen),
+                updated_at  = CURRENT_TIMESTAMP
+            """;
+
+    private static final String SUMMARY_OPEN_SQL_SQLITE = """
+            INSERT INTO hexvg_player_summary (uuid, login_count, first_join, last_seen)
+            VALUES (?, 1, ?, ?)
+            ON CONFLICT(uuid) DO UPDATE SET
+                login_count = login_count + 1,
+                last_seen   = excluded.last_seen,
+                updated_at  = CURRENT_TIMESTAMP
+            """;
+
+    private static final long RETRY_MIN_MS = 1_000L;
+    private static final long RETRY_MAX_MS = 30_000L;
+
+    // ── Operacje ──────────────────────────────────────────────────────────
+
+    sealed interface Op permits Open, Close {
+        UUID uuid();
+    }
+
+    /** at — chwila dołączenia (epoch millis). */
+    record Open(UUID uuid, String playerName, String ipHash, long at) implements Op {}
+
+    /** at — chwila wyjścia (epoch millis). */
+    record Close(UUID uuid, long seconds, long at) implements Op {}
+
+    private final DatabaseService db;
+    private final Logger          logger;
+    private final int             batchSize;
+    private final int             maxPending;
+
+    private final ConcurrentLinkedQueue<Op> queue   = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger             pending = new AtomicInteger();
+    // Operacje z nieudanego flushu — idą na początek następnego
+    private final ArrayDeque<Op>            retry   = new ArrayDeque<>();
+    private final AtomicInteger             dropped = new AtomicInteger();
+    // UUID → liczba niezapisanych operacji (kolejka + retry)
+    private final Map<UUID, Integer>        unsaved = new ConcurrentHashMap<>();
+    private final Consumer<UUID>            onFlushed;
+    private long                            retryMs = RETRY_MIN_MS;
+    private long                            retryAt;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "HexVG-Session-Writer");
+                t.setDaemon(true);
+                return t;
+            });
+
+    SessionWriteBehind(DatabaseService db,
+                       Logger logger,
+                       long flushIntervalMs,
+                       int batchSize,
+                       int maxPending,
+                       Consumer<UUID> onFlushed) {
+        this.db         = db;
+        this.logger     = logger;
+        this.batchSize  = batchSize;
+        this.maxPending = maxPending;
+        this.onFlushed  = onFlushed;
+
+        flusher.scheduleWithFixedDelay(this::flushSafely,
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ── Kolejkowanie ──────────────────────────────────────────────────────
+
+    void open(UUID uuid, String playerName, String ipHash, long at) {
+        enqueue(new Open(uuid, playerName, ipHash, at));
+    }
+
+    void close(UUID uuid, long seconds, long at) {
+        enqueue(new Close(uuid, seconds, at));
+    }
+
+    int pending() {
+        return pending.get();
+    }
+
+    /** Czy gracz ma operacje jeszcze niezapisane w bazie. */
+    boolean isPending(UUID uuid) {
+        return unsaved.containsKey(uuid);
+    }
+
+    private void enqueue(Op op) {
+        unsaved.merge(op.uuid(), 1, Integer::sum);
+        queue.add(op);
+        if (pending.incrementAndGet() >= batchSize
+                && flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushScheduled.set(false);
+                    flushSafely();
+                });
+            } catch (RuntimeException e) {
+                // Flusher zamknięty (onDisable) — shutdown() i tak zrobi flush
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    // ── Flush ─────────────────────────────────────────────────────────────
+
+    /**
+     * Zatrzymuje cykliczny flush i wysyła wszystko co zostało w kolejce.
+     * Wywoływane w onDisable() — czas nie zależy od liczby graczy
+     * (stała liczba round-tripów na paczkę).
+     */
+    void shutdown(long timeoutMs) {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warning("[Session] Timeout flushera — przerywam.");
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (!flush(true)) {
+            logger.warning("[Session] Ostatni flush nieudany — " + retry.size()
+                    + " zapisów sesji utraconych.");
+        }
+    }
+
+    /**
+     * Zapisuje od razu wszystko z kolejki, jeśli są tam operacje gracza —
+     * wołane przed odczytem jego danych przy ponownym wejściu, żeby
+     * prefetch nie widział stanu sprzed ostatniego wyjścia.
+     *
+     * @return false gdy operacje gracza nadal czekają (baza niedostępna)
+     */
+    synchronized boolean flushFor(UUID uuid) {
+        if (!hasPending(uuid)) return true;
+        try {
+            flush(true);
+        } catch (RuntimeException e) {
+            logger.warning("[Session] Błąd flushu: " + e.getMessage());
+        }
+        return !hasPending(uuid);
+    }
+
+    // Wołać pod monitorem — retry nie jest współbieżne
+    private boolean hasPending(UUID uuid) {
+        for (Op op : retry) {
+            if (op.uuid().equals(uuid)) return true;
+        }
+        for (Op op : queue) {
+            if (op.uuid().equals(uuid)) return true;
+        }
+        return false;
+    }
+
+    private void flushSafely() {
+        try {
+            flush(false);
+        } catch (RuntimeException e) {
+            // Wyjątek zatrzymałby scheduleWithFixedDelay na zawsze
+            logger.warning("[Session] Błąd flushu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param force pomiń przerwę po nieudanym flushu (shutdown, rejoin)
+     * @return true gdy wszystko zapisano (albo nie było czego)
+     */
+    private synchronized boolean flush(boolean force) {
+        if (!force && !retry.isEmpty() && System.currentTimeMillis() < retryAt) {
+            trimRetry();
+            return false;
+        }
+
+        List<Op> ops = new ArrayList<>(retry);
+        retry.clear();
+
+        Op op;
+        while ((op = queue.poll()) != null) {
+            pending.decrementAndGet();
+            ops.add(op);
+        }
+        if (ops.isEmpty()) return true;
+
+        try (Connection conn = db.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (List<Op> round : rounds(ops)) {
+                    writeRound(conn, round);
+                }
+                conn.commit();
+                retryMs = RETRY_MIN_MS;
+                saved(ops);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            // Operacje zostają w pamięci — ponowimy po przerwie
+            retry.addAll(ops);
+            trimRetry();
+            retryAt = System.currentTimeMillis() + retryMs;
+            logger.warning("[Session] Flush " + retry.size() + " zapisów nieudany ("
+                    + e.getMessage() + ") — ponowię za " + retryMs / 1000 + "s.");
+            retryMs = Math.min(retryMs * 2, RETRY_MAX_MS);
+            return false;
+        }
+    }
+
+    /**
+     * Przenosi kolejkę do retry i odrzuca najstarsze operacje ponad
+     * maxPending — przy długiej awarii bazy pamięć nie rośnie bez końca.
+     */
+    private void trimRetry() {
+        Op op;
+        while ((op = queue.poll()) != null) {
+            pending.decrementAndGet();
+            retry.addLast(op);
+        }
+
+        int over = retry.size() - maxPending;
+        if (over <= 0) return;
+        List<Op> lost = new ArrayList<>(over);
+        for (int i = 0; i < over; i++) {
+            lost.add(retry.pollFirst());
+        }
+        saved(lost);
+        int total = dropped.addAndGet(over);
+        logger.warning("[Session] Kolejka zapisów pełna (" + maxPending
+                + ") — odrzucono " + over + " najstarszych (łącznie: " + total + ").");
+    }
+
+    /** Operacje opuściły kolejkę (zapisane albo odrzucone). */
+    private void saved(List<Op> ops) {
+        Set<UUID> players = new HashSet<>();
+        for (Op op : ops) {
+            unsaved.computeIfPresent(op.uuid(), (k, n) -> n > 1 ? n - 1 : null);
+            players.add(op.uuid());
+        }
+        for (UUID uuid : players) {
+            try {
+                onFlushed.accept(uuid);
+            } catch (RuntimeException e) {
+                logger.warning("[Session] Błąd onFlushed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Dzieli operacje na rundy wykonywane po kolei. W jednej rundzie
+     * najpierw idą wszystkie INSERT, potem UPDATE logout_at — więc gracz
+     * który wyszedł i wszedł ponownie w obrębie jednej paczki musi trafić
+     * do następnej rundy, inaczej zamknęlibyśmy jego nową sesję.
+     */
+    private static List<List<Op>> rounds(List<Op> ops) {
+        List<List<Op>> rounds = new ArrayList<>();
+        List<Op>  round  = new ArrayList<>();
+        Set<UUID> closed = new HashSet<>();
+
+        for (Op op : ops) {
+            if (op instanceof Open && closed.contains(op.uuid())) {
+                rounds.add(round);
+                round  = new ArrayList<>();
+                closed = new HashSet<>();
+            }
+            if (op instanceof Close) closed.add(op.uuid());
+            round.add(op);
+        }
+        rounds.add(round);
+        return rounds;
+    }
+
+    private void writeRound(Connection conn, List<Op> round) throws SQLException {
+        boolean mysql = db.getType() == DatabaseType.MYSQL;
+
+        List<Open>      opens    = new ArrayList<>();
+        List<Close>     closes   = new ArrayList<>();
+        Map<UUID, Long> playtime = new LinkedHashMap<>();
+
+        for (Op op : round) {
+            if (op instanceof Open open) {
+                opens.add(open);
+            } else if (op instanceof Close close) {
+                closes.add(close);
+                if (close.seconds() > 0) playtime.merge(close.uuid(), close.seconds(), Long::sum);
+            }
+        }
+
+        if (!opens.isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                for (Open open : opens) {
+                    SqlUtil.setUuid(ps, 1, open.uuid());
+                    ps.setString(2, open.playerName());
+                    SqlUtil.setTimestamp(ps, 3, open.at(), db.getType());
+                    ps.setString(4, open.ipHash());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    mysql ? SUMMARY_OPEN_SQL_MYSQL : SUMMARY_OPEN_SQL_SQLITE)) {
+                for (Open open : opens) {
+                    SqlUtil.setUuid(ps, 1, open.uuid());
+                    SqlUtil.setTimestamp(ps, 2, open.at(), db.getType());
+                    SqlUtil.setTimestamp(ps, 3, open.at(), db.getType());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        if (!playtime.isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    mysql ? PLAYTIME_SQL_MYSQL : PLAYTIME_SQL_SQLITE)) {
+                for (Map.Entry<UUID, Long> entry : playtime.entrySet()) {
+                    SqlUtil.setUuid(ps, 1, entry.getKey());
+                    ps.setLong(  2, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        if (!closes.isEmpty()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    mysql ? CLOSE_SQL_MYSQL : CLOSE_SQL_SQLITE)) {
+                for (Close close : closes) {
+                    SqlUtil.setTimestamp(ps, 1, close.at(), db.getType());
+                    SqlUtil.setUuid(ps, 2, close.uuid());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+}
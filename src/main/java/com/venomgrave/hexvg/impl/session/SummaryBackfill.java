@@ -0,0 +1,124 @@
+package com.venomgrave.hexvg.impl.session;
+
+import com.venomgrave.hexvg.api.database.DatabaseType;
+import com.venomgrave.hexvg.impl.database.BackfillMigration;
+import com.venomgrave.hexvg.util.SqlUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Jednorazowe wypełnienie hexvg_player_summary z historii hexvg_sessions.
+ *
+ * Leci w tle przez BackfillRunner, paczkami graczy (paginacja po
+ * player_uuid — każda paczka to zakres indeksu idx_sessions_uuid_login,
+ * bez OFFSET). Każda paczka to osobna krótka transakcja, więc bieżące
+ * zapisy sesji nie czekają na całość.
+ *
+ * UPSERT bierze max/min z obu stron — paczka może się nałożyć na
+ * logowania zapisane już przez SessionWriteBehind i niczego nie cofnie.
+ * Po zakończeniu w hexvg_schema_version zostaje znacznik MARKER.
+ */
+class SummaryBackfill extends BackfillMigration {
+
+    static final String MARKER = "V5__player_summary.backfill";
+
+    private static final String KEYS_SQL = """
+            SELECT DISTINCT player_uuid FROM hexvg_sessions
+            WHERE player_uuid > ?
+            ORDER BY player_uuid
+            LIMIT ?
+            """;
+
+    // INSERT ... SELECT — daty nie przechodzą przez JDBC, format
+    // zostaje taki jak w hexvg_sessions
+    private static final String FILL_SQL_MYSQL = """
+            INSERT INTO hexvg_player_summary (uuid, login_count, first_join, last_seen)
+            SELECT player_uuid,
+                   COUNT(*),
+                   MIN(login_at),
+                   MAX(login_at)
+            FROM hexvg_sessions
+            WHERE player_uuid > ? AND player_uuid <= ?
+            GROUP BY player_uuid
+            ON DUPLICATE KEY UPDATE
+                login_count = GREATEST(login_count, VALUES(login_count)),
+                first_join  = LEAST(COALESCE(first_join, VALUES(first_join)),
+                                    VALUES(first_join)),
+                last_seen   = GREATEST(COALESCE(last_seen, VALUES(last_seen)),
+                                       VALUES(last_seen))
+            """;
+
+    private static final String FILL_SQL_SQLITE = """
+            INSERT INTO hexvg_player_summary (uuid, login_count, first_join, last_seen)
+            SELECT player_uuid,
+                   COUNT(*),
+                   MIN(login_at),
+                   MAX(login_at)
+            FROM hexvg_sessions
+            WHERE player_uuid > ? AND player_uuid <= ?
+            GROUP BY player_uuid
+            ON CONFLICT(uuid) DO UPDATE SET
+                login_count = MAX(login_count, excluded.login_count),
+                first_join  = MIN(COALESCE(first_join, excluded.first_join),
+                                  excluded.first_join),
+                last_seen   = MAX(COALESCE(last_seen, excluded.last_seen),
+                                  excluded.last_seen)
+            """;
+
+    private final DatabaseType type;
+    private final Runnable     onComplete;
+
+    SummaryBackfill(DatabaseType type, Runnable onComplete) {
+        super("core", MARKER);
+        this.type       = type;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    protected Chunk chunk(Connection conn, String after, int limit) throws SQLException {
+        String last = null;
+        int    keys = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(KEYS_SQL)) {
+            bindCursor(ps, 1, after);
+            ps.setInt(   2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    last = SqlUtil.getUuid(rs, 1).toString();
+                    keys++;
+                }
+            }
+        }
+        if (last == null) return new Chunk(null, 0);
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                type == DatabaseType.MYSQL ? FILL_SQL_MYSQL : FILL_SQL_SQLITE)) {
+            bindCursor(ps, 1, after);
+            bindCursor(ps, 2, last);
+            ps.executeUpdate();
+        }
+        return new Chunk(last, keys);
+    }
+
+    @Override
+    protected void onComplete() {
+        // Odczyty przechodzą z hexvg_sessions na hexvg_player_summary
+        onComplete.run();
+    }
+
+    // Kursor to UUID tekstem — kolejność bajtów BINARY(16) jest taka sama
+    // jak tekstu, więc kursor zapisany przed konwersją nadal pasuje
+    private static void bindCursor(PreparedStatement ps, int index, String cursor) throws SQLException {
+        if (!cursor.isEmpty()) {
+            SqlUtil.setUuid(ps, index, UUID.fromString(cursor));
+        } else if (SqlUtil.isBinaryUuids()) {
+            ps.setBytes(index, new byte[0]);
+        } else {
+            ps.setString(index, "");
+        }
+    }
+}
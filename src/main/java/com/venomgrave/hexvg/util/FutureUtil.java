@@ -0,0 +1,62 @@
+package com.venomgrave.hexvg.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+public final class FutureUtil {
+
+    private FutureUtil() {}
+
+    // ── Powrót na wątek serwera ───────────────────────────────────────────
+
+    /**
+     * Executor uruchamiający zadania na głównym wątku serwera.
+     * Jeśli już jesteśmy na głównym wątku — uruchamia od razu.
+     *
+     * Przykład:
+     * db.query(...).thenAcceptAsync(v -> player.sendMessage(...),
+     *         FutureUtil.mainThread(plugin));
+     */
+    public static Executor mainThread(Plugin plugin) {
+        return task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+
+    /**
+     * Zwraca future który kończy się (wynikiem lub wyjątkiem)
+     * na głównym wątku serwera — dalsze thenAccept/thenApply
+     * mogą bezpiecznie używać API Bukkit.
+     *
+     * Przykład:
+     * FutureUtil.sync(plugin, sessions.getPlaytimeSecondsAsync(uuid))
+     *         .thenAccept(sec -> player.sendMessage(...));
+     */
+    public static <T> CompletableFuture<T> sync(Plugin plugin, CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Executor main = mainThread(plugin);
+
+        future.whenComplete((value, error) -> {
+            try {
+                main.execute(() -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Plugin wyłączony — scheduler odrzuca zadania
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+}
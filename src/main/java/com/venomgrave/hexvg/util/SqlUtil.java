@@ -0,0 +1,180 @@
+package com.venomgrave.hexvg.util;
+
+import com.venomgrave.hexvg.api.database.DatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+public final class SqlUtil {
+
+    /**
+     * Maksymalna liczba UUID w jednym IN (...).
+     * Starsze SQLite mają limit 999 parametrów na zapytanie.
+     */
+    public static final int IN_CHUNK = 500;
+
+    // Format CURRENT_TIMESTAMP w SQLite (tekst, UTC)
+    private static final DateTimeFormatter SQLITE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    // true = kolumny UUID jako 16 bajtów (database.uuid-format: BINARY)
+    private static volatile boolean binaryUuids;
+
+    private SqlUtil() {}
+
+    /** Wiersz wyniku — obsługa bez przesuwania kursora. */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        void handle(ResultSet rs) throws SQLException;
+    }
+
+    // ── IN (...) ──────────────────────────────────────────────────────────
+
+    /**
+     * "?, ?, ?" — n znaków zapytania do IN (...).
+     */
+    public static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 3);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Wykonuje zapytanie z IN (...) paczkami po IN_CHUNK UUID — jeden
+     * round-trip na paczkę zamiast jednego na gracza. Duplikaty są
+     * pomijane, wszystkie paczki idą na podanym połączeniu.
+     *
+     * Przykład:
+     * SqlUtil.queryIn(conn,
+     *         "SELECT uuid, nick FROM hexvg_players WHERE uuid IN (%s)",
+     *         uuids, rs -> nicks.put(SqlUtil.getUuid(rs, 1), rs.getString(2)));
+     *
+     * @param sql zapytanie z jednym %s w miejscu listy parametrów
+     */
+    public static void queryIn(Connection conn,
+                               String sql,
+                               Collection<UUID> uuids,
+                               RowHandler handler) throws SQLException {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(uuids));
+
+        for (int from = 0; from < distinct.size(); from += IN_CHUNK) {
+            List<UUID> chunk = distinct.subList(from, Math.min(from + IN_CHUNK, distinct.size()));
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    sql.formatted(placeholders(chunk.size())))) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    setUuid(ps, i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        handler.handle(rs);
+                    }
+                }
+            }
+        }
+    }
+
+    // ── Czas ──────────────────────────────────────────────────────────────
+
+    /**
+     * Wiąże chwilę tak, jak zapisałby ją CURRENT_TIMESTAMP danej bazy:
+     * MySQL — TIMESTAMP, SQLite — tekst 'yyyy-MM-dd HH:mm:ss' w UTC.
+     * W SQLite liczba i tekst nie porównują się chronologicznie, więc
+     * inny format psułby ORDER BY / MIN() ze starszymi wierszami.
+     */
+    public static void setTimestamp(PreparedStatement ps,
+                                    int index,
+                                    long epochMillis,
+                                    DatabaseType type) throws SQLException {
+        if (type == DatabaseType.MYSQL) {
+            ps.setTimestamp(index, new Timestamp(epochMillis));
+        } else {
+            ps.setString(index, SQLITE_TIMESTAMP.format(Instant.ofEpochMilli(epochMillis)));
+        }
+    }
+
+    // ── UUID ──────────────────────────────────────────────────────────────
+
+    /**
+     * Ustawiane raz przy starcie, po migracjach — zgodnie z formatem
+     * kolumn w bazie (UuidStorageMigration).
+     */
+    public static void setBinaryUuids(boolean binary) {
+        binaryUuids = binary;
+    }
+
+    public static boolean isBinaryUuids() {
+        return binaryUuids;
+    }
+
+    /**
+     * Wiąże UUID w formacie kolumn Core: 16 bajtów (dwa longi, bez
+     * Stringa) albo tekst 36 znaków.
+     */
+    public static void setUuid(PreparedStatement ps, int index, UUID uuid) throws SQLException {
+        if (binaryUuids) {
+            ps.setBytes(index, toBytes(uuid));
+        } else {
+            ps.setString(index, uuid.toString());
+        }
+    }
+
+    /** UUID z kolumny w formacie Core; null dla NULL. */
+    public static UUID getUuid(ResultSet rs, int column) throws SQLException {
+        return binaryUuids ? fromBytes(rs.getBytes(column)) : fromText(rs.getString(column));
+    }
+
+    /** UUID z kolumny w formacie Core; null dla NULL. */
+    public static UUID getUuid(ResultSet rs, String column) throws SQLException {
+        return binaryUuids ? fromBytes(rs.getBytes(column)) : fromText(rs.getString(column));
+    }
+
+    /** Big-endian: najpierw most, potem least significant bits. */
+    public static byte[] toBytes(UUID uuid) {
+        byte[] out = new byte[16];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            out[i]     = (byte) (msb >>> (56 - 8 * i));
+            out[i + 8] = (byte) (lsb >>> (56 - 8 * i));
+        }
+        return out;
+    }
+
+    /**
+     * Odwrotność toBytes(). Wartość tekstowa (wiersz jeszcze
+     * nieprzekonwertowany w SQLite) jest parsowana jako tekst.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null) return null;
+        if (bytes.length != 16) return fromText(new String(bytes, StandardCharsets.US_ASCII));
+
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i]     & 0xFF);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    private static UUID fromText(String text) {
+        return text == null ? null : UUID.fromString(text);
+    }
+}
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS hexvg_audit (
+    id          INTEGER      PRIMARY KEY AUTOINCREMENT,
+    actor_uuid  VARCHAR(36)  NOT NULL,
+    actor_name  VARCHAR(16)  NOT NULL,
+    action      VARCHAR(50)  NOT NULL,
+    target      VARCHAR(100),
+    data        TEXT,
+    created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_actor  ON hexvg_audit (actor_uuid);
+CREATE INDEX IF NOT EXISTS idx_audit_action ON hexvg_audit (action);
+CREATE INDEX IF NOT EXISTS idx_audit_date   ON hexvg_audit (created_at)
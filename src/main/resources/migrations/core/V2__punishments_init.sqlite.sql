@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS hexvg_warnings (
+    id           INTEGER      PRIMARY KEY AUTOINCREMENT,
+    player_uuid  VARCHAR(36)  NOT NULL,
+    player_name  VARCHAR(16)  NOT NULL,
+    staff_uuid   VARCHAR(36)  NOT NULL,
+    staff_name   VARCHAR(16)  NOT NULL,
+    reason       VARCHAR(255) NOT NULL,
+    issued_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at   TIMESTAMP    NULL,
+    active       TINYINT(1)   NOT NULL DEFAULT 1
+);
+
+CREATE INDEX IF NOT EXISTS idx_warn_player ON hexvg_warnings (player_uuid);
+CREATE INDEX IF NOT EXISTS idx_warn_active ON hexvg_warnings (active);
+
+CREATE TABLE IF NOT EXISTS hexvg_punishments (
+    id           INTEGER      PRIMARY KEY AUTOINCREMENT,
+    player_uuid  VARCHAR(36)  NOT NULL,
+    player_name  VARCHAR(16)  NOT NULL,
+    type         VARCHAR(20)  NOT NULL,
+    staff_uuid   VARCHAR(36)  NOT NULL,
+    staff_name   VARCHAR(16)  NOT NULL,
+    reason       VARCHAR(255) NOT NULL,
+    issued_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at   TIMESTAMP    NULL,
+    active       TINYINT(1)   NOT NULL DEFAULT 1,
+    ip           VARCHAR(45)  NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_punish_player ON hexvg_punishments (player_uuid);
+CREATE INDEX IF NOT EXISTS idx_punish_type   ON hexvg_punishments (type);
+CREATE INDEX IF NOT EXISTS idx_punish_active ON hexvg_punishments (active)
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS hexvg_sessions (
+    id           INTEGER      PRIMARY KEY AUTOINCREMENT,
+    player_uuid  VARCHAR(36)  NOT NULL,
+    player_name  VARCHAR(16)  NOT NULL,
+    login_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    logout_at    TIMESTAMP    NULL,
+    ip_hash      VARCHAR(16)  NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sessions_uuid  ON hexvg_sessions (player_uuid);
+CREATE INDEX IF NOT EXISTS idx_sessions_login ON hexvg_sessions (login_at);
+
+CREATE TABLE IF NOT EXISTS hexvg_playtime (
+    uuid          VARCHAR(36)  NOT NULL,
+    total_seconds BIGINT       NOT NULL DEFAULT 0,
+    updated_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (uuid)
+)
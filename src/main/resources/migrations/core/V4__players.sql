@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS hexvg_players (
+    uuid           VARCHAR(36)  NOT NULL,
+    name           VARCHAR(16)  NULL,
+    nick           VARCHAR(64)  NULL,
+    first_ip_hash  VARCHAR(16)  NULL,
+    created_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+                                ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (uuid),
+    INDEX idx_players_name (name),
+    INDEX idx_players_nick (nick)
+)
\ No newline at end of file
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS hexvg_player_summary (
+    uuid         VARCHAR(36)  NOT NULL,
+    login_count  INT          NOT NULL DEFAULT 0,
+    first_join   TIMESTAMP    NULL,
+    last_seen    TIMESTAMP    NULL,
+    updated_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (uuid)
+)
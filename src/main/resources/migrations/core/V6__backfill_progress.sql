@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS hexvg_backfill_progress (
+    module       VARCHAR(50)   NOT NULL,
+    name         VARCHAR(100)  NOT NULL,
+    cursor_key   VARCHAR(255)  NOT NULL,
+    rows_done    BIGINT        NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (module, name)
+)
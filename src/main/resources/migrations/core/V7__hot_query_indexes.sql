@@ -0,0 +1,9 @@
+CREATE INDEX idx_punish_player_active ON hexvg_punishments (player_uuid, active, type, expires_at);
+CREATE INDEX idx_punish_active_type   ON hexvg_punishments (active, type, expires_at, player_uuid);
+DROP INDEX idx_punish_player ON hexvg_punishments;
+DROP INDEX idx_punish_active ON hexvg_punishments;
+
+CREATE INDEX idx_warn_player_active ON hexvg_warnings (player_uuid, active, expires_at);
+CREATE INDEX idx_warn_active_exp    ON hexvg_warnings (active, expires_at, player_uuid);
+DROP INDEX idx_warn_player ON hexvg_warnings;
+DROP INDEX idx_warn_active ON hexvg_warnings;
@@ -0,0 +1,12 @@
+CREATE INDEX IF NOT EXISTS idx_punish_player_active ON hexvg_punishments (player_uuid, active, type, expires_at);
+CREATE INDEX IF NOT EXISTS idx_punish_active_type   ON hexvg_punishments (active, type, expires_at, player_uuid);
+DROP INDEX IF EXISTS idx_punish_player;
+DROP INDEX IF EXISTS idx_punish_active;
+
+CREATE INDEX IF NOT EXISTS idx_warn_player_active ON hexvg_warnings (player_uuid, active, expires_at);
+CREATE INDEX IF NOT EXISTS idx_warn_active_exp    ON hexvg_warnings (active, expires_at, player_uuid);
+DROP INDEX IF EXISTS idx_warn_player;
+DROP INDEX IF EXISTS idx_warn_active;
+
+CREATE INDEX IF NOT EXISTS idx_sessions_uuid_login ON hexvg_sessions (player_uuid, login_at, logout_at);
+DROP INDEX IF EXISTS idx_sessions_uuid
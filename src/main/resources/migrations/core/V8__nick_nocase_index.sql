@@ -0,0 +1,2 @@
+-- MySQL: kolumna nick ma collation *_ci — idx_players_nick obsługuje
+-- porównania bez wielkości liter. Zmiana tylko w wariancie SQLite.
@@ -0,0 +1,4 @@
+-- nick = ? COLLATE NOCASE (isNickTaken, findByNick) nie użyje indeksu
+-- z collation BINARY — indeks musi mieć tę samą collation co porównanie
+CREATE INDEX IF NOT EXISTS idx_players_nick_nocase ON hexvg_players (nick COLLATE NOCASE);
+DROP INDEX IF EXISTS idx_players_nick;